@@ -18,9 +18,12 @@
 */
 package org.omnaest.physics;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -28,19 +31,60 @@ import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.omnaest.physics.component.AllocationMonitor;
+import org.omnaest.physics.component.AllocationMonitor.Phase;
+import org.omnaest.physics.component.AllocationMonitor.Statistics;
 import org.omnaest.physics.component.CallOptimizingForceProviderManager;
+import org.omnaest.physics.component.CallOptimizingForceProviderManager.MatchingIndex;
+import org.omnaest.physics.component.CallOptimizingForceProviderManager.Slots;
+import org.omnaest.physics.component.CompiledForceField;
+import org.omnaest.physics.component.DirtyRegion;
+import org.omnaest.physics.component.FarFieldPipeline;
+import org.omnaest.physics.component.FireRelaxation;
+import org.omnaest.physics.component.FusedTickKernel;
+import org.omnaest.physics.component.ImplicitIntegrator;
+import org.omnaest.physics.component.LbfgsMinimizer;
+import org.omnaest.physics.component.MultiRateScheduler;
+import org.omnaest.physics.component.PairwiseForceField;
+import org.omnaest.physics.component.ParticleColoring;
+import org.omnaest.physics.component.ParticleSnapshot;
+import org.omnaest.physics.component.PartitionedExecutor;
+import org.omnaest.physics.component.PositionBasedConstraintSolver;
+import org.omnaest.physics.component.RegionOfInterest;
+import org.omnaest.physics.component.SimulationMXBean;
+import org.omnaest.physics.component.SimulationTelemetry;
+import org.omnaest.physics.component.StressMajorizationSolver;
+import org.omnaest.physics.component.TemperatureSchedule;
+import org.omnaest.physics.component.VerletNeighborList;
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceField;
 import org.omnaest.physics.domain.force.ForceProvider;
 import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.physics.domain.force.MinimalPointDistanceForceProvider;
+import org.omnaest.physics.domain.force.PairForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+import org.omnaest.physics.domain.force.PotentialEnergyProvider;
+import org.omnaest.physics.domain.force.ShortRangeForceProvider;
 import org.omnaest.physics.domain.force.utils.DurationCapture;
 import org.omnaest.utils.ThreadUtils;
 import org.omnaest.vector.Vector;
@@ -55,34 +99,69 @@ public class PhysicsSimulation
 {
     private static final Logger LOG = LoggerFactory.getLogger(PhysicsSimulation.class);
 
+    private static final int REGION_RELAXATION_RATE = 4;
+    private static final int MAX_DEPTH              = 4;
+
     private double cpuUseFactor = 1.0;
 
     private Set<Particle>      particles      = new LinkedHashSet<>();
     private Set<ForceProvider> forceProviders = new LinkedHashSet<>();
+    private Set<ForceField>    forceFields    = new LinkedHashSet<>();
 
     private CallOptimizingForceProviderManager optimizingForceProviderManager = new CallOptimizingForceProviderManager();
+    private VerletNeighborList                 neighborList                   = null;
+    private MultiRateScheduler                 multiRateScheduler             = new MultiRateScheduler();
+    private volatile FarFieldPipeline          farFieldPipeline               = null;
+    private AtomicLong                         tickCounter                    = new AtomicLong();
+    private boolean                            pairwiseEvaluation             = false;
+    private boolean                            compiledEvaluation             = false;
+    private boolean                            fusedEvaluation                = false;
+    private volatile FusedTickKernel           fusedTickKernel                = null;
+    private ParticleColoring                   particleColoring               = null;
+    private PositionBasedConstraintSolver      constraintSolver               = null;
+    private ImplicitIntegrator                 implicitIntegrator             = null;
+    private FireRelaxation                     fireRelaxation                 = null;
+    private TemperatureSchedule                temperatureSchedule            = null;
+    private volatile DirtyRegion               dirtyRegion                    = null;
+    private volatile RegionOfInterest          regionOfInterest               = null;
+    private double                             cycleDisplacement              = 0.0;
+    private volatile AllocationMonitor         allocationMonitor              = null;
 
     public PhysicsSimulation addParticle(Particle particle)
     {
         this.particles.add(particle);
+        this.markDirty(Arrays.asList(particle));
         return this;
     }
 
     public PhysicsSimulation addParticles(Collection<Particle> particles)
     {
         this.particles.addAll(particles);
+        this.markDirty(particles);
         return this;
     }
 
     public PhysicsSimulation removeParticles(Set<Particle> particles)
     {
         this.particles.removeAll(particles);
+
+        DirtyRegion dirtyRegion = this.dirtyRegion;
+        if (dirtyRegion != null)
+        {
+            dirtyRegion.markRemoved(particles, this.particles, this.forceProviders);
+        }
         return this;
     }
 
     public PhysicsSimulation addForceProvider(ForceProvider forceProvider)
     {
         this.forceProviders.add(forceProvider);
+
+        DirtyRegion dirtyRegion = this.dirtyRegion;
+        if (dirtyRegion != null)
+        {
+            dirtyRegion.markDirty(forceProvider, this.particles);
+        }
         return this;
     }
 
@@ -103,9 +182,52 @@ public class PhysicsSimulation
     public PhysicsSimulation removeForceProviders(Collection<ForceProvider> forceProviders)
     {
         this.forceProviders.removeAll(forceProviders);
+
+        DirtyRegion dirtyRegion = this.dirtyRegion;
+        if (dirtyRegion != null)
+        {
+            forceProviders.forEach(forceProvider -> dirtyRegion.markDirty(forceProvider, this.particles));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a {@link ForceField} which is evaluated once per sub step for all {@link Particle}s
+     *
+     * @param forceField
+     * @return
+     */
+    public PhysicsSimulation addForceField(ForceField forceField)
+    {
+        this.forceFields.add(forceField);
         return this;
     }
 
+    public PhysicsSimulation addForceFields(Collection<? extends ForceField> forceFields)
+    {
+        if (forceFields != null)
+        {
+            forceFields.forEach(this::addForceField);
+        }
+        return this;
+    }
+
+    public PhysicsSimulation removeForceFields(ForceField... forceFields)
+    {
+        return this.removeForceFields(Arrays.asList(forceFields));
+    }
+
+    public PhysicsSimulation removeForceFields(Collection<ForceField> forceFields)
+    {
+        this.forceFields.removeAll(forceFields);
+        return this;
+    }
+
+    public List<ForceField> getForceFields()
+    {
+        return new ArrayList<>(this.forceFields);
+    }
+
     public List<Particle> getParticles()
     {
         return new ArrayList<>(this.particles);
@@ -124,64 +246,748 @@ public class PhysicsSimulation
 
     public void tick(double deltaT, ForceProvider.Type forceProviderType)
     {
+        this.tick(deltaT, forceProviderType, null, null, null);
+    }
+
+    /**
+     * Multi rate tick, which evaluates the {@link Type#SPECIFIC} forces on every call but the {@link Type#ALL_MATCHING} forces only on every k-th
+     * call. The slow forces are then applied as an impulse weighted with the number of calls since their last evaluation.
+     *
+     * @see #setSlowForceInterval(int)
+     * @param deltaT
+     */
+    public void tickMultiRate(double deltaT)
+    {
+        this.tickMultiRate(deltaT, null);
+    }
+
+    void tickMultiRate(double deltaT, PartitionedExecutor partitionedExecutor)
+    {
+        long version = this.tickCounter.getAndIncrement();
+        AllocationMonitor allocationMonitor = this.allocationMonitor;
+        long[] threadIds = allocationMonitor != null && partitionedExecutor != null ? partitionedExecutor.getThreadIds() : null;
+        long startBytes = allocationMonitor != null ? allocationMonitor.sample(threadIds) : -1;
+
+        FarFieldPipeline farFieldPipeline = this.farFieldPipeline;
+        if (farFieldPipeline != null)
+        {
+            this.tickWithFarFieldPipeline(deltaT, farFieldPipeline, version, partitionedExecutor);
+            if (allocationMonitor != null)
+            {
+                allocationMonitor.record(Phase.FAST_TICK, startBytes, threadIds);
+            }
+            return;
+        }
+
+        int slowForceWeight = this.multiRateScheduler.nextStep();
+
+        double[] typeWeights = new double[Type.values().length];
+        typeWeights[Type.SPECIFIC.ordinal()] = 1.0;
+        typeWeights[Type.ALL_MATCHING.ordinal()] = slowForceWeight;
+
+        long startTime = System.nanoTime();
+        this.tick(deltaT, null, typeWeights, null, partitionedExecutor);
+        this.multiRateScheduler.recordStep(slowForceWeight > 0, System.nanoTime() - startTime);
+        if (allocationMonitor != null)
+        {
+            allocationMonitor.record(slowForceWeight > 0 ? Phase.SLOW_TICK : Phase.FAST_TICK, startBytes, threadIds);
+        }
+    }
+
+    /**
+     * Ticks only the {@link Type#SPECIFIC} forces and applies the latest {@link Type#ALL_MATCHING} forces of the {@link FarFieldPipeline}, which
+     * are extrapolated for their staleness. If the {@link FarFieldPipeline} is idle, a new calculation is requested for the current locations.
+     */
+    private void tickWithFarFieldPipeline(double deltaT, FarFieldPipeline farFieldPipeline, long version, PartitionedExecutor partitionedExecutor)
+    {
+        if (!farFieldPipeline.isRunning())
+        {
+            Set<ForceProvider> farFieldForceProviders = this.forceProviders.stream()
+                                                                           .filter(forceProvider -> Type.ALL_MATCHING.equals(forceProvider.getType()))
+                                                                           .collect(Collectors.toSet());
+            List<ForceField> farFieldForceFields = this.forceFields.stream()
+                                                                   .filter(forceField -> Type.ALL_MATCHING.equals(forceField.getType()))
+                                                                   .collect(Collectors.toList());
+            if (!farFieldForceProviders.isEmpty() || !farFieldForceFields.isEmpty())
+            {
+                //the particles and their locations are captured on the tick thread
+                farFieldPipeline.request(version, new ParticleSnapshot(this.getParticles()),
+                                         particleSnapshot -> calculateFarFieldForces(particleSnapshot, farFieldForceProviders, farFieldForceFields));
+            }
+        }
+
+        double[] typeWeights = new double[Type.values().length];
+        typeWeights[Type.SPECIFIC.ordinal()] = 1.0;
+        this.tick(deltaT, null, typeWeights, particle -> farFieldPipeline.getForce(particle, version), partitionedExecutor);
+    }
+
+    /**
+     * Calculates the forces of the given {@link ForceProvider}s and {@link ForceField}s for all {@link Particle}s of the {@link ParticleSnapshot}
+     * with the snapshot locations, see {@link ForceProvider#getForce(org.omnaest.physics.domain.ParticleView, int)}. Runs on the
+     * {@link FarFieldPipeline} thread, so it must not touch any state of the simulation which is shared with the tick thread, like the particle
+     * set or the {@link VerletNeighborList}. Instead the {@link ShortRangeForceProvider}s are filtered by their range within the snapshot.
+     */
+    private static double[] calculateFarFieldForces(ParticleSnapshot particleSnapshot, Set<ForceProvider> forceProviders,
+                                                    List<ForceField> forceFields)
+    {
+        double[] forces = particleSnapshot.newForceArray();
+
+        forceProviders.forEach(ForceProvider::beforeTick);
+        forceFields.forEach(ForceField::beforeTick);
+        try
+        {
+            int dimensions = particleSnapshot.getDimensions();
+            for (int ii = 0; ii < particleSnapshot.size(); ii++)
+            {
+                Particle particle = particleSnapshot.getParticle(ii);
+                for (ForceProvider forceProvider : forceProviders)
+                {
+                    if (forceProvider.match(particle) && isInSnapshotRange(forceProvider, particleSnapshot, ii))
+                    {
+                        double[] force = forceProvider.getForce(particleSnapshot, ii)
+                                                      .getCoordinates();
+                        for (int jj = 0; jj < force.length && jj < dimensions; jj++)
+                        {
+                            forces[ii * dimensions + jj] += force[jj];
+                        }
+                    }
+                }
+            }
+
+            for (ForceField forceField : forceFields)
+            {
+                forceField.accumulate(particleSnapshot, forces);
+            }
+        }
+        finally
+        {
+            forceProviders.forEach(ForceProvider::afterTick);
+            forceFields.forEach(ForceField::afterTick);
+        }
+        return forces;
+    }
+
+    /**
+     * Returns false if the given {@link ForceProvider} is a {@link ShortRangeForceProvider} whose source {@link Particle} is out of range within
+     * the {@link ParticleSnapshot}
+     */
+    private static boolean isInSnapshotRange(ForceProvider forceProvider, ParticleSnapshot particleSnapshot, int index)
+    {
+        if (!(forceProvider instanceof ShortRangeForceProvider))
+        {
+            return true;
+        }
+
+        ShortRangeForceProvider shortRangeForceProvider = (ShortRangeForceProvider) forceProvider;
+        int sourceIndex = particleSnapshot.indexOf(shortRangeForceProvider.getSourceParticle(particleSnapshot.getParticle(index)));
+        if (sourceIndex < 0)
+        {
+            return true;
+        }
+
+        double range = shortRangeForceProvider.getRange();
+        double distanceSquare = 0.0;
+        for (int ii = 0; ii < particleSnapshot.getDimensions(); ii++)
+        {
+            double delta = particleSnapshot.getCoordinate(index, ii) - particleSnapshot.getCoordinate(sourceIndex, ii);
+            distanceSquare += delta * delta;
+        }
+        return distanceSquare <= range * range;
+    }
+
+    /**
+     * @param partitionedExecutor
+     *            optional {@link PartitionedExecutor} which moves the {@link Particle}s of each sub step cooperatively, can be null
+     */
+    private void tick(double deltaT, ForceProvider.Type forceProviderType, double[] typeWeights, Function<Particle, Vector> externalForceFunction,
+                      PartitionedExecutor partitionedExecutor)
+    {
+        Predicate<Type> typeFilter = type -> (forceProviderType == null || type.equals(forceProviderType))
+                && (typeWeights == null || typeWeights[type.ordinal()] != 0.0);
         Set<ForceProvider> optimizedForceProviders = this.forceProviders.stream()
-                                                                        .filter(forceProvider -> forceProviderType == null || forceProvider.getType()
-                                                                                                                                           .equals(forceProviderType))
-                                                                        //                                                                        .map(forceProvider -> this.optimizingForceProviderManager.wrap(forceProvider))
+                                                                        .filter(forceProvider -> typeFilter.test(forceProvider.getType()))
                                                                         .collect(Collectors.toSet());
+        List<ForceField> forceFields = this.forceFields.stream()
+                                                       .filter(forceField -> typeFilter.test(forceField.getType()))
+                                                       .collect(Collectors.toList());
+        List<Particle> particles = this.getParticles();
+
+        DirtyRegion dirtyRegion = this.dirtyRegion;
+        if (dirtyRegion != null && dirtyRegion.isEmpty())
+        {
+            //the scene has converged and stays frozen until the next mutation
+            return;
+        }
+        Set<Particle> region = dirtyRegion != null && this.fireRelaxation == null && this.implicitIntegrator == null
+                ? dirtyRegion.getRegion(particles, this.forceProviders)
+                : null;
+        List<Particle> observedParticles = region != null ? new ArrayList<>(region) : particles;
+        List<Vector> observedLocations = dirtyRegion != null ? observedParticles.stream()
+                                                                                .map(Particle::getLocation)
+                                                                                .collect(Collectors.toList())
+                : null;
+
+        RegionOfInterest regionOfInterest = this.fireRelaxation == null && this.implicitIntegrator == null ? this.regionOfInterest : null;
+        Set<Particle> focusedParticles = regionOfInterest != null ? regionOfInterest.nextTick(particles) : null;
+        Set<Particle> activeParticles = this.determineActiveParticles(region, focusedParticles);
+
+        //the dynamic parameters are sampled before the neighbor list cutoff and the compiled tables are determined
+        optimizedForceProviders.forEach(ForceProvider::beforeTick);
+        forceFields.forEach(ForceField::beforeTick);
+        try
+        {
+            VerletNeighborList neighborList = this.updateNeighborList(optimizedForceProviders);
+
+            Set<ForceProvider> particleForceProviders = optimizedForceProviders;
+            PositionBasedConstraintSolver constraintSolver = this.constraintSolver;
+            List<ForceProvider> constraintForceProviders = null;
+            if (constraintSolver != null)
+            {
+                constraintForceProviders = optimizedForceProviders.stream()
+                                                                  .filter(PositionBasedConstraintSolver::isConstraint)
+                                                                  .collect(Collectors.toList());
+                particleForceProviders = optimizedForceProviders.stream()
+                                                                .filter(forceProvider -> !PositionBasedConstraintSolver.isConstraint(forceProvider))
+                                                                .collect(Collectors.toSet());
+            }
+
+            FusedTickKernel fusedTickKernel = this.fusedEvaluation && forceFields.isEmpty() && externalForceFunction == null && isUnweighted(typeWeights)
+                    && activeParticles == null && this.temperatureSchedule == null && this.fireRelaxation == null
+                    && this.implicitIntegrator == null && !particleForceProviders.isEmpty() && FusedTickKernel.isFusable(particleForceProviders)
+                            ? this.determineFusedTickKernel(particleForceProviders)
+                            : null;
+
+            List<ForceField> tickForceFields = forceFields;
+            if (this.compiledEvaluation && fusedTickKernel == null)
+            {
+                Map<Type, List<ForceProvider>> compilableForceProviders = particleForceProviders.stream()
+                                                                                                .filter(CompiledForceField::isCompilable)
+                                                                                                .collect(Collectors.groupingBy(ForceProvider::getType));
+                if (!compilableForceProviders.isEmpty())
+                {
+                    particleForceProviders = particleForceProviders.stream()
+                                                                   .filter(forceProvider -> !CompiledForceField.isCompilable(forceProvider))
+                                                                   .collect(Collectors.toSet());
+                    tickForceFields = new ArrayList<>(tickForceFields);
+                    for (Type type : compilableForceProviders.keySet())
+                    {
+                        tickForceFields.add(new CompiledForceField(type, compilableForceProviders.get(type)));
+                    }
+                }
+            }
+            if (this.pairwiseEvaluation && fusedTickKernel == null)
+            {
+                Map<Type, List<ForceProvider>> pairwiseForceProviders = particleForceProviders.stream()
+                                                                                              .filter(PairwiseForceField::isEligible)
+                                                                                              .collect(Collectors.groupingBy(ForceProvider::getType));
+                if (!pairwiseForceProviders.isEmpty())
+                {
+                    particleForceProviders = particleForceProviders.stream()
+                                                                   .filter(forceProvider -> !PairwiseForceField.isEligible(forceProvider))
+                                                                   .collect(Collectors.toSet());
+                    tickForceFields = new ArrayList<>(tickForceFields);
+                    for (Type type : pairwiseForceProviders.keySet())
+                    {
+                        tickForceFields.add(new PairwiseForceField(type, pairwiseForceProviders.get(type), neighborList));
+                    }
+                }
+            }
+            Set<ForceProvider> matchingForceProviders = particleForceProviders;
+            MatchingIndex matchingIndex = fusedTickKernel != null ? null
+                    : this.optimizingForceProviderManager.indexForceProviders(particleForceProviders, neighborList);
+
+            TickContext tickContext = new TickContext();
+            tickContext.particles = particles;
+            tickContext.matchingForceProviders = fusedTickKernel != null ? null
+                    : particles.stream()
+                               .map(particle -> activeParticles == null || activeParticles.contains(particle)
+                                       ? this.optimizingForceProviderManager.calculateMatchingForceProviders(matchingIndex, particle)
+                                       : Collections.<Type, List<ForceProvider>>emptyMap())
+                               .collect(Collectors.toList());
+            tickContext.slots = this.optimizingForceProviderManager.assignSlots(particles);
+            tickContext.forceFields = tickForceFields;
+            tickContext.particleSnapshot = tickForceFields.isEmpty() ? null : new ParticleSnapshot(particles);
+            tickContext.typeWeights = typeWeights;
+            tickContext.externalForces = externalForceFunction == null ? null
+                    : particles.stream()
+                               .map(externalForceFunction)
+                               .toArray(size -> new Vector[size]);
+            tickContext.partitionedExecutor = partitionedExecutor;
+            TemperatureSchedule temperatureSchedule = this.temperatureSchedule;
+            tickContext.deltaT = deltaT;
+            tickContext.temperature = temperatureSchedule != null ? temperatureSchedule.getTemperature() : 0.0;
+            tickContext.energy = temperatureSchedule != null ? new DoubleAdder() : null;
+            ParticleColoring particleColoring = this.particleColoring;
+            int[][] colorClasses = particleColoring != null ? particleColoring.getColorClasses(particles, matchingForceProviders) : null;
+            tickContext.slotGroups = this.determineSlotGroups(colorClasses, particles, activeParticles);
+
+            //
+            double deltaT1 = deltaT / 2;
+            double deltaT10 = deltaT1 / 10;
+
+            FireRelaxation fireRelaxation = this.fireRelaxation;
+            ImplicitIntegrator implicitIntegrator = this.implicitIntegrator;
+            if (fireRelaxation != null)
+            {
+                ParticleSnapshot particleSnapshot = this.determineParticleSnapshot(tickContext);
+                fireRelaxation.step(particles, this.calculateForces(tickContext, particleSnapshot), particleSnapshot.getDimensions(), deltaT);
+            }
+            else if (implicitIntegrator != null)
+            {
+                //a single implicit step which moves weak forces as far as all sub steps together
+                List<ForceProvider> stiffForceProviders = optimizedForceProviders.stream()
+                                                                                 .filter(ImplicitIntegrator::isStiff)
+                                                                                 .filter(forceProvider -> constraintSolver == null
+                                                                                         || !PositionBasedConstraintSolver.isConstraint(forceProvider))
+                                                                                 .collect(Collectors.toList());
+                this.applyImplicitStep(tickContext, implicitIntegrator, stiffForceProviders, deltaT1 * deltaT1 + 10 * deltaT10 * deltaT10);
+            }
+            else if (fusedTickKernel != null)
+            {
+                fusedTickKernel.tick(particles, matchingForceProviders, deltaT);
+            }
+            else
+            {
+                int repetitions = region != null ? REGION_RELAXATION_RATE : 1;
+                for (int repetition = 0; repetition < repetitions; repetition++)
+                {
+                    this.applySubStep(tickContext, deltaT1);
+                    for (int ii = 0; ii < 10; ii++)
+                    {
+                        this.applySubStep(tickContext, deltaT10);
+                    }
+                }
+            }
+
+            if (constraintSolver != null && !constraintForceProviders.isEmpty())
+            {
+                constraintSolver.solve(particles, constraintForceProviders, neighborList, deltaT);
+            }
+
+            if (temperatureSchedule != null)
+            {
+                temperatureSchedule.update(tickContext.energy.sum());
+            }
+
+            if (dirtyRegion != null)
+            {
+                //a rigid translation of the whole region does not count as relaxation, particles held still by the region of interest are ignored
+                List<Vector> displacements = new ArrayList<>(observedParticles.size());
+                Vector meanDisplacement = Vector.NULL;
+                for (int ii = 0; ii < observedParticles.size(); ii++)
+                {
+                    if (focusedParticles == null || focusedParticles.contains(observedParticles.get(ii)))
+                    {
+                        Vector displacement = observedParticles.get(ii)
+                                                               .getLocation()
+                                                               .subtract(observedLocations.get(ii));
+                        displacements.add(displacement);
+                        meanDisplacement = meanDisplacement.add(displacement);
+                    }
+                }
+                meanDisplacement = meanDisplacement.divide(Math.max(1, displacements.size()));
+
+                double maxDisplacement = this.cycleDisplacement;
+                for (Vector displacement : displacements)
+                {
+                    maxDisplacement = Math.max(maxDisplacement, displacement.subtract(meanDisplacement)
+                                                                            .absolute());
+                }
+
+                //the region has only converged if it stayed still for a whole cycle of the region of interest
+                if (focusedParticles == null || regionOfInterest.isCycleCompleted())
+                {
+                    this.cycleDisplacement = 0.0;
+                    dirtyRegion.update(maxDisplacement);
+                }
+                else
+                {
+                    this.cycleDisplacement = maxDisplacement;
+                }
+            }
+        }
+        finally
+        {
+            optimizedForceProviders.forEach(ForceProvider::afterTick);
+            forceFields.forEach(ForceField::afterTick);
+        }
+    }
 
-        this.particles.stream()
-                      .forEach(particle -> this.applyForce(particle, deltaT, optimizedForceProviders));
+    /**
+     * State of a single tick
+     *
+     * @author omnaest
+     */
+    private static class TickContext
+    {
+        private List<Particle>                       particles;
+        private Slots                                slots;
+        private List<Map<Type, List<ForceProvider>>> matchingForceProviders;
+        private List<ForceField>                     forceFields;
+        private ParticleSnapshot                     particleSnapshot;
+        private double[]                             typeWeights;
+        private Vector[]                             externalForces;
+        private PartitionedExecutor                  partitionedExecutor;
+        private int[][]                              slotGroups;
+        private double[]                             forces;
+        private double[]                             passedTimes;
+        private double                               deltaT;
+        private double                               temperature;
+        private DoubleAdder                          energy;
     }
 
-    private void applyForce(Particle particle, double deltaT, Set<ForceProvider> forceProviders)
+    private VerletNeighborList updateNeighborList(Set<ForceProvider> forceProviders)
     {
-        //
-        Map<Type, List<ForceProvider>> matchingForceProviders = this.optimizingForceProviderManager.calculateMatchingForceProviders(forceProviders, particle);
+        VerletNeighborList neighborList = this.neighborList;
+        if (neighborList != null)
+        {
+            double cutoff = forceProviders.stream()
+                                          .filter(forceProvider -> forceProvider instanceof ShortRangeForceProvider)
+                                          .mapToDouble(forceProvider -> ((ShortRangeForceProvider) forceProvider).getRange())
+                                          .max()
+                                          .orElse(-1.0);
+            if (cutoff < 0.0)
+            {
+                neighborList = null;
+            }
+            else
+            {
+                neighborList.update(this.getParticles(), cutoff);
+            }
+        }
+        return neighborList;
+    }
 
-        //
-        double deltaT1 = deltaT / 2;
-        double deltaT10 = deltaT1 / 10;
+    /**
+     * Moves all {@link Particle}s for a single sub step. The {@link ForceField}s are evaluated once for all {@link Particle}s at the beginning of the
+     * sub step. Without a {@link PartitionedExecutor} the {@link ForceProvider}s are evaluated for every {@link Particle} with the locations of the
+     * {@link Particle}s moved before. With a {@link PartitionedExecutor} the forces of all {@link Particle}s are calculated partition wise in
+     * parallel, and only after all partitions are done the {@link Particle}s are moved, so the result does not depend on the partitioning. If slot
+     * groups are available, like color classes or a dirty region, only the {@link Particle}s of the groups are moved, one group after another.
+     */
+    private void applySubStep(TickContext tickContext, double deltaT)
+    {
+        double[] fieldForces = this.accumulateForceFields(tickContext.forceFields, tickContext.particleSnapshot, tickContext.typeWeights);
+        IntFunction<Vector> fieldForceFunction = ii ->
+        {
+            Vector fieldForce = fieldForces != null ? tickContext.particleSnapshot.toVector(fieldForces, ii) : null;
+            Vector externalForce = tickContext.externalForces != null ? tickContext.externalForces[ii] : null;
+            if (externalForce != null)
+            {
+                fieldForce = fieldForce != null ? fieldForce.add(externalForce) : externalForce;
+            }
+            return fieldForce;
+        };
 
-        this.applySingleDeltaT(particle, deltaT1, matchingForceProviders);
-        for (int ii = 0; ii < 10; ii++)
+        if (tickContext.partitionedExecutor != null)
         {
-            this.applySingleDeltaT(particle, deltaT10, matchingForceProviders);
+            if (tickContext.slotGroups != null)
+            {
+                for (int[] slotGroup : tickContext.slotGroups)
+                {
+                    this.applyPartitionedSubStep(tickContext, slotGroup, slotGroup.length, deltaT, fieldForceFunction);
+                }
+            }
+            else
+            {
+                this.applyPartitionedSubStep(tickContext, null, tickContext.particles.size(), deltaT, fieldForceFunction);
+            }
+        }
+        else
+        {
+            IntConsumer particleMover = ii -> this.applySingleDeltaT(tickContext, ii, deltaT, fieldForceFunction.apply(ii));
+            if (tickContext.slotGroups != null)
+            {
+                for (int[] slotGroup : tickContext.slotGroups)
+                {
+                    for (int slot : slotGroup)
+                    {
+                        particleMover.accept(slot);
+                    }
+                }
+            }
+            else
+            {
+                for (int ii = 0; ii < tickContext.particles.size(); ii++)
+                {
+                    particleMover.accept(ii);
+                }
+            }
         }
     }
 
-    private void applySingleDeltaT(Particle particle, double deltaT, Map<Type, List<ForceProvider>> matchingForceProviders)
+    /**
+     * Moves the {@link Particle}s of the given slot group, or all {@link Particle}s if the slot group is null, in rounds. Each round calculates the
+     * forces of all {@link Particle}s which have time left into the per slot forces of the {@link TickContext}, and after this barrier moves each
+     * {@link Particle} by its own force. So the locations are only read while the forces are calculated and every {@link Particle} is only moved
+     * by the thread which calculated its force.
+     */
+    private void applyPartitionedSubStep(TickContext tickContext, int[] slotGroup, int size, double deltaT, IntFunction<Vector> fieldForceFunction)
     {
-        double passedTime = 0.0;
-        int depth = 0;
-        int maxDepth = 4;
-        while (passedTime < deltaT * 0.9999 && depth < maxDepth)
+        PartitionedExecutor partitionedExecutor = tickContext.partitionedExecutor;
+        int dimensions = tickContext.slots.getDimensions();
+        if (tickContext.forces == null)
         {
-            //
-            Vector force = this.optimizingForceProviderManager.calculateForce(matchingForceProviders, particle);
+            tickContext.forces = new double[tickContext.particles.size() * dimensions];
+            tickContext.passedTimes = new double[tickContext.particles.size()];
+        }
+        double[] forces = tickContext.forces;
+        double[] passedTimes = tickContext.passedTimes;
+        Vector[] fieldForces = new Vector[size];
+        for (int depth = 0; depth < MAX_DEPTH; depth++)
+        {
+            boolean firstRound = depth == 0;
+            partitionedExecutor.execute(size, ii ->
+            {
+                int slot = slotGroup != null ? slotGroup[ii] : ii;
+                if (firstRound)
+                {
+                    passedTimes[slot] = 0.0;
+                    fieldForces[ii] = fieldForceFunction.apply(slot);
+                }
+                if (passedTimes[slot] < deltaT * 0.9999)
+                {
+                    double[] coordinates = this.calculateSubStepForce(tickContext, slot, fieldForces[ii])
+                                               .getCoordinates();
+                    Arrays.fill(forces, slot * dimensions, (slot + 1) * dimensions, 0.0);
+                    System.arraycopy(coordinates, 0, forces, slot * dimensions, Math.min(coordinates.length, dimensions));
+                }
+            });
 
-            //identify timeScale
-            double timeScale = deltaT - passedTime;
-            boolean correctTimeFrame = false;
-            do
+            AtomicBoolean timeLeft = new AtomicBoolean(false);
+            partitionedExecutor.execute(size, ii ->
             {
-                double absoluteDistance = this.calculateDistance(force, timeScale)
-                                              .absolute();
-                correctTimeFrame = absoluteDistance <= Math.max(1.0, 1.0 * deltaT);
-                if (!correctTimeFrame)
+                int slot = slotGroup != null ? slotGroup[ii] : ii;
+                if (passedTimes[slot] < deltaT * 0.9999)
                 {
-                    timeScale /= 2.0;
+                    Vector force = new Vector(Arrays.copyOfRange(forces, slot * dimensions, (slot + 1) * dimensions));
+                    passedTimes[slot] += this.moveParticle(tickContext, slot, force, deltaT, passedTimes[slot]);
+                    if (passedTimes[slot] < deltaT * 0.9999)
+                    {
+                        timeLeft.set(true);
+                    }
                 }
-            } while (!correctTimeFrame && depth < maxDepth);
+            });
+            if (!timeLeft.get())
+            {
+                break;
+            }
+        }
+    }
 
-            //
-            Vector distance = this.calculateDistance(force, timeScale);
-            particle.move(distance);
+    /**
+     * Returns true if the given type weights only include or exclude {@link Type}s, so that the included forces apply unscaled. The excluded
+     * {@link Type}s are filtered out before.
+     */
+    private static boolean isUnweighted(double[] typeWeights)
+    {
+        if (typeWeights != null)
+        {
+            for (double weight : typeWeights)
+            {
+                if (weight != 0.0 && weight != 1.0)
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
 
-            //
-            passedTime += timeScale;
-            depth++;
+    /**
+     * Returns the last generated {@link FusedTickKernel}, or null if no {@link #tick()} has been fused since the fused evaluation was enabled
+     */
+    FusedTickKernel getFusedTickKernel()
+    {
+        return this.fusedTickKernel;
+    }
+
+    /**
+     * Returns the {@link FusedTickKernel} for the given {@link ForceProvider}s, which is regenerated if the set of {@link ForceProvider} classes has
+     * changed
+     */
+    private FusedTickKernel determineFusedTickKernel(Set<ForceProvider> forceProviders)
+    {
+        FusedTickKernel fusedTickKernel = this.fusedTickKernel;
+        if (fusedTickKernel == null || !fusedTickKernel.isGeneratedFor(forceProviders))
+        {
+            fusedTickKernel = new FusedTickKernel(forceProviders);
+            this.fusedTickKernel = fusedTickKernel;
         }
+        return fusedTickKernel;
+    }
+
+    /**
+     * Returns the {@link Particle}s which are moved within a tick, being within the {@link DirtyRegion} as well as the {@link RegionOfInterest}, or
+     * null if all {@link Particle}s are moved
+     */
+    private Set<Particle> determineActiveParticles(Set<Particle> region, Set<Particle> focusedParticles)
+    {
+        if (region == null || focusedParticles == null)
+        {
+            return region != null ? region : focusedParticles;
+        }
+        return region.stream()
+                     .filter(focusedParticles::contains)
+                     .collect(Collectors.toCollection(() -> Collections.newSetFromMap(new IdentityHashMap<>())));
+    }
+
+    /**
+     * Returns the groups of slots which are moved one after another, or null if all {@link Particle}s are moved at once
+     */
+    private int[][] determineSlotGroups(int[][] colorClasses, List<Particle> particles, Set<Particle> activeParticles)
+    {
+        if (activeParticles == null)
+        {
+            return colorClasses;
+        }
+
+        boolean[] active = new boolean[particles.size()];
+        for (int ii = 0; ii < active.length; ii++)
+        {
+            active[ii] = activeParticles.contains(particles.get(ii));
+        }
+        int[][] slotGroups = colorClasses != null ? colorClasses : new int[][] { IntStream.range(0, particles.size())
+                                                                                          .toArray() };
+        return Arrays.stream(slotGroups)
+                     .map(slotGroup -> Arrays.stream(slotGroup)
+                                             .filter(slot -> active[slot])
+                                             .toArray())
+                     .filter(slotGroup -> slotGroup.length > 0)
+                     .toArray(size -> new int[size][]);
+    }
+
+    private void applyImplicitStep(TickContext tickContext, ImplicitIntegrator implicitIntegrator, List<ForceProvider> stiffForceProviders, double h)
+    {
+        ParticleSnapshot particleSnapshot = this.determineParticleSnapshot(tickContext);
+        double[] forces = this.calculateForces(tickContext, particleSnapshot);
+        implicitIntegrator.integrate(tickContext.particles, stiffForceProviders, forces, particleSnapshot.getDimensions(), h);
+    }
+
+    private ParticleSnapshot determineParticleSnapshot(TickContext tickContext)
+    {
+        return tickContext.particleSnapshot != null ? tickContext.particleSnapshot : new ParticleSnapshot(tickContext.particles);
+    }
+
+    /**
+     * Calculates the forces of all {@link ForceField}s, {@link ForceProvider}s and external forces of the tick with the layout of the given
+     * {@link ParticleSnapshot}
+     */
+    private double[] calculateForces(TickContext tickContext, ParticleSnapshot particleSnapshot)
+    {
+        double[] fieldForces = this.accumulateForceFields(tickContext.forceFields, particleSnapshot, tickContext.typeWeights);
+        double[] forces = fieldForces != null ? fieldForces : particleSnapshot.newForceArray();
+
+        int dimensions = particleSnapshot.getDimensions();
+        for (int ii = 0; ii < tickContext.particles.size(); ii++)
+        {
+            Vector force = this.optimizingForceProviderManager.calculateForce(tickContext.slots, ii, tickContext.matchingForceProviders.get(ii),
+                                                                              tickContext.typeWeights);
+            Vector externalForce = tickContext.externalForces != null ? tickContext.externalForces[ii] : null;
+            if (externalForce != null)
+            {
+                force = force.add(externalForce);
+            }
+
+            double[] coordinates = force.getCoordinates();
+            for (int jj = 0; jj < coordinates.length && jj < dimensions; jj++)
+            {
+                forces[ii * dimensions + jj] += coordinates[jj];
+            }
+        }
+        return forces;
+    }
+
+    private double[] accumulateForceFields(List<ForceField> forceFields, ParticleSnapshot particleSnapshot, double[] typeWeights)
+    {
+        double[] forces = null;
+        if (!forceFields.isEmpty())
+        {
+            particleSnapshot.update();
+            forces = particleSnapshot.newForceArray();
+            for (ForceField forceField : forceFields)
+            {
+                double weight = typeWeights != null ? typeWeights[forceField.getType()
+                                                                            .ordinal()]
+                        : 1.0;
+                if (weight == 1.0)
+                {
+                    forceField.accumulate(particleSnapshot, forces);
+                }
+                else
+                {
+                    double[] fieldForces = particleSnapshot.newForceArray();
+                    forceField.accumulate(particleSnapshot, fieldForces);
+                    for (int ii = 0; ii < forces.length; ii++)
+                    {
+                        forces[ii] += weight * fieldForces[ii];
+                    }
+                }
+            }
+        }
+        return forces;
+    }
+
+    private void applySingleDeltaT(TickContext tickContext, int slot, double deltaT, Vector fieldForce)
+    {
+        double passedTime = 0.0;
+        for (int depth = 0; depth < MAX_DEPTH && passedTime < deltaT * 0.9999; depth++)
+        {
+            Vector force = this.calculateSubStepForce(tickContext, slot, fieldForce);
+            passedTime += this.moveParticle(tickContext, slot, force, deltaT, passedTime);
+        }
+    }
+
+    private Vector calculateSubStepForce(TickContext tickContext, int slot, Vector fieldForce)
+    {
+        Vector force = this.optimizingForceProviderManager.calculateForce(tickContext.slots, slot, tickContext.matchingForceProviders.get(slot),
+                                                                          tickContext.typeWeights);
+        return fieldForce != null ? force.add(fieldForce) : force;
+    }
+
+    /**
+     * Moves the {@link Particle} of the given slot by the given force for the remaining time of the deltaT, or a fraction of it, so that the
+     * distance stays within max(1, deltaT). Returns the time the {@link Particle} has been moved for.
+     */
+    private double moveParticle(TickContext tickContext, int slot, Vector force, double deltaT, double passedTime)
+    {
+        Particle particle = tickContext.particles.get(slot);
+        if (tickContext.temperature > 0.0)
+        {
+            this.applyTemperatureCappedStep(tickContext, particle, force, deltaT);
+            return deltaT - passedTime;
+        }
+
+        //identify timeScale
+        double timeScale = deltaT - passedTime;
+        while (this.calculateDistance(force, timeScale)
+                   .absolute() > Math.max(1.0, 1.0 * deltaT))
+        {
+            timeScale /= 2.0;
+        }
+
+        //
+        particle.move(this.calculateDistance(force, timeScale));
+        return timeScale;
+    }
+
+    /**
+     * Moves the {@link Particle} for the whole deltaT in the direction of the force, but at most by the fraction of the temperature which belongs
+     * to the deltaT of this sub step
+     */
+    private void applyTemperatureCappedStep(TickContext tickContext, Particle particle, Vector force, double deltaT)
+    {
+        double absoluteForce = force.absolute();
+        tickContext.energy.add(absoluteForce * absoluteForce);
+
+        Vector distance = this.calculateDistance(force, deltaT);
+        double absoluteDistance = distance.absolute();
+        double maxDistance = tickContext.temperature * deltaT / tickContext.deltaT;
+        if (absoluteDistance > maxDistance)
+        {
+            distance = distance.multiply(maxDistance / absoluteDistance);
+        }
+        particle.move(distance);
     }
 
     private Vector calculateDistance(Vector force, double timeScale)
@@ -214,8 +1020,32 @@ public class PhysicsSimulation
 
         double getFPS();
 
+        /**
+         * Toggles between the suspended and the running state
+         *
+         * @return
+         */
         Runner suspend();
 
+        /**
+         * Continues a suspended {@link Runner}
+         *
+         * @return
+         */
+        Runner resume();
+
+        boolean isSuspended();
+
+        /**
+         * Registers a {@link SimulationMXBean} with the given name at the platform MBean server, which is unregistered at {@link #stop()}. A
+         * previously registered {@link SimulationMXBean} of this {@link Runner} is unregistered before.
+         *
+         * @see SimulationTelemetry
+         * @param name
+         * @return
+         */
+        Runner registerMBean(String name);
+
     }
 
     public static interface TimeTickHandler
@@ -223,99 +1053,27 @@ public class PhysicsSimulation
         public void handle(long timeTick, PhysicsSimulation simulation);
     }
 
-    private static class LongRunningTicker
-    {
-        private ExecutorService  executorService = Executors.newSingleThreadExecutor();
-        private DoubleAdder      timeDuration    = new DoubleAdder();
-        private Lock             lock;
-        private Consumer<Double> tickEventConsumer;
-
-        public LongRunningTicker(ExecutorService executorService, Lock lock, Consumer<Double> tickEventConsumer)
-        {
-            super();
-            this.executorService = executorService;
-            this.lock = lock;
-            this.tickEventConsumer = tickEventConsumer;
-        }
-
-        public void tickAsync(double duration)
-        {
-            double factor = 8;
-            double root = duration > 1.0 ? 1.0 / factor : factor;
-            this.timeDuration.add(Math.pow(duration, root));
-        }
-
-        public void start(int numberOfThreads)
-        {
-            for (int ii = 0; ii < numberOfThreads; ii++)
-            {
-                this.start();
-            }
-        }
-
-        public void start()
-        {
-            this.executorService.submit(new Runnable()
-            {
-                @Override
-                public void run()
-                {
-                    //
-                    DurationCapture tickDurationCapture = new DurationCapture();
-                    LongRunningTicker.this.lock.lock();
-                    try
-                    {
-                        tickDurationCapture.start();
-                        {
-                            double localTimeDuration = LongRunningTicker.this.timeDuration.sumThenReset();
-                            LongRunningTicker.this.tickEventConsumer.accept(localTimeDuration);
-                        }
-
-                    }
-                    finally
-                    {
-                        LongRunningTicker.this.lock.unlock();
-                        LongRunningTicker.this.executorService.submit(this);
-                    }
-                }
-            });
-        }
-
-        public void stop()
-        {
-            this.executorService.shutdown();
-            try
-            {
-                this.executorService.awaitTermination(2, TimeUnit.SECONDS);
-            }
-            catch (InterruptedException e)
-            {
-                //do nothing
-            }
-        }
-    }
-
     public Runner getRunner()
     {
         return new Runner()
         {
-            private ExecutorService executorService = this.newExecutorService();
+            private ExecutorService              executorService     = this.newExecutorService();
+            private volatile PartitionedExecutor partitionedExecutor = null;
 
             private TimeTickHandler         timeTickHandler = null;
             private ReadWriteLock           lock            = new ReentrantReadWriteLock(true);
             private AtomicReference<Double> fps             = new AtomicReference<>(0.0);
             private double                  precision;
-            private double                  precisionBoost  = 1.0;
-            private boolean                 suspended       = false;
+            private volatile long           boostEndTime    = 0;
+            private volatile boolean        suspended       = false;
 
-            private LongRunningTicker longRunningTicker = new LongRunningTicker(this.executorService, this.lock.readLock(),
-                                                                                timeDuration -> PhysicsSimulation.this.tick(timeDuration,
-                                                                                                                            ForceProvider.Type.ALL_MATCHING));
+            private volatile SimulationTelemetry telemetry  = null;
+            private ObjectName                   objectName = null;
 
             private ExecutorService newExecutorService()
             {
-                int threads = this.calculateProcessorNumberToUse();
-                ExecutorService threadPool = Executors.newFixedThreadPool(threads);
+                //one thread for the tick coordination and one for the time tick handler
+                ExecutorService threadPool = Executors.newFixedThreadPool(2);
                 return threadPool;
             }
 
@@ -336,53 +1094,102 @@ public class PhysicsSimulation
             @Override
             public Runner run()
             {
-                int numberOfThreads = this.calculateProcessorNumberToUse();
-                int numberOfFastCalculationThreads = 1 + numberOfThreads * 2 / 3;
-                int numberOfSlowCalculationThreads = 1 + numberOfThreads / 3;
+                //all threads cooperate on a single tick, partitioned by the particles
+                int numberOfThreads = Math.max(1, this.calculateProcessorNumberToUse());
+                PartitionedExecutor newPartitionedExecutor = new PartitionedExecutor(numberOfThreads);
+                Lock writeLock = this.lock.writeLock();
+                writeLock.lock();
+                try
+                {
+                    //no tick is running, so the helper threads of a previous run can be terminated safely
+                    if (this.partitionedExecutor != null)
+                    {
+                        this.partitionedExecutor.stop();
+                    }
+                    this.partitionedExecutor = newPartitionedExecutor;
+                }
+                finally
+                {
+                    writeLock.unlock();
+                }
 
-                for (int ii = 0; ii < numberOfFastCalculationThreads; ii++)
+                this.executorService.submit(new Runnable()
                 {
-                    this.executorService.submit(new Runnable()
+                    private final double PIXEL_PER_SECOND       = 10;
+                    private long         durationInMilliseconds = 100;
+
+                    private SimulationTelemetry registeredTelemetry           = null;
+                    private PartitionedExecutor registeredPartitionedExecutor = null;
+
+                    private void tickWithTelemetry(SimulationTelemetry telemetry, double timeDuration, PartitionedExecutor partitionedExecutor)
                     {
-                        private final double PIXEL_PER_SECOND       = 10;
-                        private long         durationInMilliseconds = 100;
+                        if (telemetry != this.registeredTelemetry || partitionedExecutor != this.registeredPartitionedExecutor)
+                        {
+                            telemetry.setWorkerThreadIds(partitionedExecutor.getThreadIds());
+                            this.registeredTelemetry = telemetry;
+                            this.registeredPartitionedExecutor = partitionedExecutor;
+                        }
 
-                        @Override
-                        public void run()
+                        List<Particle> particles = telemetry.isResidualSampleDue() ? PhysicsSimulation.this.getParticles() : null;
+                        List<Vector> locations = particles != null ? telemetry.takeLocations(particles) : null;
+
+                        //only the cpu time of the tick itself is counted, not the one of the time tick handler on the same thread
+                        long startTime = System.nanoTime();
+                        long startCpuTime = telemetry.determineCurrentThreadCpuTime();
+                        PhysicsSimulation.this.tickMultiRate(timeDuration, partitionedExecutor);
+                        telemetry.recordTick(System.nanoTime() - startTime, telemetry.determineCurrentThreadCpuTime() - startCpuTime);
+
+                        if (particles != null)
                         {
-                            DurationCapture tickDurationCapture = new DurationCapture();
-                            Lock readLock = lock.readLock();
-                            readLock.lock();
-                            try
+                            telemetry.recordResidual(particles, locations);
+                        }
+                    }
+
+                    @Override
+                    public void run()
+                    {
+                        DurationCapture tickDurationCapture = new DurationCapture();
+                        Lock readLock = lock.readLock();
+                        readLock.lock();
+                        try
+                        {
+                            tickDurationCapture.start();
                             {
-                                tickDurationCapture.start();
+                                if (PhysicsSimulation.this.particles.isEmpty() || suspended)
+                                {
+                                    ThreadUtils.sleepSilently(10, TimeUnit.MILLISECONDS);
+                                }
+                                else
                                 {
-                                    if (PhysicsSimulation.this.particles.isEmpty() || suspended)
+                                    double precisionBoost = System.currentTimeMillis() < boostEndTime ? 100.0 : 1.0;
+                                    double timeDuration = Math.max(0.1, this.durationInMilliseconds) * precision * precisionBoost * this.PIXEL_PER_SECOND
+                                            / 1000.0;
+                                    PartitionedExecutor currentPartitionedExecutor = partitionedExecutor;
+                                    SimulationTelemetry currentTelemetry = telemetry;
+                                    if (currentTelemetry == null)
                                     {
-                                        ThreadUtils.sleepSilently(10, TimeUnit.MILLISECONDS);
+                                        PhysicsSimulation.this.tickMultiRate(timeDuration, currentPartitionedExecutor);
                                     }
                                     else
                                     {
-                                        double timeDuration = Math.max(0.1, this.durationInMilliseconds) * precision * precisionBoost * this.PIXEL_PER_SECOND
-                                                / 1000.0;
-                                        PhysicsSimulation.this.tick(timeDuration, ForceProvider.Type.SPECIFIC);
-                                        longRunningTicker.tickAsync(timeDuration);
+                                        this.tickWithTelemetry(currentTelemetry, timeDuration, currentPartitionedExecutor);
                                     }
                                 }
-                                this.durationInMilliseconds = tickDurationCapture.stop();
-                                fps.set((1000.0 / this.durationInMilliseconds));
-                            }
-                            finally
-                            {
-                                readLock.unlock();
-                                executorService.submit(this);
                             }
+                            this.durationInMilliseconds = tickDurationCapture.stop();
+                            fps.set((1000.0 / this.durationInMilliseconds));
                         }
-                    });
-                }
-
-                //
-                this.longRunningTicker.start(numberOfSlowCalculationThreads);
+                        catch (Exception e)
+                        {
+                            LOG.error("Error during tick execution", e);
+                        }
+                        finally
+                        {
+                            readLock.unlock();
+                            executorService.submit(this);
+                        }
+                    }
+                });
 
                 //
                 if (this.timeTickHandler != null)
@@ -399,7 +1206,13 @@ public class PhysicsSimulation
                             writeLock.lock();
                             try
                             {
+                                AllocationMonitor allocationMonitor = PhysicsSimulation.this.allocationMonitor;
+                                long startBytes = allocationMonitor != null ? allocationMonitor.sample() : -1;
                                 timeTickHandler.handle(this.timeTicker.getAndIncrement(), PhysicsSimulation.this);
+                                if (allocationMonitor != null)
+                                {
+                                    allocationMonitor.record(Phase.HANDLER, startBytes);
+                                }
                             }
                             catch (Exception e)
                             {
@@ -432,6 +1245,40 @@ public class PhysicsSimulation
                 return this;
             }
 
+            @Override
+            public Runner resume()
+            {
+                this.suspended = false;
+                return this;
+            }
+
+            @Override
+            public boolean isSuspended()
+            {
+                return this.suspended;
+            }
+
+            @Override
+            public Runner registerMBean(String name)
+            {
+                //a previous registration is replaced
+                this.unregisterMBean();
+                try
+                {
+                    SimulationTelemetry telemetry = new SimulationTelemetry(PhysicsSimulation.this, this, this.lock.readLock());
+                    ObjectName objectName = new ObjectName("org.omnaest.physics:type=PhysicsSimulation,name=" + ObjectName.quote(name));
+                    ManagementFactory.getPlatformMBeanServer()
+                                     .registerMBean(telemetry, objectName);
+                    this.objectName = objectName;
+                    this.telemetry = telemetry;
+                }
+                catch (JMException e)
+                {
+                    throw new IllegalStateException("Failed to register the simulation MBean " + name, e);
+                }
+                return this;
+            }
+
             @Override
             public Runner stop()
             {
@@ -439,7 +1286,19 @@ public class PhysicsSimulation
                 {
                     this.executorService.shutdown();
                     this.executorService.awaitTermination(2, TimeUnit.SECONDS);
-                    this.longRunningTicker.stop();
+
+                    if (this.partitionedExecutor != null)
+                    {
+                        this.partitionedExecutor.stop();
+                    }
+
+                    FarFieldPipeline farFieldPipeline = PhysicsSimulation.this.farFieldPipeline;
+                    if (farFieldPipeline != null)
+                    {
+                        farFieldPipeline.stop();
+                    }
+
+                    this.unregisterMBean();
                 }
                 catch (InterruptedException e)
                 {
@@ -447,6 +1306,24 @@ public class PhysicsSimulation
                 return this;
             }
 
+            private void unregisterMBean()
+            {
+                if (this.objectName != null)
+                {
+                    try
+                    {
+                        ManagementFactory.getPlatformMBeanServer()
+                                         .unregisterMBean(this.objectName);
+                    }
+                    catch (JMException e)
+                    {
+                        LOG.warn("Failed to unregister the simulation MBean " + this.objectName, e);
+                    }
+                    this.objectName = null;
+                    this.telemetry = null;
+                }
+            }
+
             @Override
             public Runner awaitStop()
             {
@@ -477,45 +1354,496 @@ public class PhysicsSimulation
                 return this;
             }
 
-            private long boostEndTime = 0;
-
+            /**
+             * The boost is a deadline which is checked by every tick, so it does not occupy one of the runner threads
+             */
             @Override
             public Runner boost(int duration, TimeUnit timeUnit)
             {
-                this.boostEndTime = System.currentTimeMillis() + timeUnit.toMillis(duration);
-                this.executorService.submit(() ->
-                {
-                    LOG.info("Boost for " + timeUnit.toMillis(duration) + "ms");
-                    this.precisionBoost = 100.0;
+                LOG.info("Boost for " + timeUnit.toMillis(duration) + "ms");
+                this.boostEndTime = Math.max(this.boostEndTime, System.currentTimeMillis() + timeUnit.toMillis(duration));
+                return this;
+            }
+
+        };
+    }
+
+    /**
+     * Minimizes the potential energy of the current layout with the {@link LbfgsMinimizer} over all coordinates of all {@link Particle}s. The line
+     * search uses the energies of the {@link PotentialEnergyProvider}s, if all matching {@link ForceProvider}s provide one and there are no
+     * {@link ForceField}s, otherwise only the forces are used.
+     *
+     * @param maxIterations
+     * @param tolerance
+     *            the minimization stops as soon as no force coordinate is larger than the tolerance
+     * @return the number of iterations
+     */
+    public int minimize(int maxIterations, double tolerance)
+    {
+        List<Particle> particles = this.getParticles();
+        List<ForceProvider> forceProviders = this.getForceProviders();
+        List<ForceField> forceFields = this.getForceFields();
+
+        ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+        int dimensions = particleSnapshot.getDimensions();
+        double[] position = particleSnapshot.newForceArray();
+        for (int ii = 0; ii < particles.size(); ii++)
+        {
+            for (int jj = 0; jj < dimensions; jj++)
+            {
+                position[ii * dimensions + jj] = particleSnapshot.getCoordinate(ii, jj);
+            }
+        }
+        int[] particleDimensions = particles.stream()
+                                            .mapToInt(particle -> particle.getLocation()
+                                                                          .getCoordinates().length)
+                                            .toArray();
+
+        LbfgsMinimizer.Objective objective = (currentPosition, gradient) ->
+        {
+            for (int ii = 0; ii < particles.size(); ii++)
+            {
+                particles.get(ii)
+                         .setLocation(new Vector(Arrays.copyOfRange(currentPosition, ii * dimensions, ii * dimensions + particleDimensions[ii])));
+            }
 
-                    ThreadUtils.sleepSilently(duration, timeUnit);
+            double energy = forceFields.isEmpty() ? 0.0 : Double.NaN;
+            Arrays.fill(gradient, 0.0);
+            forceProviders.forEach(ForceProvider::beforeTick);
+            forceFields.forEach(ForceField::beforeTick);
+            try
+            {
+                for (ForceField forceField : forceFields)
+                {
+                    forceField.accumulate(particleSnapshot.update(), gradient);
+                }
 
-                    while (System.currentTimeMillis() < this.boostEndTime)
+                for (int ii = 0; ii < particles.size(); ii++)
+                {
+                    Particle particle = particles.get(ii);
+                    for (ForceProvider forceProvider : forceProviders)
                     {
-                        ThreadUtils.sleepSilently(duration / 10, timeUnit);
+                        if (forceProvider.match(particle))
+                        {
+                            double[] force = forceProvider.getForce(particle)
+                                                          .getCoordinates();
+                            for (int jj = 0; jj < force.length && jj < dimensions; jj++)
+                            {
+                                gradient[ii * dimensions + jj] += force[jj];
+                            }
+                            energy += forceProvider instanceof PotentialEnergyProvider ? ((PotentialEnergyProvider) forceProvider).getEnergy(particle)
+                                    : Double.NaN;
+                        }
                     }
-                    this.precisionBoost = 1.0;
-                    LOG.info("Boost ended");
-                });
-                return this;
+                }
+            }
+            finally
+            {
+                forceProviders.forEach(ForceProvider::afterTick);
+                forceFields.forEach(ForceField::afterTick);
             }
 
+            //the gradient of the energy is the negative force
+            for (int ii = 0; ii < gradient.length; ii++)
+            {
+                gradient[ii] = -gradient[ii];
+            }
+            return energy;
         };
+
+        int iterations = new LbfgsMinimizer().minimize(objective, position, maxIterations, tolerance);
+        for (int ii = 0; ii < particles.size(); ii++)
+        {
+            particles.get(ii)
+                     .setLocation(new Vector(Arrays.copyOfRange(position, ii * dimensions, ii * dimensions + particleDimensions[ii])));
+        }
+        return iterations;
     }
 
+    /**
+     * Lays out the target distance graph of all {@link DistanceForceProvider}s with the {@link StressMajorizationSolver} and writes the result into
+     * the {@link Particle} locations. All other {@link ForceProvider}s and {@link ForceField}s are ignored.
+     *
+     * @param maxIterations
+     * @param tolerance
+     *            the solver stops as soon as the relative decrease of the stress is below the tolerance
+     * @return the number of iterations
+     */
+    public int majorizeStress(int maxIterations, double tolerance)
+    {
+        return new StressMajorizationSolver().solve(this.getParticles(), this.getForceProviders(), maxIterations, tolerance);
+    }
+
+    /**
+     * Calculates the current force for the given {@link Particle}. The {@link ForceField}s are evaluated only for the given {@link Particle}, but
+     * this still requires a {@link ParticleSnapshot} of all {@link Particle}s, so with {@link ForceField}s a single call costs O(N).
+     *
+     * @see ForceField#accumulate(org.omnaest.physics.domain.ParticleView, int, double[])
+     * @param particle
+     * @return
+     */
     public Vector calculateForceFor(Particle particle)
     {
-        return this.forceProviders.stream()
-                                  .filter(forceProvider -> forceProvider.match(particle))
-                                  .map(forceProvider -> forceProvider.getForce(particle))
-                                  .reduce((f1, f2) -> f1.add(f2))
-                                  .orElse(Vector.NULL);
+        Vector force = this.forceProviders.stream()
+                                          .filter(forceProvider -> forceProvider.match(particle))
+                                          .map(forceProvider -> forceProvider.getForce(particle))
+                                          .reduce((f1, f2) -> f1.add(f2))
+                                          .orElse(Vector.NULL);
+        if (!this.forceFields.isEmpty())
+        {
+            ParticleSnapshot particleSnapshot = new ParticleSnapshot(this.getParticles());
+            int index = particleSnapshot.indexOf(particle);
+            if (index >= 0)
+            {
+                double[] fieldForce = new double[particleSnapshot.getDimensions()];
+                for (ForceField forceField : this.getForceFields())
+                {
+                    forceField.accumulate(particleSnapshot, index, fieldForce);
+                }
+                force = force.add(particleSnapshot.toVector(fieldForce, 0));
+            }
+        }
+        return force;
     }
 
     public void reset()
     {
         this.particles.clear();
         this.forceProviders.clear();
+        this.forceFields.clear();
+
+        DirtyRegion dirtyRegion = this.dirtyRegion;
+        if (dirtyRegion != null)
+        {
+            dirtyRegion.markAllDirty();
+        }
+    }
+
+    /**
+     * Enables a {@link VerletNeighborList} for all {@link ShortRangeForceProvider}s. The neighbor list only considers {@link ShortRangeForceProvider}s
+     * whose source {@link Particle} is within the range plus the given skin distance and is rebuilt as soon as any {@link Particle} has moved more
+     * than half of the skin distance.<br>
+     * <br>
+     * The skin should be larger than twice the distance a {@link Particle} can move within a single {@link #tick()}. A skin distance of 0.0
+     * disables the neighbor list, which is the default.
+     *
+     * @param skin
+     * @return
+     */
+    public PhysicsSimulation setNeighborListSkin(double skin)
+    {
+        this.neighborList = skin > 0.0 ? new VerletNeighborList(skin) : null;
+        return this;
+    }
+
+    /**
+     * Enables the adaptive refresh of the {@link ForceProvider} groups. Groups which are expensive to evaluate and contribute only a small part to
+     * the force of a {@link Particle} are reused for at most the given number of sub steps. A value of 0 refreshes all groups on every sub step,
+     * which is the default.
+     *
+     * @see CallOptimizingForceProviderManager
+     * @param maxSkippedSteps
+     * @return
+     */
+    public PhysicsSimulation setAdaptiveForceRefresh(int maxSkippedSteps)
+    {
+        this.optimizingForceProviderManager.setMaxSkippedSteps(maxSkippedSteps);
+        return this;
+    }
+
+    /**
+     * Sets the interval k of the {@link #tickMultiRate(double)}, which evaluates the {@link Type#ALL_MATCHING} forces only every k-th tick. A value
+     * of 0 auto tunes the interval, so that the slow forces take about a quarter of the time, which is the default.
+     *
+     * @see MultiRateScheduler
+     * @param interval
+     * @return
+     */
+    public PhysicsSimulation setSlowForceInterval(int interval)
+    {
+        this.multiRateScheduler.setInterval(interval);
+        return this;
+    }
+
+    public int getSlowForceInterval()
+    {
+        return this.multiRateScheduler.getInterval();
+    }
+
+    /**
+     * Enables the asynchronous calculation of the {@link Type#ALL_MATCHING} forces within {@link #tickMultiRate(double)}. They are calculated on a
+     * background {@link FarFieldPipeline} for versioned snapshots of the {@link Particle} locations, while the ticks apply the latest result
+     * extrapolated for its staleness. {@link ForceProvider}s which do not override
+     * {@link ForceProvider#getForce(org.omnaest.physics.domain.ParticleView, int)} read the current locations instead. Disabled by default.
+     *
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setAsyncFarField(boolean enabled)
+    {
+        FarFieldPipeline farFieldPipeline = this.farFieldPipeline;
+        if (farFieldPipeline != null)
+        {
+            farFieldPipeline.stop();
+        }
+        this.farFieldPipeline = enabled ? new FarFieldPipeline() : null;
+        return this;
+    }
+
+    /**
+     * Enables the pairwise evaluation of two body forces. The forces of {@link PairForceProvider}s and of mirrored {@link AntiCollisionForceProvider}s
+     * are then calculated only once per pair and sub step and applied with opposite signs to both {@link Particle}s, instead of being evaluated
+     * separately for each {@link Particle}. This uses the locations at the beginning of each sub step for both {@link Particle}s of a pair. Disabled
+     * by default.
+     *
+     * @see PairwiseForceField
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setPairwiseEvaluation(boolean enabled)
+    {
+        this.pairwiseEvaluation = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the compiled evaluation of the built-in {@link ForceProvider}s. At every {@link #tick()} the {@link DistanceForceProvider}s,
+     * {@link MinimalDistanceForceProvider}s, {@link MinimalPointDistanceForceProvider}s and {@link PointForceProvider}s are lowered into typed
+     * tables which are evaluated in tight loops once per sub step, using the locations at the beginning of the sub step. All other
+     * {@link ForceProvider}s, including subclasses of the built-in ones, use the regular evaluation. Takes precedence over
+     * {@link #setPairwiseEvaluation(boolean)} for the compiled {@link ForceProvider}s. Disabled by default.
+     *
+     * @see CompiledForceField
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setCompiledEvaluation(boolean enabled)
+    {
+        this.compiledEvaluation = enabled;
+        return this;
+    }
+
+    /**
+     * Enables the fused evaluation. If a scene consists only of built-in {@link ForceProvider}s, see {@link #setCompiledEvaluation(boolean)}, and
+     * uses no {@link ForceField}s, external forces, type weights other than 0 and 1, {@link TemperatureSchedule}, regions or alternative
+     * integrators, a whole {@link #tick()} runs within a {@link FusedTickKernel}, which is generated for the mix of {@link ForceProvider} classes
+     * and regenerated as soon as this mix changes. This includes the fast steps of {@link #tickMultiRate(double)}, which exclude the
+     * {@link Type#ALL_MATCHING} forces. All other ticks use the regular evaluation. The fused sub steps move the {@link Particle}s like the
+     * partitioned sub steps of the {@link Runner}, and not one after another like a sequential {@link #tick()}. Disabled by default.
+     *
+     * @see FusedTickKernel
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setFusedEvaluation(boolean enabled)
+    {
+        this.fusedEvaluation = enabled;
+        if (!enabled)
+        {
+            this.fusedTickKernel = null;
+        }
+        return this;
+    }
+
+    /**
+     * Enables the graph colored relaxation. The {@link Particle}s are colored, so that no two {@link Particle}s of the same color interact via a
+     * {@link Type#SPECIFIC} {@link ForceProvider}, and each sub step moves the color classes one after another. The {@link Particle}s of a color
+     * class are moved in parallel by the {@link Runner}, which keeps the Gauss-Seidel like convergence of the sequential tick. Disabled by
+     * default.
+     *
+     * @see ParticleColoring
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setColoredRelaxation(boolean enabled)
+    {
+        this.particleColoring = enabled ? new ParticleColoring() : null;
+        return this;
+    }
+
+    /**
+     * Solves the {@link DistanceForceProvider}s, {@link MinimalDistanceForceProvider}s and {@link AntiCollisionForceProvider}s as position based
+     * constraints with the given number of iterations at the end of every tick, instead of integrating their stiff forces. A value of 0 disables
+     * the constraint solver, which is the default.
+     *
+     * @see #setConstraintSolver(PositionBasedConstraintSolver)
+     * @param iterations
+     * @return
+     */
+    public PhysicsSimulation setConstraintSolverIterations(int iterations)
+    {
+        return this.setConstraintSolver(iterations > 0 ? new PositionBasedConstraintSolver().setIterations(iterations) : null);
+    }
+
+    /**
+     * Similar to {@link #setConstraintSolverIterations(int)} but allows to configure the {@link PositionBasedConstraintSolver}, e.g. its compliance.
+     * A null value disables the constraint solver.
+     *
+     * @param constraintSolver
+     * @return
+     */
+    public PhysicsSimulation setConstraintSolver(PositionBasedConstraintSolver constraintSolver)
+    {
+        this.constraintSolver = constraintSolver;
+        return this;
+    }
+
+    /**
+     * Enables the implicit integration, which replaces the explicit sub steps of a tick by a single backward Euler step. The stiff
+     * {@link DistanceForceProvider}s, {@link MinimalDistanceForceProvider}s and {@link AntiCollisionForceProvider}s are linearized, which allows
+     * large steps for very stiff layouts. Disabled by default.
+     *
+     * @see ImplicitIntegrator
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setImplicitIntegration(boolean enabled)
+    {
+        this.implicitIntegrator = enabled ? new ImplicitIntegrator() : null;
+        return this;
+    }
+
+    /**
+     * Enables the FIRE relaxation, which replaces the sub steps of a tick by a single step of the {@link FireRelaxation}. This is meant for the
+     * minimization of the energy of a static layout and not for a faithful trajectory, the deltaT of the tick is the maximum time step. Takes
+     * precedence over {@link #setImplicitIntegration(boolean)}. Disabled by default.
+     *
+     * @see FireRelaxation
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setFireRelaxation(boolean enabled)
+    {
+        this.fireRelaxation = enabled ? new FireRelaxation() : null;
+        return this;
+    }
+
+    /**
+     * Sets a {@link TemperatureSchedule}, whose temperature caps the displacement of every {@link Particle} per tick instead of the fixed step
+     * clamp, and which is cooled after every tick. A null value disables the temperature, which is the default.
+     *
+     * @see TemperatureSchedule
+     * @param temperatureSchedule
+     * @return
+     */
+    public PhysicsSimulation setTemperatureSchedule(TemperatureSchedule temperatureSchedule)
+    {
+        this.temperatureSchedule = temperatureSchedule;
+        return this;
+    }
+
+    public TemperatureSchedule getTemperatureSchedule()
+    {
+        return this.temperatureSchedule;
+    }
+
+    /**
+     * Sets a {@link RegionOfInterest}, like the visible viewport or the dragged {@link Particle}s. Only the {@link Particle}s within the region are
+     * moved at every {@link #tick()}, all others round robin at the reduced outside rate of the region with the regular deltaT. With an incremental
+     * relaxation the {@link DirtyRegion} is updated once per cycle of the outside rate. A null value disables the region of interest, which is the
+     * default. FIRE relaxation and implicit integration ignore the region of interest.
+     *
+     * @param regionOfInterest
+     * @return
+     */
+    public PhysicsSimulation setRegionOfInterest(RegionOfInterest regionOfInterest)
+    {
+        this.regionOfInterest = regionOfInterest;
+        return this;
+    }
+
+    public RegionOfInterest getRegionOfInterest()
+    {
+        return this.regionOfInterest;
+    }
+
+    /**
+     * Enables the sampling of the allocated bytes of the fast and slow ticks of {@link #tickMultiRate(double)} and of the {@link TimeTickHandler}
+     * runs of the {@link Runner}. Disabled by default.
+     *
+     * @see AllocationMonitor
+     * @see #getAllocationStatistics()
+     * @param enabled
+     * @return
+     */
+    public PhysicsSimulation setAllocationMonitoring(boolean enabled)
+    {
+        this.allocationMonitor = enabled ? new AllocationMonitor() : null;
+        return this;
+    }
+
+    /**
+     * Returns the {@link AllocationMonitor} or null if the allocation monitoring is disabled
+     *
+     * @see #setAllocationMonitoring(boolean)
+     * @return
+     */
+    public AllocationMonitor getAllocationMonitor()
+    {
+        return this.allocationMonitor;
+    }
+
+    /**
+     * Returns the current allocation gauges together with the number of {@link Particle}s, {@link ForceProvider}s and {@link ForceField}s, or null
+     * if the allocation monitoring is disabled. Like the other getters of the scene it does not synchronize with a running {@link Runner}, so it
+     * should be called from the {@link TimeTickHandler}.
+     *
+     * @see #setAllocationMonitoring(boolean)
+     * @return
+     */
+    public Statistics getAllocationStatistics()
+    {
+        AllocationMonitor allocationMonitor = this.allocationMonitor;
+        return allocationMonitor != null ? allocationMonitor.getStatistics(this.particles.size(), this.forceProviders.size(), this.forceFields.size())
+                : null;
+    }
+
+    /**
+     * Enables the incremental relaxation. Mutations, like added or removed {@link Particle}s and {@link ForceProvider}s, mark a {@link DirtyRegion}
+     * and the ticks only move the {@link Particle}s of this region, at a higher rate, until it has converged. Afterwards the scene stays frozen
+     * until the next mutation or {@link #markDirty(Collection)}. Initially the whole scene is dirty. A negative number of hops disables the
+     * incremental relaxation, which is the default.
+     *
+     * @see DirtyRegion
+     * @param hops
+     *            number of hops in the graph of the {@link ForceProvider} dependencies a mutation affects
+     * @param radius
+     *            distance around the affected {@link Particle}s which is relaxed as well, 0 for none
+     * @return
+     */
+    public PhysicsSimulation setIncrementalRelaxation(int hops, double radius)
+    {
+        return this.setIncrementalRelaxation(hops >= 0 ? new DirtyRegion(hops, radius) : null);
+    }
+
+    /**
+     * Similar to {@link #setIncrementalRelaxation(int, double)} but allows to configure the {@link DirtyRegion}, e.g. its convergence distance. A
+     * null value disables the incremental relaxation.
+     *
+     * @param dirtyRegion
+     * @return
+     */
+    public PhysicsSimulation setIncrementalRelaxation(DirtyRegion dirtyRegion)
+    {
+        this.dirtyRegion = dirtyRegion;
+        return this;
+    }
+
+    /**
+     * Marks the given {@link Particle}s as dirty for the incremental relaxation, e.g. after they have been moved from outside of the simulation
+     *
+     * @see #setIncrementalRelaxation(int, double)
+     * @param particles
+     * @return
+     */
+    public PhysicsSimulation markDirty(Collection<Particle> particles)
+    {
+        DirtyRegion dirtyRegion = this.dirtyRegion;
+        if (dirtyRegion != null)
+        {
+            dirtyRegion.markDirty(particles);
+        }
+        return this;
     }
 
     public PhysicsSimulation setCPUUseFactor(double cpuUseFactor)
@@ -0,0 +1,237 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.omnaest.physics.PhysicsSimulation;
+
+/**
+ * Samples the bytes allocated by the threads of a {@link PhysicsSimulation} around its ticks and time tick handler runs, based on
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}. For every {@link Phase} the total bytes, the number of samples and a
+ * moving average of the bytes per sample are kept.<br>
+ * <br>
+ * If the running JVM does not support the allocation measurement, all samples are ignored, see {@link #isSupported()}.
+ * 
+ * @author omnaest
+ */
+public class AllocationMonitor
+{
+	private static final double SMOOTHING = 0.1;
+
+	public static enum Phase
+	{
+		FAST_TICK, SLOW_TICK, HANDLER
+	}
+
+	/**
+	 * Snapshot of the allocation gauges together with the size of the scene
+	 * 
+	 * @author omnaest
+	 */
+	public static class Statistics
+	{
+		private int			particleCount;
+		private int			forceProviderCount;
+		private int			forceFieldCount;
+		private double[]	averageBytes;
+
+		public Statistics(int particleCount, int forceProviderCount, int forceFieldCount, double[] averageBytes)
+		{
+			super();
+			this.particleCount = particleCount;
+			this.forceProviderCount = forceProviderCount;
+			this.forceFieldCount = forceFieldCount;
+			this.averageBytes = averageBytes;
+		}
+
+		public int getParticleCount()
+		{
+			return this.particleCount;
+		}
+
+		public int getForceProviderCount()
+		{
+			return this.forceProviderCount;
+		}
+
+		public int getForceFieldCount()
+		{
+			return this.forceFieldCount;
+		}
+
+		/**
+		 * Returns the moving average of the allocated bytes per sample of the given {@link Phase}
+		 * 
+		 * @param phase
+		 * @return
+		 */
+		public double getAverageBytes(Phase phase)
+		{
+			return this.averageBytes[phase.ordinal()];
+		}
+
+		@Override
+		public String toString()
+		{
+			return "Statistics [particleCount=" + this.particleCount + ", forceProviderCount=" + this.forceProviderCount + ", forceFieldCount="
+					+ this.forceFieldCount + ", fastTickBytes=" + this.getAverageBytes(Phase.FAST_TICK) + ", slowTickBytes="
+					+ this.getAverageBytes(Phase.SLOW_TICK) + ", handlerBytes=" + this.getAverageBytes(Phase.HANDLER) + "]";
+		}
+
+	}
+
+	private com.sun.management.ThreadMXBean threadMXBean = determineThreadMXBean();
+
+	private AtomicLongArray	totalBytes		= new AtomicLongArray(Phase.values().length);
+	private AtomicLongArray	counts			= new AtomicLongArray(Phase.values().length);
+	private double[]		averageBytes	= new double[Phase.values().length];
+
+	private static com.sun.management.ThreadMXBean determineThreadMXBean()
+	{
+		try
+		{
+			java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+			if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+			{
+				com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+				if (sunThreadMXBean.isThreadAllocatedMemorySupported())
+				{
+					if (!sunThreadMXBean.isThreadAllocatedMemoryEnabled())
+					{
+						sunThreadMXBean.setThreadAllocatedMemoryEnabled(true);
+					}
+					return sunThreadMXBean;
+				}
+			}
+		}
+		catch (LinkageError | RuntimeException e)
+		{
+			//not supported by this JVM
+		}
+		return null;
+	}
+
+	public boolean isSupported()
+	{
+		return this.threadMXBean != null;
+	}
+
+	/**
+	 * Returns the bytes allocated so far by the current thread and the given threads, or -1 if not supported
+	 * 
+	 * @param threadIds
+	 *            ids of additional threads, like the helper threads of a {@link PartitionedExecutor}
+	 * @return
+	 */
+	public long sample(long... threadIds)
+	{
+		if (this.threadMXBean == null)
+		{
+			return -1;
+		}
+
+		long bytes = this.threadMXBean.getThreadAllocatedBytes(Thread	.currentThread()
+																		.getId());
+		if (threadIds != null && threadIds.length > 0)
+		{
+			for (long threadBytes : this.threadMXBean.getThreadAllocatedBytes(threadIds))
+			{
+				bytes += Math.max(0, threadBytes);
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Records the bytes allocated since the given start sample for the given {@link Phase}
+	 * 
+	 * @see #sample(long...)
+	 * @param phase
+	 * @param startBytes
+	 *            result of {@link #sample(long...)} at the start of the {@link Phase}
+	 * @param threadIds
+	 *            the same thread ids as for the start sample
+	 */
+	public void record(Phase phase, long startBytes, long... threadIds)
+	{
+		if (startBytes < 0)
+		{
+			return;
+		}
+
+		long bytes = Math.max(0, this.sample(threadIds) - startBytes);
+		int index = phase.ordinal();
+		this.totalBytes.addAndGet(index, bytes);
+		long count = this.counts.incrementAndGet(index);
+		synchronized (this.averageBytes)
+		{
+			this.averageBytes[index] = count == 1 ? bytes : (1.0 - SMOOTHING) * this.averageBytes[index] + SMOOTHING * bytes;
+		}
+	}
+
+	/**
+	 * Returns the moving average of the allocated bytes per sample of the given {@link Phase}
+	 * 
+	 * @param phase
+	 * @return
+	 */
+	public double getAverageBytes(Phase phase)
+	{
+		synchronized (this.averageBytes)
+		{
+			return this.averageBytes[phase.ordinal()];
+		}
+	}
+
+	public long getTotalBytes(Phase phase)
+	{
+		return this.totalBytes.get(phase.ordinal());
+	}
+
+	public long getCount(Phase phase)
+	{
+		return this.counts.get(phase.ordinal());
+	}
+
+	/**
+	 * Returns the current gauges together with the given scene size
+	 * 
+	 * @param particleCount
+	 * @param forceProviderCount
+	 * @param forceFieldCount
+	 * @return
+	 */
+	public Statistics getStatistics(int particleCount, int forceProviderCount, int forceFieldCount)
+	{
+		synchronized (this.averageBytes)
+		{
+			return new Statistics(particleCount, forceProviderCount, forceFieldCount, this.averageBytes.clone());
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "AllocationMonitor [fastTickBytes=" + this.getAverageBytes(Phase.FAST_TICK) + ", slowTickBytes=" + this.getAverageBytes(Phase.SLOW_TICK)
+				+ ", handlerBytes=" + this.getAverageBytes(Phase.HANDLER) + "]";
+	}
+
+}
@@ -18,130 +18,454 @@
 */
 package org.omnaest.physics.component;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.omnaest.physics.domain.Particle;
 import org.omnaest.physics.domain.force.ForceProvider;
 import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.physics.domain.force.ShortRangeForceProvider;
 import org.omnaest.vector.Vector;
 
+/**
+ * Calculates the forces of the {@link ForceProvider}s grouped by their {@link Type}. The manager measures the evaluation cost and the force
+ * contribution of every group per {@link Particle}. If adaptive refresh is enabled via {@link #setMaxSkippedSteps(int)}, cheap or high impact
+ * groups are refreshed on every call, while the forces of expensive and low impact groups are reused for a bounded number of steps.<br>
+ * <br>
+ * The state is held in {@link Slots}, which are primitive arrays indexed by the position of the {@link Particle} within the current tick.
+ * 
+ * @see #assignSlots(List)
+ * @see #calculateForce(Slots, int, Map)
+ * @author omnaest
+ */
 public class CallOptimizingForceProviderManager
 {
-	private Map<Particle, Map<Type, AtomicInteger>>	particleToTypeToCallCounter	= new ConcurrentHashMap<>();
-	private Map<Particle, Map<Type, Vector>>		particleToTypeToLastVector	= new ConcurrentHashMap<>();
+	private static final Type[]	TYPES			= Type.values();
+	//the forces keep at least the dimensions of the Vector.NULL, which has been the result for a particle without forces before
+	private static final int	MIN_DIMENSIONS	= Vector.NULL.getCoordinates().length;
+
+	private int		maxSkippedSteps			= 0;
+	private double	impactThreshold			= 0.1;
+	private long	cheapCostInNanoseconds	= 20000;
+
+	private volatile Slots slots = new Slots(new Particle[0]);
+
+	/**
+	 * State of the {@link Particle}s of a tick, indexed by <code>slot * number of types + type ordinal</code>. The forces are stored with a stride
+	 * of the dimensions at <code>index * dimensions + dimension</code>.
+	 * 
+	 * @author omnaest
+	 */
+	public static class Slots
+	{
+		private Particle[]	particles;
+		private int			dimensions;
+		private double[]	forces;
+		private boolean[]	calculated;
+		private double[]	magnitudes;
+		private double[]	costs;
+		private int[]		skippedSteps;
+
+		private Slots(Particle[] particles)
+		{
+			super();
+			this.particles = particles;
+			this.dimensions = Arrays	.stream(particles)
+										.mapToInt(particle -> particle	.getLocation()
+																		.getCoordinates().length)
+										.reduce(MIN_DIMENSIONS, Math::max);
+			int size = particles.length * TYPES.length;
+			this.forces = new double[size * this.dimensions];
+			this.calculated = new boolean[size];
+			this.magnitudes = new double[size];
+			this.costs = new double[size];
+			this.skippedSteps = new int[size];
+		}
+
+		/**
+		 * Returns the number of coordinates of the calculated forces, which is the maximum of the {@link Particle} dimensions
+		 * 
+		 * @return
+		 */
+		public int getDimensions()
+		{
+			return this.dimensions;
+		}
+
+		private boolean hasSameParticles(List<Particle> particles)
+		{
+			boolean retval = this.particles.length == particles.size();
+			for (int ii = 0; retval && ii < this.particles.length; ii++)
+			{
+				retval = this.particles[ii] == particles.get(ii);
+			}
+			return retval;
+		}
+
+		private void copyFrom(Slots slots)
+		{
+			Map<Particle, Integer> particleToSlot = new IdentityHashMap<>(slots.particles.length);
+			for (int ii = 0; ii < slots.particles.length; ii++)
+			{
+				particleToSlot.put(slots.particles[ii], ii);
+			}
+
+			int dimensions = Math.min(this.dimensions, slots.dimensions);
+			for (int ii = 0; ii < this.particles.length; ii++)
+			{
+				Integer slot = particleToSlot.get(this.particles[ii]);
+				if (slot != null)
+				{
+					int sourceOffset = slot * TYPES.length;
+					int targetOffset = ii * TYPES.length;
+					for (int jj = 0; jj < TYPES.length; jj++)
+					{
+						System.arraycopy(slots.forces, (sourceOffset + jj) * slots.dimensions, this.forces, (targetOffset + jj) * this.dimensions,
+											dimensions);
+					}
+					System.arraycopy(slots.calculated, sourceOffset, this.calculated, targetOffset, TYPES.length);
+					System.arraycopy(slots.magnitudes, sourceOffset, this.magnitudes, targetOffset, TYPES.length);
+					System.arraycopy(slots.costs, sourceOffset, this.costs, targetOffset, TYPES.length);
+					System.arraycopy(slots.skippedSteps, sourceOffset, this.skippedSteps, targetOffset, TYPES.length);
+				}
+			}
+		}
+	}
+
+	/**
+	 * {@link ForceProvider}s of a tick with the {@link ShortRangeForceProvider}s indexed by their dependencies
+	 * 
+	 * @see CallOptimizingForceProviderManager#indexForceProviders(Set, VerletNeighborList)
+	 * @author omnaest
+	 */
+	public static class MatchingIndex
+	{
+		private VerletNeighborList								neighborList;
+		private List<ForceProvider>								scannedForceProviders		= new ArrayList<>();
+		private List<ShortRangeForceProvider>					indexedForceProviders		= new ArrayList<>();
+		private Map<Particle, List<ShortRangeForceProvider>>	dependencyToForceProviders	= new IdentityHashMap<>();
+		private Set<Type>										indexedTypes				= EnumSet.noneOf(Type.class);
+
+		private MatchingIndex(Set<ForceProvider> forceProviders, VerletNeighborList neighborList)
+		{
+			super();
+			this.neighborList = neighborList;
+			for (ForceProvider forceProvider : forceProviders)
+			{
+				Collection<Particle> dependencies = forceProvider.getDependencies();
+				if (neighborList != null && forceProvider instanceof ShortRangeForceProvider && dependencies != null
+						&& dependencies	.stream()
+										.allMatch(neighborList::isTracked))
+				{
+					ShortRangeForceProvider shortRangeForceProvider = (ShortRangeForceProvider) forceProvider;
+					this.indexedForceProviders.add(shortRangeForceProvider);
+					this.indexedTypes.add(forceProvider.getType());
+					for (Particle dependency : dependencies)
+					{
+						this.dependencyToForceProviders	.computeIfAbsent(dependency, particle -> new ArrayList<>())
+														.add(shortRangeForceProvider);
+					}
+				}
+				else
+				{
+					this.scannedForceProviders.add(forceProvider);
+				}
+			}
+		}
+	}
 
 	public CallOptimizingForceProviderManager()
 	{
 		super();
 	}
 
-	private Map<Type, AtomicInteger> newTypeToCounterMap()
+	/**
+	 * Sets the maximum number of steps the cached force of an expensive and low impact group is reused. Defaults to 0, which refreshes all
+	 * groups on every step.
+	 * 
+	 * @param maxSkippedSteps
+	 * @return this
+	 */
+	public CallOptimizingForceProviderManager setMaxSkippedSteps(int maxSkippedSteps)
+	{
+		this.maxSkippedSteps = maxSkippedSteps;
+		return this;
+	}
+
+	/**
+	 * Groups which contribute at least the given fraction of the sum of all group force magnitudes of a {@link Particle} are refreshed on every
+	 * step. Defaults to 0.1
+	 * 
+	 * @param impactThreshold
+	 * @return this
+	 */
+	public CallOptimizingForceProviderManager setImpactThreshold(double impactThreshold)
+	{
+		this.impactThreshold = impactThreshold;
+		return this;
+	}
+
+	/**
+	 * Groups whose average evaluation cost is at most the given duration are refreshed on every step. Defaults to 20 microseconds
+	 * 
+	 * @param cheapCostInNanoseconds
+	 * @return this
+	 */
+	public CallOptimizingForceProviderManager setCheapCostInNanoseconds(long cheapCostInNanoseconds)
+	{
+		this.cheapCostInNanoseconds = cheapCostInNanoseconds;
+		return this;
+	}
+
+	/**
+	 * Assigns the {@link Slots} for the given {@link Particle}s, the index of a {@link Particle} within the {@link List} is its slot. The state of
+	 * {@link Particle}s which have been present before is kept.
+	 * 
+	 * @param particles
+	 * @return
+	 */
+	public Slots assignSlots(List<Particle> particles)
+	{
+		Slots slots = this.slots;
+		if (!slots.hasSameParticles(particles))
+		{
+			Slots newSlots = new Slots(particles.toArray(new Particle[particles.size()]));
+			newSlots.copyFrom(slots);
+			this.slots = slots = newSlots;
+		}
+		return slots;
+	}
+
+	public Map<Type, List<ForceProvider>> calculateMatchingForceProviders(Set<ForceProvider> forceProviders, Particle particle)
+	{
+		return this.calculateMatchingForceProviders(forceProviders, particle, null);
+	}
+
+	/**
+	 * Similar to {@link #calculateMatchingForceProviders(Set, Particle)} but skips all {@link ForceProvider}s which are out of range according
+	 * to the given {@link VerletNeighborList}. To determine the matching {@link ForceProvider}s of many {@link Particle}s, use
+	 * {@link #indexForceProviders(Set, VerletNeighborList)} once and {@link #calculateMatchingForceProviders(MatchingIndex, Particle)} per
+	 * {@link Particle}.
+	 * 
+	 * @param forceProviders
+	 * @param particle
+	 * @param neighborList
+	 *            can be null
+	 * @return
+	 */
+	public Map<Type, List<ForceProvider>> calculateMatchingForceProviders(Set<ForceProvider> forceProviders, Particle particle,
+																			VerletNeighborList neighborList)
+	{
+		return this.calculateMatchingForceProviders(this.indexForceProviders(forceProviders, neighborList), particle);
+	}
+
+	/**
+	 * Indexes the {@link ShortRangeForceProvider}s by their {@link ForceProvider#getDependencies()}, which contain their source {@link Particle}s.
+	 * The candidates of a {@link Particle} are then taken from the {@link ShortRangeForceProvider}s of its neighbors within the given
+	 * {@link VerletNeighborList}, only all other {@link ForceProvider}s are matched against every {@link Particle}.
+	 * 
+	 * @param forceProviders
+	 * @param neighborList
+	 *            can be null
+	 * @return
+	 */
+	public MatchingIndex indexForceProviders(Set<ForceProvider> forceProviders, VerletNeighborList neighborList)
 	{
-		EnumMap<Type, AtomicInteger> retmap = new EnumMap<>(Type.class);
-		retmap.put(Type.SPECIFIC, new AtomicInteger());
-		retmap.put(Type.ALL_MATCHING, new AtomicInteger());
+		return new MatchingIndex(forceProviders, neighborList);
+	}
+
+	/**
+	 * Determines the matching {@link ForceProvider}s of the given {@link Particle} grouped by their {@link Type}
+	 * 
+	 * @see #indexForceProviders(Set, VerletNeighborList)
+	 * @param matchingIndex
+	 * @param particle
+	 * @return
+	 */
+	public Map<Type, List<ForceProvider>> calculateMatchingForceProviders(MatchingIndex matchingIndex, Particle particle)
+	{
+		VerletNeighborList neighborList = matchingIndex.neighborList;
+		List<Particle> neighbors = neighborList != null ? neighborList.getNeighbors(particle) : null;
+
+		Map<Type, List<ForceProvider>> retmap = new EnumMap<>(Type.class);
+		for (ForceProvider forceProvider : matchingIndex.scannedForceProviders)
+		{
+			if (forceProvider.match(particle))
+			{
+				retmap	.computeIfAbsent(forceProvider.getType(), type -> new ArrayList<>())
+						.add(forceProvider);
+			}
+		}
+		if (neighbors != null)
+		{
+			for (Particle neighbor : neighbors)
+			{
+				for (ShortRangeForceProvider forceProvider : matchingIndex.dependencyToForceProviders.getOrDefault(neighbor,
+																												Collections.emptyList()))
+				{
+					if (forceProvider.getSourceParticle(particle) == neighbor && forceProvider.match(particle))
+					{
+						retmap	.computeIfAbsent(forceProvider.getType(), type -> new ArrayList<>())
+								.add(forceProvider);
+					}
+				}
+			}
+		}
+		else
+		{
+			for (ShortRangeForceProvider forceProvider : matchingIndex.indexedForceProviders)
+			{
+				if (forceProvider.match(particle))
+				{
+					retmap	.computeIfAbsent(forceProvider.getType(), type -> new ArrayList<>())
+							.add(forceProvider);
+				}
+			}
+		}
+
+		if (neighborList != null)
+		{
+			//out of range force providers are kept as empty groups to contribute a zero force instead of the last force vector
+			retmap.replaceAll((type, matchingForceProviders) -> matchingForceProviders	.stream()
+																						.filter(forceProvider -> neighborList.isInRange(forceProvider,
+																																		particle))
+																						.collect(Collectors.toList()));
+			for (Type type : matchingIndex.indexedTypes)
+			{
+				retmap.putIfAbsent(type, Collections.emptyList());
+			}
+		}
 		return retmap;
 	}
 
-	public ForceProvider wrap(ForceProvider forceProvider)
+	/**
+	 * Calculates the sum of the forces of all groups of {@link ForceProvider}s for the {@link Particle} with the given slot. If a {@link Type}
+	 * has no group at all, the last force calculated for this {@link Type} is used.
+	 * 
+	 * @param slots
+	 * @param slot
+	 * @param forceProviders
+	 * @return
+	 */
+	public Vector calculateForce(Slots slots, int slot, Map<Type, List<ForceProvider>> forceProviders)
+	{
+		return this.calculateForce(slots, slot, forceProviders, null);
+	}
+
+	/**
+	 * Similar to {@link #calculateForce(Slots, int, Map)} but multiplies the force of every group with the weight of its {@link Type}. Groups
+	 * with a weight of 0 are neither evaluated nor replaced by their last force.
+	 * 
+	 * @param slots
+	 * @param slot
+	 * @param forceProviders
+	 * @param typeWeights
+	 *            weights indexed by the {@link Type#ordinal()}, null for a weight of 1 for all {@link Type}s
+	 * @return
+	 */
+	public Vector calculateForce(Slots slots, int slot, Map<Type, List<ForceProvider>> forceProviders, double[] typeWeights)
 	{
-		return new ForceProvider()
+		Particle particle = slots.particles[slot];
+		int dimensions = slots.dimensions;
+		double[] retval = new double[dimensions];
+		for (Type type : TYPES)
 		{
-			@Override
-			public boolean match(Particle particle)
+			double weight = typeWeights != null ? typeWeights[type.ordinal()] : 1.0;
+			if (weight == 0.0)
 			{
-				return forceProvider.match(particle);
+				continue;
 			}
 
-			@Override
-			public Vector getForce(Particle particle)
+			int index = slot * TYPES.length + type.ordinal();
+			int offset = index * dimensions;
+
+			List<ForceProvider> matchingForceProviders = forceProviders.get(type);
+			if (matchingForceProviders == null)
 			{
-				Vector force = forceProvider.getForce(particle);
-
-				CallOptimizingForceProviderManager.this.particleToTypeToCallCounter	.computeIfAbsent(	particle,
-																										p -> CallOptimizingForceProviderManager.this.newTypeToCounterMap())
-																					.get(this.getType())
-																					.incrementAndGet();
-				CallOptimizingForceProviderManager.this.particleToTypeToCallCounter	.computeIfAbsent(	particle,
-																										p -> CallOptimizingForceProviderManager.this.newTypeToCounterMap())
-																					.get(this	.getType()
-																								.inverse())
-																					.decrementAndGet();
-
-				return force;
+				if (!slots.calculated[index])
+				{
+					continue;
+				}
 			}
+			else if (matchingForceProviders.isEmpty())
+			{
+				Arrays.fill(slots.forces, offset, offset + dimensions, 0.0);
+				slots.calculated[index] = true;
+				slots.magnitudes[index] = 0.0;
+				continue;
+			}
+			else if (this.isRefreshNecessary(slots, slot, index))
+			{
+				boolean adaptive = this.maxSkippedSteps > 0;
+				long startTime = adaptive ? System.nanoTime() : 0;
+
+				Arrays.fill(slots.forces, offset, offset + dimensions, 0.0);
+				for (ForceProvider forceProvider : matchingForceProviders)
+				{
+					double[] coordinates = forceProvider	.getForce(particle)
+															.getCoordinates();
+					for (int ii = 0; ii < coordinates.length && ii < dimensions; ii++)
+					{
+						slots.forces[offset + ii] += coordinates[ii];
+					}
+				}
 
-			@Override
-			public Type getType()
+				if (adaptive)
+				{
+					double cost = System.nanoTime() - startTime;
+					slots.costs[index] = slots.costs[index] <= 0.0 ? cost : 0.8 * slots.costs[index] + 0.2 * cost;
+					slots.magnitudes[index] = this.calculateMagnitude(slots.forces, offset, dimensions);
+				}
+				slots.calculated[index] = true;
+				slots.skippedSteps[index] = 0;
+			}
+			else
 			{
-				return forceProvider.getType();
+				slots.skippedSteps[index]++;
 			}
 
-		};
+			for (int ii = 0; ii < dimensions; ii++)
+			{
+				retval[ii] += weight * slots.forces[offset + ii];
+			}
+		}
+		return new Vector(retval);
 	}
 
-	public Map<Type, List<ForceProvider>> calculateMatchingForceProviders(Set<ForceProvider> forceProviders, Particle particle)
+	private double calculateMagnitude(double[] forces, int offset, int dimensions)
+	{
+		double sum = 0.0;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			sum += forces[offset + ii] * forces[offset + ii];
+		}
+		return Math.sqrt(sum);
+	}
+
+	private boolean isRefreshNecessary(Slots slots, int slot, int index)
 	{
-		Map<Type, Boolean> typeToAvoidMap = this.calculateTypeToAvoidMap(particle);
-		return forceProviders	.stream()
-								.filter(forceProvider -> !typeToAvoidMap.get(forceProvider.getType()))
-								.filter(forceProvider -> forceProvider.match(particle))
-								.collect(Collectors.groupingBy(forceProvider -> forceProvider.getType()));
-	}
-
-	private Map<Type, Boolean> calculateTypeToAvoidMap(Particle particle)
-	{
-		return Arrays	.asList(Type.values())
-						.stream()
-						.collect(Collectors.toMap(type -> type, type -> this.avoid(type, particle)));
-	}
-
-	private boolean avoid(Type type, Particle particle)
-	{
-		Map<Type, AtomicInteger> typeToCallCounter = this.particleToTypeToCallCounter.computeIfAbsent(particle, p -> this.newTypeToCounterMap());
-		int callCountForType = typeToCallCounter.get(type)
-												.get();
-		int callCountForInverseType = typeToCallCounter	.get(type.inverse())
-														.get();
-		boolean hasBothTypes = callCountForType > 0 && callCountForInverseType > 0;
-		return hasBothTypes && callCountForType > callCountForInverseType * 100;
-	}
-
-	public Vector calculateForce(Map<Type, List<ForceProvider>> forceProviders, Particle particle)
-	{
-		return Arrays	.asList(Type.values())
-						.stream()
-						.map(type ->
-						{
-							Vector force = Vector.NULL;
-
-							List<ForceProvider> matchingForceProviders = forceProviders.get(type);
-							if (matchingForceProviders == null || matchingForceProviders.isEmpty())
-							{
-								force = this.particleToTypeToLastVector	.computeIfAbsent(particle, p -> new ConcurrentHashMap<>())
-																		.getOrDefault(type, Vector.NULL);
-							}
-							else
-							{
-								force = matchingForceProviders	.stream()
-																.map(forceProvider -> forceProvider.getForce(particle))
-																.reduce((f1, f2) -> f1.add(f2))
-																.orElse(Vector.NULL);
-
-								this.particleToTypeToLastVector	.computeIfAbsent(particle, p -> new ConcurrentHashMap<>())
-																.put(type, force);
-							}
-							return force;
-						})
-						.reduce((f1, f2) -> f1.add(f2))
-						.get();
+		return this.maxSkippedSteps <= 0 || !slots.calculated[index] || slots.skippedSteps[index] >= this.maxSkippedSteps
+				|| slots.costs[index] <= this.cheapCostInNanoseconds || this.calculateImpact(slots, slot, index) >= this.impactThreshold;
+	}
+
+	private double calculateImpact(Slots slots, int slot, int index)
+	{
+		double sum = 0.0;
+		int offset = slot * TYPES.length;
+		for (int ii = 0; ii < TYPES.length; ii++)
+		{
+			sum += slots.magnitudes[offset + ii];
+		}
+		return sum > 0.0 ? slots.magnitudes[index] / sum : 0.0;
 	}
 
 }
@@ -0,0 +1,426 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
+import org.omnaest.physics.domain.force.CenterForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceField;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.physics.domain.force.MinimalPointDistanceForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+
+/**
+ * {@link ForceField} which compiles the built-in {@link ForceProvider}s into typed tables of primitive arrays and evaluates each table within a
+ * monomorphic loop over the locations of the {@link ParticleView}:
+ * <ul>
+ * <li>spring table for {@link DistanceForceProvider}s</li>
+ * <li>minimal distance table for {@link MinimalDistanceForceProvider}s</li>
+ * <li>repulsor table for {@link MinimalPointDistanceForceProvider}s</li>
+ * <li>attractor table for {@link PointForceProvider}s and {@link CenterForceProvider}s</li>
+ * </ul>
+ * The tables are compiled at the first {@link #accumulate(ParticleView, double[])}, after the dynamic parameters of the {@link ForceProvider}s
+ * have been sampled for the tick. Like the repulsor locations, the locations of {@link Particle}s which are not part of the {@link ParticleView}
+ * are captured at compile time.
+ * 
+ * @see #isCompilable(ForceProvider)
+ * @author omnaest
+ */
+public class CompiledForceField implements ForceField
+{
+	private static final double	MIN_LENGTH		= 0.001;
+	private static final int	ALL_PARTICLES	= -2;
+
+	private Type									type;
+	private List<DistanceForceProvider>				distanceForceProviders				= new ArrayList<>();
+	private List<MinimalDistanceForceProvider>		minimalDistanceForceProviders		= new ArrayList<>();
+	private List<MinimalPointDistanceForceProvider>	minimalPointDistanceForceProviders	= new ArrayList<>();
+	private List<PointForceProvider>				pointForceProviders					= new ArrayList<>();
+
+	private ParticleView compiledParticleView = null;
+
+	private int[]		springIndexes;
+	private boolean[]	springMatches;
+	private double[]	springDistances;
+	private double[]	springStrengths;
+	private double[]	springAnchorCoordinates;
+
+	private int[]		minimalDistanceIndexes;
+	private double[]	minimalDistances;
+	private double[]	minimalDistanceStrengths;
+	private double[]	minimalDistanceAnchorCoordinates;
+
+	private int[]		repulsorIndexes;
+	private double[]	repulsorCoordinates;
+	private double[]	repulsorDistances;
+	private double[]	repulsorStrengths;
+
+	private int[]		attractorIndexes;
+	private double[]	attractorCoordinates;
+	private double[]	attractorFactors;
+
+	/**
+	 * @param type
+	 * @param forceProviders
+	 *            only {@link #isCompilable(ForceProvider)} {@link ForceProvider}s are used
+	 */
+	public CompiledForceField(Type type, List<? extends ForceProvider> forceProviders)
+	{
+		super();
+		this.type = type;
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			Class<?> providerClass = forceProvider.getClass();
+			if (DistanceForceProvider.class.equals(providerClass))
+			{
+				this.distanceForceProviders.add((DistanceForceProvider) forceProvider);
+			}
+			else if (MinimalDistanceForceProvider.class.equals(providerClass))
+			{
+				this.minimalDistanceForceProviders.add((MinimalDistanceForceProvider) forceProvider);
+			}
+			else if (MinimalPointDistanceForceProvider.class.equals(providerClass))
+			{
+				this.minimalPointDistanceForceProviders.add((MinimalPointDistanceForceProvider) forceProvider);
+			}
+			else if (PointForceProvider.class.equals(providerClass) || CenterForceProvider.class.equals(providerClass))
+			{
+				this.pointForceProviders.add((PointForceProvider) forceProvider);
+			}
+		}
+	}
+
+	/**
+	 * Returns true for the built-in {@link ForceProvider} classes which have a compiled table. Subclasses are not compilable, since they can
+	 * override the force law.
+	 * 
+	 * @param forceProvider
+	 * @return
+	 */
+	public static boolean isCompilable(ForceProvider forceProvider)
+	{
+		Class<?> type = forceProvider.getClass();
+		return DistanceForceProvider.class.equals(type) || MinimalDistanceForceProvider.class.equals(type)
+				|| MinimalPointDistanceForceProvider.class.equals(type) || PointForceProvider.class.equals(type)
+				|| CenterForceProvider.class.equals(type);
+	}
+
+	@Override
+	public Type getType()
+	{
+		return this.type;
+	}
+
+	@Override
+	public void accumulate(ParticleView particleView, double[] forces)
+	{
+		if (this.compiledParticleView != particleView)
+		{
+			this.compile(particleView);
+			this.compiledParticleView = particleView;
+		}
+
+		int dimensions = particleView.getDimensions();
+		double[] coordinates = new double[particleView.size() * dimensions];
+		for (int ii = 0; ii < particleView.size(); ii++)
+		{
+			for (int jj = 0; jj < dimensions; jj++)
+			{
+				coordinates[ii * dimensions + jj] = particleView.getCoordinate(ii, jj);
+			}
+		}
+
+		double[] delta = new double[dimensions];
+		this.accumulateSprings(coordinates, dimensions, delta, forces);
+		this.accumulateMinimalDistances(coordinates, dimensions, delta, forces);
+		this.accumulateRepulsors(coordinates, dimensions, delta, forces);
+		this.accumulateAttractors(coordinates, dimensions, delta, forces);
+	}
+
+	void compile(ParticleView particleView)
+	{
+		int dimensions = particleView.getDimensions();
+
+		int springs = this.distanceForceProviders.size();
+		this.springIndexes = new int[springs * 2];
+		this.springMatches = new boolean[springs * 2];
+		this.springDistances = new double[springs];
+		this.springStrengths = new double[springs];
+		this.springAnchorCoordinates = new double[springs * 2 * dimensions];
+		for (int ii = 0; ii < springs; ii++)
+		{
+			DistanceForceProvider forceProvider = this.distanceForceProviders.get(ii);
+			this.springIndexes[ii * 2] = indexOf(particleView, forceProvider.getParticle1(), this.springAnchorCoordinates, ii * 2, dimensions);
+			this.springIndexes[ii * 2 + 1] = indexOf(particleView, forceProvider.getParticle2(), this.springAnchorCoordinates, ii * 2 + 1, dimensions);
+			this.springMatches[ii * 2] = forceProvider.match(forceProvider.getParticle1());
+			this.springMatches[ii * 2 + 1] = forceProvider.match(forceProvider.getParticle2());
+			this.springDistances[ii] = forceProvider.getDistance();
+			this.springStrengths[ii] = forceProvider.getStrength();
+		}
+
+		int minimalDistances = this.minimalDistanceForceProviders.size();
+		this.minimalDistanceIndexes = new int[minimalDistances * 2];
+		this.minimalDistances = new double[minimalDistances];
+		this.minimalDistanceStrengths = new double[minimalDistances];
+		this.minimalDistanceAnchorCoordinates = new double[minimalDistances * 2 * dimensions];
+		for (int ii = 0; ii < minimalDistances; ii++)
+		{
+			MinimalDistanceForceProvider forceProvider = this.minimalDistanceForceProviders.get(ii);
+			this.minimalDistanceIndexes[ii * 2] = indexOf(particleView, forceProvider.getParticle1(), this.minimalDistanceAnchorCoordinates, ii * 2,
+															dimensions);
+			this.minimalDistanceIndexes[ii * 2 + 1] = indexOf(particleView, forceProvider.getParticle2(), this.minimalDistanceAnchorCoordinates,
+																ii * 2 + 1, dimensions);
+			this.minimalDistances[ii] = forceProvider.getDistance();
+			this.minimalDistanceStrengths[ii] = forceProvider.getStrength();
+		}
+
+		int repulsors = this.minimalPointDistanceForceProviders.size();
+		this.repulsorIndexes = new int[repulsors];
+		this.repulsorCoordinates = new double[repulsors * dimensions];
+		this.repulsorDistances = new double[repulsors];
+		this.repulsorStrengths = new double[repulsors];
+		for (int ii = 0; ii < repulsors; ii++)
+		{
+			MinimalDistanceForceProvider forceProvider = this.minimalPointDistanceForceProviders	.get(ii)
+																									.getForceProvider();
+			this.repulsorIndexes[ii] = particleView.indexOf(forceProvider.getParticle1());
+			copy(forceProvider	.getParticle2()
+								.getLocation()
+								.getCoordinates(),
+					this.repulsorCoordinates, ii * dimensions, dimensions);
+			this.repulsorDistances[ii] = forceProvider.getDistance();
+			this.repulsorStrengths[ii] = forceProvider.getStrength();
+		}
+
+		int attractors = this.pointForceProviders.size();
+		this.attractorIndexes = new int[attractors];
+		this.attractorCoordinates = new double[attractors * dimensions];
+		this.attractorFactors = new double[attractors];
+		for (int ii = 0; ii < attractors; ii++)
+		{
+			PointForceProvider forceProvider = this.pointForceProviders.get(ii);
+			Particle particle = forceProvider.getParticle();
+			this.attractorIndexes[ii] = particle != null ? particleView.indexOf(particle) : ALL_PARTICLES;
+			copy(forceProvider	.getLocation()
+								.getCoordinates(),
+					this.attractorCoordinates, ii * dimensions, dimensions);
+			this.attractorFactors[ii] = forceProvider.getStrength() * forceProvider.getMass();
+		}
+	}
+
+	void accumulateSprings(double[] coordinates, int dimensions, double[] delta, double[] forces)
+	{
+		int[] indexes = this.springIndexes;
+		boolean[] matches = this.springMatches;
+		for (int ii = 0; ii < this.springDistances.length; ii++)
+		{
+			int index1 = indexes[ii * 2];
+			int index2 = indexes[ii * 2 + 1];
+			boolean match1 = index1 >= 0 && matches[ii * 2];
+			boolean match2 = index2 >= 0 && matches[ii * 2 + 1];
+			if (!match1 && !match2)
+			{
+				continue;
+			}
+
+			double strength = this.springStrengths[ii];
+			double length = difference(coordinates, this.springAnchorCoordinates, index2, ii * 2 + 1, index1, ii * 2, dimensions, delta);
+			if (length <= MIN_LENGTH)
+			{
+				length = randomize(delta, 1.0 / strength);
+			}
+			double factor = (length - this.springDistances[ii]) * strength / length;
+			if (match1)
+			{
+				add(forces, index1, dimensions, delta, factor);
+			}
+			if (match2)
+			{
+				add(forces, index2, dimensions, delta, -factor);
+			}
+		}
+	}
+
+	void accumulateMinimalDistances(double[] coordinates, int dimensions, double[] delta, double[] forces)
+	{
+		int[] indexes = this.minimalDistanceIndexes;
+		for (int ii = 0; ii < this.minimalDistances.length; ii++)
+		{
+			int index1 = indexes[ii * 2];
+			int index2 = indexes[ii * 2 + 1];
+			if (index1 < 0 && index2 < 0)
+			{
+				continue;
+			}
+
+			double distance = this.minimalDistances[ii];
+			double length = difference(coordinates, this.minimalDistanceAnchorCoordinates, index2, ii * 2 + 1, index1, ii * 2, dimensions, delta);
+			if (length <= MIN_LENGTH)
+			{
+				length = randomize(delta, 1.0);
+			}
+			if (length > distance)
+			{
+				continue;
+			}
+			double factor = -(distance - length) * this.minimalDistanceStrengths[ii] / length;
+			add(forces, index1, dimensions, delta, factor);
+			add(forces, index2, dimensions, delta, -factor);
+		}
+	}
+
+	void accumulateRepulsors(double[] coordinates, int dimensions, double[] delta, double[] forces)
+	{
+		for (int ii = 0; ii < this.repulsorIndexes.length; ii++)
+		{
+			int index = this.repulsorIndexes[ii];
+			if (index < 0)
+			{
+				continue;
+			}
+
+			double distance = this.repulsorDistances[ii];
+			double length = 0.0;
+			for (int jj = 0; jj < dimensions; jj++)
+			{
+				delta[jj] = this.repulsorCoordinates[ii * dimensions + jj] - coordinates[index * dimensions + jj];
+				length += delta[jj] * delta[jj];
+			}
+			length = Math.sqrt(length);
+			if (length <= MIN_LENGTH)
+			{
+				length = randomize(delta, 1.0);
+			}
+			if (length > distance)
+			{
+				continue;
+			}
+			add(forces, index, dimensions, delta, -(distance - length) * this.repulsorStrengths[ii] / length);
+		}
+	}
+
+	void accumulateAttractors(double[] coordinates, int dimensions, double[] delta, double[] forces)
+	{
+		int size = coordinates.length / Math.max(1, dimensions);
+		for (int ii = 0; ii < this.attractorIndexes.length; ii++)
+		{
+			int attractorIndex = this.attractorIndexes[ii];
+			int from = attractorIndex == ALL_PARTICLES ? 0 : attractorIndex;
+			int to = attractorIndex == ALL_PARTICLES ? size : attractorIndex + 1;
+			for (int index = Math.max(0, from); index < to; index++)
+			{
+				double length = 0.0;
+				for (int jj = 0; jj < dimensions; jj++)
+				{
+					delta[jj] = coordinates[index * dimensions + jj] - this.attractorCoordinates[ii * dimensions + jj];
+					length += delta[jj] * delta[jj];
+				}
+				length = Math.sqrt(length);
+				if (length <= MIN_LENGTH)
+				{
+					length = randomize(delta, 1.0);
+				}
+				add(forces, index, dimensions, delta, -length * this.attractorFactors[ii]);
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the given {@link Particle} within the {@link ParticleView}. If the {@link Particle} is not part of the view, its current
+	 * location is copied into the anchor coordinates at the given anchor position and -1 is returned.
+	 */
+	private static int indexOf(ParticleView particleView, Particle particle, double[] anchorCoordinates, int anchor, int dimensions)
+	{
+		int index = particleView.indexOf(particle);
+		if (index < 0)
+		{
+			copy(particle	.getLocation()
+							.getCoordinates(),
+					anchorCoordinates, anchor * dimensions, dimensions);
+		}
+		return index;
+	}
+
+	/**
+	 * Writes the difference of the locations with index1 and index2 into the given delta array and returns its length. A negative index refers to
+	 * the anchor coordinates at the given anchor position instead.
+	 */
+	private static double difference(double[] coordinates, double[] anchorCoordinates, int index1, int anchor1, int index2, int anchor2,
+										int dimensions, double[] delta)
+	{
+		double length = 0.0;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			double coordinate1 = index1 >= 0 ? coordinates[index1 * dimensions + ii] : anchorCoordinates[anchor1 * dimensions + ii];
+			double coordinate2 = index2 >= 0 ? coordinates[index2 * dimensions + ii] : anchorCoordinates[anchor2 * dimensions + ii];
+			delta[ii] = coordinate1 - coordinate2;
+			length += delta[ii] * delta[ii];
+		}
+		return Math.sqrt(length);
+	}
+
+	/**
+	 * Replaces a degenerated delta by a random two dimensional one, like the {@link ForceProvider}s do, and returns its length
+	 */
+	private static double randomize(double[] delta, double scale)
+	{
+		double length = 0.0;
+		for (int ii = 0; ii < delta.length; ii++)
+		{
+			delta[ii] = ii < 2 ? Math.random() * scale : 0.0;
+			length += delta[ii] * delta[ii];
+		}
+		return Math.sqrt(length);
+	}
+
+	private static void add(double[] forces, int index, int dimensions, double[] delta, double factor)
+	{
+		if (index >= 0)
+		{
+			int offset = index * dimensions;
+			for (int ii = 0; ii < dimensions; ii++)
+			{
+				forces[offset + ii] += factor * delta[ii];
+			}
+		}
+	}
+
+	private static void copy(double[] source, double[] target, int offset, int dimensions)
+	{
+		for (int ii = 0; ii < source.length && ii < dimensions; ii++)
+		{
+			target[offset + ii] = source[ii];
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CompiledForceField [type=" + this.type + ", springs=" + this.distanceForceProviders.size() + ", minimalDistances="
+				+ this.minimalDistanceForceProviders.size() + ", repulsors=" + this.minimalPointDistanceForceProviders.size() + ", attractors="
+				+ this.pointForceProviders.size() + "]";
+	}
+
+}
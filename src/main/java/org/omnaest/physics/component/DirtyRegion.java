@@ -0,0 +1,318 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+
+/**
+ * Region of a scene which has to be relaxed again after a mutation, like added or removed {@link Particle}s or {@link ForceProvider}s. The
+ * mutations mark seed {@link Particle}s and the region consists of
+ * <ul>
+ * <li>all {@link Particle}s within the given number of hops from a seed in the graph of the {@link Type#SPECIFIC} {@link ForceProvider}
+ * dependencies</li>
+ * <li>all {@link Particle}s within the given radius of any of them</li>
+ * </ul>
+ * The region is relaxed until the largest displacement of a tick falls below the convergence distance, or at most for the given number of ticks,
+ * afterwards the region is empty until the next mutation. Initially the whole scene is dirty.
+ * 
+ * @author omnaest
+ */
+public class DirtyRegion
+{
+	private int		hops;
+	private double	radius;
+	private double	convergenceDistance	= 0.01;
+	private int		maxTicks			= 200;
+	private int		ticks				= 0;
+
+	private boolean			all				= true;
+	private Set<Particle>	seedParticles	= Collections.newSetFromMap(new IdentityHashMap<>());
+	private Set<Particle>	region			= null;
+
+	/**
+	 * @param hops
+	 *            number of hops in the {@link ForceProvider} graph a mutation affects
+	 * @param radius
+	 *            distance around the affected {@link Particle}s which is added to the region, 0 for none
+	 */
+	public DirtyRegion(int hops, double radius)
+	{
+		super();
+		this.hops = hops;
+		this.radius = radius;
+	}
+
+	/**
+	 * Sets the largest displacement of a tick at which the region counts as converged. Defaults to 0.01
+	 * 
+	 * @param convergenceDistance
+	 * @return this
+	 */
+	public DirtyRegion setConvergenceDistance(double convergenceDistance)
+	{
+		this.convergenceDistance = convergenceDistance;
+		return this;
+	}
+
+	/**
+	 * Sets the maximum number of ticks a region is relaxed, even if it has not converged. Defaults to 200
+	 * 
+	 * @param maxTicks
+	 * @return this
+	 */
+	public DirtyRegion setMaxTicks(int maxTicks)
+	{
+		this.maxTicks = maxTicks;
+		return this;
+	}
+
+	/**
+	 * Marks the given {@link Particle}s as seeds of the dirty region
+	 * 
+	 * @param particles
+	 * @return this
+	 */
+	public synchronized DirtyRegion markDirty(Collection<Particle> particles)
+	{
+		if (!this.all && this.seedParticles.addAll(particles))
+		{
+			this.region = null;
+			this.ticks = 0;
+		}
+		return this;
+	}
+
+	/**
+	 * Marks the {@link Particle}s affected by the given added or removed {@link ForceProvider}
+	 * 
+	 * @param forceProvider
+	 * @param particles
+	 *            all {@link Particle}s of the scene, used if the {@link ForceProvider} has no known dependencies
+	 * @return this
+	 */
+	public DirtyRegion markDirty(ForceProvider forceProvider, Collection<Particle> particles)
+	{
+		Collection<Particle> dependencies = forceProvider.getDependencies();
+		if (dependencies == null || dependencies.isEmpty())
+		{
+			List<Particle> matchingParticles = new ArrayList<>();
+			for (Particle particle : particles)
+			{
+				if (forceProvider.match(particle))
+				{
+					matchingParticles.add(particle);
+				}
+			}
+			return this.markDirty(matchingParticles);
+		}
+		return this.markDirty(dependencies);
+	}
+
+	/**
+	 * Marks the {@link Particle}s affected by the given removed {@link Particle}s. These are the remaining {@link Particle}s which share a
+	 * {@link ForceProvider} with a removed {@link Particle} and the remaining {@link Particle}s within the radius of the last locations of the
+	 * removed {@link Particle}s.
+	 * 
+	 * @param removedParticles
+	 * @param particles
+	 *            the remaining {@link Particle}s of the scene
+	 * @param forceProviders
+	 * @return this
+	 */
+	public DirtyRegion markRemoved(Collection<Particle> removedParticles, Collection<Particle> particles, Collection<ForceProvider> forceProviders)
+	{
+		Set<Particle> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+		removed.addAll(removedParticles);
+
+		List<Particle> affectedParticles = new ArrayList<>();
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			Collection<Particle> dependencies = forceProvider.getDependencies();
+			if (dependencies != null && dependencies	.stream()
+														.anyMatch(removed::contains))
+			{
+				for (Particle dependency : dependencies)
+				{
+					if (!removed.contains(dependency))
+					{
+						affectedParticles.add(dependency);
+					}
+				}
+			}
+		}
+
+		if (this.radius > 0.0)
+		{
+			for (Particle particle : particles)
+			{
+				if (!removed.contains(particle))
+				{
+					for (Particle removedParticle : removed)
+					{
+						if (particle.getLocation()
+									.subtract(removedParticle.getLocation())
+									.absolute() <= this.radius)
+						{
+							affectedParticles.add(particle);
+							break;
+						}
+					}
+				}
+			}
+		}
+		return this.markDirty(affectedParticles);
+	}
+
+	/**
+	 * Marks the whole scene as dirty
+	 * 
+	 * @return this
+	 */
+	public synchronized DirtyRegion markAllDirty()
+	{
+		this.all = true;
+		this.seedParticles.clear();
+		this.region = null;
+		this.ticks = 0;
+		return this;
+	}
+
+	public synchronized boolean isEmpty()
+	{
+		return !this.all && this.seedParticles.isEmpty();
+	}
+
+	/**
+	 * Returns the {@link Particle}s of the dirty region, or null if the whole scene is dirty
+	 * 
+	 * @param particles
+	 * @param forceProviders
+	 * @return
+	 */
+	public synchronized Set<Particle> getRegion(Collection<Particle> particles, Collection<ForceProvider> forceProviders)
+	{
+		if (this.all)
+		{
+			return null;
+		}
+		if (this.region == null)
+		{
+			this.region = this.determineRegion(particles, forceProviders);
+		}
+		return this.region;
+	}
+
+	/**
+	 * Reports the largest displacement of a {@link Particle} of the region within the last tick and clears the region if it has converged or the
+	 * maximum number of ticks is reached
+	 * 
+	 * @param maxDisplacement
+	 */
+	public synchronized void update(double maxDisplacement)
+	{
+		this.ticks++;
+		if (maxDisplacement < this.convergenceDistance || this.ticks >= this.maxTicks)
+		{
+			this.ticks = 0;
+			this.all = false;
+			this.seedParticles.clear();
+			this.region = Collections.emptySet();
+		}
+	}
+
+	private Set<Particle> determineRegion(Collection<Particle> particles, Collection<ForceProvider> forceProviders)
+	{
+		Map<Particle, List<Particle>> adjacency = new IdentityHashMap<>();
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			Collection<Particle> dependencies = Type.SPECIFIC.equals(forceProvider.getType()) ? forceProvider.getDependencies() : null;
+			if (dependencies != null && dependencies.size() > 1)
+			{
+				for (Particle particle : dependencies)
+				{
+					adjacency	.computeIfAbsent(particle, p -> new ArrayList<>())
+								.addAll(dependencies);
+				}
+			}
+		}
+
+		Set<Particle> sceneParticles = Collections.newSetFromMap(new IdentityHashMap<>());
+		sceneParticles.addAll(particles);
+
+		//breadth first search
+		Set<Particle> region = Collections.newSetFromMap(new IdentityHashMap<>());
+		List<Particle> frontier = new ArrayList<>();
+		for (Particle particle : this.seedParticles)
+		{
+			if (sceneParticles.contains(particle) && region.add(particle))
+			{
+				frontier.add(particle);
+			}
+		}
+		for (int hop = 0; hop < this.hops && !frontier.isEmpty(); hop++)
+		{
+			List<Particle> nextFrontier = new ArrayList<>();
+			for (Particle particle : frontier)
+			{
+				for (Particle neighbor : adjacency.getOrDefault(particle, Collections.emptyList()))
+				{
+					if (sceneParticles.contains(neighbor) && region.add(neighbor))
+					{
+						nextFrontier.add(neighbor);
+					}
+				}
+			}
+			frontier = nextFrontier;
+		}
+
+		//spatial neighborhood
+		if (this.radius > 0.0 && !region.isEmpty())
+		{
+			List<Particle> regionParticles = new ArrayList<>(region);
+			for (Particle particle : particles)
+			{
+				if (!region.contains(particle))
+				{
+					for (Particle regionParticle : regionParticles)
+					{
+						if (particle.getLocation()
+									.subtract(regionParticle.getLocation())
+									.absolute() <= this.radius)
+						{
+							region.add(particle);
+							break;
+						}
+					}
+				}
+			}
+		}
+		return region;
+	}
+
+}
@@ -0,0 +1,245 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.vector.Vector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Background pipeline stage for expensive far field forces, like the {@link Type#ALL_MATCHING} forces. Every {@link #request(long, ParticleSnapshot,
+ * Function)} takes a {@link ParticleSnapshot} tagged with a version, calculates the forces on a background thread and publishes them as
+ * {@link ForceBuffer}. A new request is only accepted if the previous calculation has finished.<br>
+ * <br>
+ * The fast tick loop uses {@link #getForce(Particle, long)}, which returns the force of the latest {@link ForceBuffer} linearly extrapolated
+ * from the previous {@link ForceBuffer} for the staleness of the latest one.
+ * 
+ * @author omnaest
+ */
+public class FarFieldPipeline
+{
+	private static final Logger LOG = LoggerFactory.getLogger(FarFieldPipeline.class);
+
+	private ExecutorService	executorService	= null;
+	private AtomicBoolean	running			= new AtomicBoolean(false);
+
+	private volatile ForceBuffers forceBuffers = new ForceBuffers(null, null);
+
+	/**
+	 * Forces calculated for a versioned {@link ParticleSnapshot}
+	 * 
+	 * @author omnaest
+	 */
+	public static class ForceBuffer
+	{
+		private long				version;
+		private ParticleSnapshot	particleSnapshot;
+		private double[]			forces;
+
+		public ForceBuffer(long version, ParticleSnapshot particleSnapshot, double[] forces)
+		{
+			super();
+			this.version = version;
+			this.particleSnapshot = particleSnapshot;
+			this.forces = forces;
+		}
+
+		public long getVersion()
+		{
+			return this.version;
+		}
+
+		public ParticleSnapshot getParticleSnapshot()
+		{
+			return this.particleSnapshot;
+		}
+
+		private double getForce(int index, int dimension)
+		{
+			return this.forces[index * this.particleSnapshot.getDimensions() + dimension];
+		}
+	}
+
+	private static class ForceBuffers
+	{
+		private ForceBuffer	latest;
+		private ForceBuffer	previous;
+
+		public ForceBuffers(ForceBuffer latest, ForceBuffer previous)
+		{
+			super();
+			this.latest = latest;
+			this.previous = previous;
+		}
+	}
+
+	/**
+	 * Starts the calculation of the forces for the given {@link ParticleSnapshot} on the background thread, if no other calculation is running
+	 * 
+	 * @param version
+	 *            increasing version, e.g. the current tick number
+	 * @param particleSnapshot
+	 * @param forceCalculation
+	 *            calculates the forces with the layout of the {@link ParticleSnapshot}
+	 * @return true if the request has been accepted
+	 */
+	public boolean request(long version, ParticleSnapshot particleSnapshot, Function<ParticleSnapshot, double[]> forceCalculation)
+	{
+		boolean accepted = this.running.compareAndSet(false, true);
+		if (accepted)
+		{
+			try
+			{
+				this.getExecutorService()
+					.submit(() ->
+					{
+						try
+						{
+							this.publish(new ForceBuffer(version, particleSnapshot, forceCalculation.apply(particleSnapshot)));
+						}
+						catch (Exception e)
+						{
+							LOG.error("Error during far field force calculation", e);
+						}
+						finally
+						{
+							this.running.set(false);
+						}
+					});
+			}
+			catch (RuntimeException e)
+			{
+				this.running.set(false);
+				throw e;
+			}
+		}
+		return accepted;
+	}
+
+	private synchronized ExecutorService getExecutorService()
+	{
+		if (this.executorService == null || this.executorService.isShutdown())
+		{
+			this.executorService = Executors.newSingleThreadExecutor(runnable ->
+			{
+				Thread thread = new Thread(runnable, "FarFieldPipeline");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return this.executorService;
+	}
+
+	private void publish(ForceBuffer forceBuffer)
+	{
+		this.forceBuffers = new ForceBuffers(forceBuffer, this.forceBuffers.latest);
+	}
+
+	/**
+	 * Returns the latest published {@link ForceBuffer} or null
+	 * 
+	 * @return
+	 */
+	public ForceBuffer getLatestForceBuffer()
+	{
+		return this.forceBuffers.latest;
+	}
+
+	public boolean isRunning()
+	{
+		return this.running.get();
+	}
+
+	/**
+	 * Returns the force for the given {@link Particle} extrapolated to the given version, or null if no force is available for the
+	 * {@link Particle}
+	 * 
+	 * @param particle
+	 * @param version
+	 * @return
+	 */
+	public Vector getForce(Particle particle, long version)
+	{
+		ForceBuffers forceBuffers = this.forceBuffers;
+		ForceBuffer latest = forceBuffers.latest;
+		if (latest == null)
+		{
+			return null;
+		}
+
+		int index = latest.particleSnapshot.indexOf(particle);
+		if (index < 0)
+		{
+			return null;
+		}
+
+		ForceBuffer previous = forceBuffers.previous;
+		int previousIndex = previous != null ? previous.particleSnapshot.indexOf(particle) : -1;
+		double factor = 0.0;
+		if (previousIndex >= 0 && latest.version > previous.version)
+		{
+			factor = Math.max(0.0, Math.min(1.0, (version - latest.version) / (double) (latest.version - previous.version)));
+		}
+
+		int dimensions = particle	.getLocation()
+									.getCoordinates().length;
+		double[] force = new double[dimensions];
+		for (int ii = 0; ii < dimensions && ii < latest.particleSnapshot.getDimensions(); ii++)
+		{
+			double latestForce = latest.getForce(index, ii);
+			double previousForce = factor > 0.0 && ii < previous.particleSnapshot.getDimensions() ? previous.getForce(previousIndex, ii) : latestForce;
+			force[ii] = latestForce + factor * (latestForce - previousForce);
+		}
+		return new Vector(force);
+	}
+
+	/**
+	 * Stops the background thread, a later {@link #request(long, ParticleSnapshot, Function)} starts a new one
+	 */
+	public void stop()
+	{
+		ExecutorService executorService;
+		synchronized (this)
+		{
+			executorService = this.executorService;
+			this.executorService = null;
+		}
+
+		if (executorService != null)
+		{
+			executorService.shutdown();
+			try
+			{
+				executorService.awaitTermination(2, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				//do nothing
+			}
+		}
+	}
+}
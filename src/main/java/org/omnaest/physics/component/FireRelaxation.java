@@ -0,0 +1,206 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * Fast inertial relaxation engine (FIRE) for energy minimization. The {@link Particle}s get velocities, which are mixed towards the force
+ * direction and accelerated while the power <code>F * v</code> is positive. As soon as the power turns negative, the velocities are reset and
+ * the time step is reduced.<br>
+ * <br>
+ * The velocities and the adaptive state are kept between the calls of {@link #step(List, double[], int, double)}, the velocities of
+ * {@link Particle}s which are added later start with zero.
+ * 
+ * @author omnaest
+ */
+public class FireRelaxation
+{
+	private static final int	MIN_POSITIVE_STEPS		= 5;
+	private static final double	TIME_STEP_INCREASE		= 1.1;
+	private static final double	TIME_STEP_DECREASE		= 0.5;
+	private static final double	START_MIXING			= 0.1;
+	private static final double	MIXING_DECREASE			= 0.99;
+	private static final double	START_TIME_STEP_FACTOR	= 0.1;
+
+	private double	maxDisplacement	= 1.0;
+	private double	timeStep		= -1.0;
+	private double	mixing			= START_MIXING;
+	private int		positiveSteps	= 0;
+
+	private Map<Particle, Integer>	particleToIndex	= new IdentityHashMap<>();
+	private double[]				velocities		= new double[0];
+	private int						dimensions		= 0;
+
+	/**
+	 * Sets the maximum distance a {@link Particle} is moved by a single step. Defaults to 1.0
+	 * 
+	 * @param maxDisplacement
+	 * @return this
+	 */
+	public FireRelaxation setMaxDisplacement(double maxDisplacement)
+	{
+		this.maxDisplacement = maxDisplacement;
+		return this;
+	}
+
+	public double getTimeStep()
+	{
+		return this.timeStep;
+	}
+
+	/**
+	 * Resets the velocities and the adaptive time step
+	 */
+	public void reset()
+	{
+		this.timeStep = -1.0;
+		this.mixing = START_MIXING;
+		this.positiveSteps = 0;
+		this.particleToIndex.clear();
+		this.velocities = new double[0];
+	}
+
+	/**
+	 * Moves the given {@link Particle}s by a single FIRE step
+	 * 
+	 * @param particles
+	 * @param forces
+	 *            forces for the current locations, with the layout <code>index * dimensions + dimension</code>
+	 * @param dimensions
+	 * @param maxTimeStep
+	 *            upper bound of the adaptive time step
+	 */
+	public void step(List<Particle> particles, double[] forces, int dimensions, double maxTimeStep)
+	{
+		double[] velocities = this.determineVelocities(particles, dimensions);
+		if (this.timeStep <= 0.0)
+		{
+			this.timeStep = maxTimeStep * START_TIME_STEP_FACTOR;
+		}
+
+		//power and mixing
+		double power = 0.0;
+		double velocitySquare = 0.0;
+		double forceSquare = 0.0;
+		for (int ii = 0; ii < forces.length; ii++)
+		{
+			power += forces[ii] * velocities[ii];
+			velocitySquare += velocities[ii] * velocities[ii];
+			forceSquare += forces[ii] * forces[ii];
+		}
+
+		//a zero power of resting particles, like on the first step, is neutral and keeps the time step
+		if (power > 0.0)
+		{
+			double ratio = forceSquare > 0.0 ? Math.sqrt(velocitySquare / forceSquare) : 0.0;
+			for (int ii = 0; ii < velocities.length; ii++)
+			{
+				velocities[ii] = (1.0 - this.mixing) * velocities[ii] + this.mixing * ratio * forces[ii];
+			}
+			if (++this.positiveSteps > MIN_POSITIVE_STEPS)
+			{
+				this.timeStep = Math.min(this.timeStep * TIME_STEP_INCREASE, maxTimeStep);
+				this.mixing *= MIXING_DECREASE;
+			}
+		}
+		else if (power < 0.0 || velocitySquare > 0.0)
+		{
+			Arrays.fill(velocities, 0.0);
+			this.timeStep *= TIME_STEP_DECREASE;
+			this.mixing = START_MIXING;
+			this.positiveSteps = 0;
+		}
+
+		//semi implicit euler step with a unit mass
+		double timeStep = this.timeStep;
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			Particle particle = particles.get(ii);
+			double[] distance = new double[particle	.getLocation()
+													.getCoordinates().length];
+			double distanceSquare = 0.0;
+			for (int jj = 0; jj < dimensions; jj++)
+			{
+				int index = ii * dimensions + jj;
+				velocities[index] += forces[index] * timeStep;
+				if (jj < distance.length)
+				{
+					distance[jj] = velocities[index] * timeStep;
+					distanceSquare += distance[jj] * distance[jj];
+				}
+			}
+
+			double absoluteDistance = Math.sqrt(distanceSquare);
+			if (absoluteDistance > this.maxDisplacement)
+			{
+				double scale = this.maxDisplacement / absoluteDistance;
+				for (int jj = 0; jj < dimensions; jj++)
+				{
+					velocities[ii * dimensions + jj] *= scale;
+					if (jj < distance.length)
+					{
+						distance[jj] *= scale;
+					}
+				}
+			}
+			if (absoluteDistance > 0.0)
+			{
+				particle.move(new Vector(distance));
+			}
+		}
+	}
+
+	private double[] determineVelocities(List<Particle> particles, int dimensions)
+	{
+		boolean sameParticles = this.dimensions == dimensions && this.particleToIndex.size() == particles.size();
+		for (int ii = 0; sameParticles && ii < particles.size(); ii++)
+		{
+			Integer index = this.particleToIndex.get(particles.get(ii));
+			sameParticles = index != null && index == ii;
+		}
+
+		if (!sameParticles)
+		{
+			double[] velocities = new double[particles.size() * dimensions];
+			Map<Particle, Integer> particleToIndex = new IdentityHashMap<>(particles.size());
+			for (int ii = 0; ii < particles.size(); ii++)
+			{
+				Particle particle = particles.get(ii);
+				Integer previousIndex = this.particleToIndex.get(particle);
+				if (previousIndex != null && this.dimensions == dimensions)
+				{
+					System.arraycopy(this.velocities, previousIndex * dimensions, velocities, ii * dimensions, dimensions);
+				}
+				particleToIndex.put(particle, ii);
+			}
+			this.velocities = velocities;
+			this.particleToIndex = particleToIndex;
+			this.dimensions = dimensions;
+		}
+		return this.velocities;
+	}
+
+}
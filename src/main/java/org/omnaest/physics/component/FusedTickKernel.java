@@ -0,0 +1,293 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.CenterForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.physics.domain.force.MinimalPointDistanceForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+
+/**
+ * Fused tick loop for a scene which consists only of {@link CompiledForceField#isCompilable(ForceProvider)} {@link ForceProvider}s. The kernel is
+ * generated as a single {@link MethodHandle} which chains the table loops of the {@link CompiledForceField} for exactly the {@link ForceProvider}
+ * classes of the scene and the integration step. A whole {@link #tick(List, Collection, double)} runs on primitive coordinate arrays and writes
+ * the {@link Particle} locations back once at the end.<br>
+ * <br>
+ * The sub steps follow the partitioned sub steps of the {@link PartitionedExecutor}: the forces of all {@link Particle}s are calculated from the
+ * same coordinates and every {@link Particle} is moved for the remaining time of the sub step within up to {@value #MAX_DEPTH} rounds. So unlike
+ * the sequential tick, which moves each {@link Particle} before the forces of the next one are calculated, the fused tick does not depend on
+ * the order of the {@link Particle}s.<br>
+ * <br>
+ * A kernel is bound to the set of {@link ForceProvider} classes it has been generated for, see {@link #isGeneratedFor(Collection)}. The
+ * generated {@link MethodHandle}s are shared by all kernels for the same table loops.
+ * 
+ * @author omnaest
+ */
+public class FusedTickKernel
+{
+	private static final MethodType							ACCUMULATOR_TYPE	= MethodType.methodType(void.class, double[].class, int.class,
+																												double[].class, double[].class);
+	private static final int								MAX_DEPTH			= 4;
+	private static final Map<List<String>, MethodHandle>	KERNELS				= new ConcurrentHashMap<>();
+
+	private Set<Class<?>>	forceProviderClasses;
+	private List<String>	accumulators;
+
+	/**
+	 * @param forceProviders
+	 *            {@link ForceProvider}s which determine the classes the kernel is generated for
+	 * @throws IllegalArgumentException
+	 *             if any {@link ForceProvider} is not {@link #isFusable(Collection)}
+	 */
+	public FusedTickKernel(Collection<? extends ForceProvider> forceProviders)
+	{
+		super();
+		if (!isFusable(forceProviders))
+		{
+			throw new IllegalArgumentException("Only compilable force providers can be fused");
+		}
+		this.forceProviderClasses = determineForceProviderClasses(forceProviders);
+		this.accumulators = determineAccumulators(this.forceProviderClasses);
+		KERNELS.computeIfAbsent(this.accumulators, FusedTickKernel::generate);
+	}
+
+	/**
+	 * Returns true if all given {@link ForceProvider}s are {@link CompiledForceField#isCompilable(ForceProvider)}
+	 * 
+	 * @param forceProviders
+	 * @return
+	 */
+	public static boolean isFusable(Collection<? extends ForceProvider> forceProviders)
+	{
+		return forceProviders	.stream()
+								.allMatch(CompiledForceField::isCompilable);
+	}
+
+	/**
+	 * Returns true if the kernel has been generated for exactly the classes of the given {@link ForceProvider}s
+	 * 
+	 * @param forceProviders
+	 * @return
+	 */
+	public boolean isGeneratedFor(Collection<? extends ForceProvider> forceProviders)
+	{
+		return this.forceProviderClasses.equals(determineForceProviderClasses(forceProviders));
+	}
+
+	public Set<Class<?>> getForceProviderClasses()
+	{
+		return Collections.unmodifiableSet(this.forceProviderClasses);
+	}
+
+	/**
+	 * Moves the given {@link Particle}s for a whole tick, which consists of a sub step of half the given delta t and ten sub steps of a twentieth
+	 * 
+	 * @param particles
+	 * @param forceProviders
+	 *            {@link ForceProvider}s of the classes the kernel has been generated for
+	 * @param deltaT
+	 */
+	public void tick(List<Particle> particles, Collection<? extends ForceProvider> forceProviders, double deltaT)
+	{
+		CompiledForceField compiledForceField = new CompiledForceField(null, new ArrayList<>(forceProviders));
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+		compiledForceField.compile(particleSnapshot);
+
+		int dimensions = particleSnapshot.getDimensions();
+		double[] initialCoordinates = new double[particles.size() * dimensions];
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			for (int jj = 0; jj < dimensions; jj++)
+			{
+				initialCoordinates[ii * dimensions + jj] = particleSnapshot.getCoordinate(ii, jj);
+			}
+		}
+		double[] coordinates = initialCoordinates.clone();
+		double[] delta = new double[dimensions];
+		double[] forces = new double[coordinates.length];
+		double[] passedTimes = new double[particles.size()];
+
+		MethodHandle kernel = KERNELS.get(this.accumulators);
+		double deltaT1 = deltaT / 2;
+		double deltaT10 = deltaT1 / 10;
+		this.applySubStep(kernel, compiledForceField, coordinates, dimensions, delta, forces, passedTimes, deltaT1);
+		for (int ii = 0; ii < 10; ii++)
+		{
+			this.applySubStep(kernel, compiledForceField, coordinates, dimensions, delta, forces, passedTimes, deltaT10);
+		}
+
+		for (int ii = 0; ii < coordinates.length; ii++)
+		{
+			coordinates[ii] -= initialCoordinates[ii];
+		}
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			particles	.get(ii)
+						.move(particleSnapshot.toVector(coordinates, ii));
+		}
+	}
+
+	private void applySubStep(MethodHandle kernel, CompiledForceField compiledForceField, double[] coordinates, int dimensions, double[] delta,
+								double[] forces, double[] passedTimes, double deltaT)
+	{
+		Arrays.fill(passedTimes, 0.0);
+		boolean timeLeft = true;
+		for (int depth = 0; depth < MAX_DEPTH && timeLeft; depth++)
+		{
+			timeLeft = this.invoke(kernel, compiledForceField, coordinates, dimensions, delta, forces, passedTimes, deltaT);
+		}
+	}
+
+	private boolean invoke(MethodHandle kernel, CompiledForceField compiledForceField, double[] coordinates, int dimensions, double[] delta,
+							double[] forces, double[] passedTimes, double deltaT)
+	{
+		try
+		{
+			return (boolean) kernel.invokeExact(compiledForceField, coordinates, dimensions, delta, forces, passedTimes, deltaT);
+		}
+		catch (RuntimeException | Error e)
+		{
+			throw e;
+		}
+		catch (Throwable e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static List<String> determineAccumulators(Set<Class<?>> forceProviderClasses)
+	{
+		List<String> accumulators = new ArrayList<>();
+		if (forceProviderClasses.contains(DistanceForceProvider.class))
+		{
+			accumulators.add("accumulateSprings");
+		}
+		if (forceProviderClasses.contains(MinimalDistanceForceProvider.class))
+		{
+			accumulators.add("accumulateMinimalDistances");
+		}
+		if (forceProviderClasses.contains(MinimalPointDistanceForceProvider.class))
+		{
+			accumulators.add("accumulateRepulsors");
+		}
+		if (forceProviderClasses.contains(PointForceProvider.class) || forceProviderClasses.contains(CenterForceProvider.class))
+		{
+			accumulators.add("accumulateAttractors");
+		}
+		return accumulators;
+	}
+
+	/**
+	 * Generates a single {@link MethodHandle} of the type <code>(CompiledForceField, double[] coordinates, int dimensions, double[] delta,
+	 * double[] forces, double[] passedTimes, double deltaT) boolean</code> which runs the given table loops and afterwards the integration step
+	 */
+	private static MethodHandle generate(List<String> accumulators)
+	{
+		try
+		{
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			MethodHandle kernel = MethodHandles.dropArguments(lookup.findStatic(FusedTickKernel.class, "integrate",
+																				MethodType.methodType(boolean.class, double[].class, int.class,
+																										double[].class, double[].class, double[].class,
+																										double.class)),
+																0, CompiledForceField.class);
+			for (int ii = accumulators.size() - 1; ii >= 0; ii--)
+			{
+				MethodHandle accumulator = lookup.findVirtual(CompiledForceField.class, accumulators.get(ii), ACCUMULATOR_TYPE);
+				kernel = MethodHandles.foldArguments(kernel, MethodHandles.dropArguments(accumulator, 5, double[].class, double.class));
+			}
+			return kernel;
+		}
+		catch (NoSuchMethodException | IllegalAccessException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Moves the coordinates of all {@link Particle}s with remaining time by the accumulated forces and resets the forces. Like the regular sub
+	 * step the time scale starts with the remaining time and is halved until a single move is not farther than <code>max(1, deltaT)</code>.
+	 * Returns true if any {@link Particle} has time left.
+	 */
+	private static boolean integrate(double[] coordinates, int dimensions, double[] delta, double[] forces, double[] passedTimes, double deltaT)
+	{
+		boolean retval = false;
+		double maxDistance = Math.max(1.0, deltaT);
+		for (int ii = 0; ii < passedTimes.length; ii++)
+		{
+			int offset = ii * dimensions;
+			if (passedTimes[ii] < deltaT * 0.9999)
+			{
+				double forceSquare = 0.0;
+				for (int jj = 0; jj < dimensions; jj++)
+				{
+					forceSquare += forces[offset + jj] * forces[offset + jj];
+				}
+				double absoluteForce = Math.sqrt(forceSquare);
+
+				double timeScale = deltaT - passedTimes[ii];
+				while (absoluteForce * timeScale * timeScale > maxDistance)
+				{
+					timeScale /= 2.0;
+				}
+				for (int jj = 0; jj < dimensions; jj++)
+				{
+					coordinates[offset + jj] += forces[offset + jj] * timeScale * timeScale;
+				}
+				passedTimes[ii] += timeScale;
+				retval |= passedTimes[ii] < deltaT * 0.9999;
+			}
+			Arrays.fill(forces, offset, offset + dimensions, 0.0);
+		}
+		return retval;
+	}
+
+	private static Set<Class<?>> determineForceProviderClasses(Collection<? extends ForceProvider> forceProviders)
+	{
+		Set<Class<?>> forceProviderClasses = new HashSet<>();
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			forceProviderClasses.add(forceProvider.getClass());
+		}
+		return forceProviderClasses;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "FusedTickKernel [forceProviderClasses=" + this.forceProviderClasses + "]";
+	}
+
+}
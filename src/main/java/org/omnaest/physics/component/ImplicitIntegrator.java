@@ -0,0 +1,403 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * Implicit (backward Euler) integrator for stiff spring networks. The simulation moves a {@link Particle} by <code>force * h</code>, so the
+ * implicit step solves
+ * 
+ * <pre>
+ * (I - h * J) * dx = h * F(x)
+ * </pre>
+ * 
+ * where J is the sparse Jacobian of the forces of the {@link DistanceForceProvider}s, {@link MinimalDistanceForceProvider}s and
+ * {@link AntiCollisionForceProvider}s. The system is solved by a matrix free conjugate gradient method, warm started with the solution of the
+ * previous step.<br>
+ * <br>
+ * The Jacobian is kept symmetric and positive semi definite: compressed springs only contribute their stiffness along the spring direction, and
+ * the collision forces, as well as springs which act only on one of their {@link Particle}s, only contribute to the diagonal block of the moved
+ * {@link Particle}. All other forces are integrated explicitly via the given force of the step.
+ * 
+ * @author omnaest
+ */
+public class ImplicitIntegrator
+{
+	private int		maxIterations	= 20;
+	private double	tolerance		= 0.000001;
+
+	private Particle[]	previousParticles	= new Particle[0];
+	private double[]	previousSolution	= new double[0];
+	private int			lastIterations		= 0;
+
+	/**
+	 * Stiffness blocks of all springs, held as primitive arrays. A block with a second index of -1 only couples the first {@link Particle} to
+	 * itself.
+	 * 
+	 * @author omnaest
+	 */
+	private static class StiffnessBlocks
+	{
+		private int			dimensions;
+		private int			size		= 0;
+		private int[]		indexes1	= new int[16];
+		private int[]		indexes2	= new int[16];
+		private double[]	blocks;
+
+		private StiffnessBlocks(int dimensions)
+		{
+			super();
+			this.dimensions = dimensions;
+			this.blocks = new double[16 * dimensions * dimensions];
+		}
+
+		/**
+		 * Adds the block <code>axialStiffness * n * n^T + lateralStiffness * (I - n * n^T)</code>
+		 */
+		private void add(int index1, int index2, double[] direction, double axialStiffness, double lateralStiffness)
+		{
+			int blockSize = this.dimensions * this.dimensions;
+			if (this.size == this.indexes1.length)
+			{
+				this.indexes1 = Arrays.copyOf(this.indexes1, this.size * 2);
+				this.indexes2 = Arrays.copyOf(this.indexes2, this.size * 2);
+				this.blocks = Arrays.copyOf(this.blocks, this.size * 2 * blockSize);
+			}
+			this.indexes1[this.size] = index1;
+			this.indexes2[this.size] = index2;
+			int offset = this.size * blockSize;
+			for (int ii = 0; ii < this.dimensions; ii++)
+			{
+				for (int jj = 0; jj < this.dimensions; jj++)
+				{
+					double projection = direction[ii] * direction[jj];
+					this.blocks[offset + ii * this.dimensions + jj] = axialStiffness * projection
+							+ lateralStiffness * ((ii == jj ? 1.0 : 0.0) - projection);
+				}
+			}
+			this.size++;
+		}
+
+		/**
+		 * result = (I + h * K) * vector, whereby K = -J
+		 */
+		private void multiply(double[] vector, double h, double[] result)
+		{
+			System.arraycopy(vector, 0, result, 0, vector.length);
+			int blockSize = this.dimensions * this.dimensions;
+			for (int block = 0; block < this.size; block++)
+			{
+				int offset1 = this.indexes1[block] * this.dimensions;
+				int offset2 = this.indexes2[block] >= 0 ? this.indexes2[block] * this.dimensions : -1;
+				int blockOffset = block * blockSize;
+				for (int ii = 0; ii < this.dimensions; ii++)
+				{
+					double value = 0.0;
+					for (int jj = 0; jj < this.dimensions; jj++)
+					{
+						double delta = offset2 >= 0 ? vector[offset1 + jj] - vector[offset2 + jj] : vector[offset1 + jj];
+						value += this.blocks[blockOffset + ii * this.dimensions + jj] * delta;
+					}
+					result[offset1 + ii] += h * value;
+					if (offset2 >= 0)
+					{
+						result[offset2 + ii] -= h * value;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns true for all {@link ForceProvider}s whose Jacobian is part of the implicit step
+	 * 
+	 * @param forceProvider
+	 * @return
+	 */
+	public static boolean isStiff(ForceProvider forceProvider)
+	{
+		return forceProvider instanceof DistanceForceProvider || forceProvider instanceof MinimalDistanceForceProvider
+				|| forceProvider instanceof AntiCollisionForceProvider;
+	}
+
+	/**
+	 * Sets the maximum number of conjugate gradient iterations per step. Defaults to 20
+	 * 
+	 * @param maxIterations
+	 * @return this
+	 */
+	public ImplicitIntegrator setMaxIterations(int maxIterations)
+	{
+		this.maxIterations = maxIterations;
+		return this;
+	}
+
+	/**
+	 * Sets the tolerance of the residual relative to the right hand side. Defaults to 0.000001
+	 * 
+	 * @param tolerance
+	 * @return this
+	 */
+	public ImplicitIntegrator setTolerance(double tolerance)
+	{
+		this.tolerance = tolerance;
+		return this;
+	}
+
+	/**
+	 * Returns the number of conjugate gradient iterations of the last step
+	 * 
+	 * @return
+	 */
+	public int getLastIterations()
+	{
+		return this.lastIterations;
+	}
+
+	/**
+	 * Moves the given {@link Particle}s by a single implicit step
+	 * 
+	 * @param particles
+	 * @param forceProviders
+	 *            {@link ForceProvider}s whose Jacobian is considered, all non {@link #isStiff(ForceProvider)} ones are ignored
+	 * @param forces
+	 *            forces of all {@link ForceProvider}s for the current locations, with the layout <code>index * dimensions + dimension</code>
+	 * @param dimensions
+	 * @param h
+	 *            factor between force and movement
+	 */
+	public void integrate(List<Particle> particles, Collection<ForceProvider> forceProviders, double[] forces, int dimensions, double h)
+	{
+		double[] locations = new double[particles.size() * dimensions];
+		Map<Particle, Integer> particleToIndex = new IdentityHashMap<>(particles.size());
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			double[] coordinates = particles.get(ii)
+											.getLocation()
+											.getCoordinates();
+			System.arraycopy(coordinates, 0, locations, ii * dimensions, Math.min(dimensions, coordinates.length));
+			particleToIndex.put(particles.get(ii), ii);
+		}
+
+		StiffnessBlocks stiffnessBlocks = this.assembleStiffnessBlocks(particles, forceProviders, particleToIndex, locations, dimensions);
+
+		double[] rightHandSide = new double[forces.length];
+		for (int ii = 0; ii < forces.length; ii++)
+		{
+			rightHandSide[ii] = h * forces[ii];
+		}
+
+		double[] solution = this.determineStartSolution(particles, rightHandSide.length);
+		this.solveConjugateGradient(stiffnessBlocks, h, rightHandSide, solution);
+
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			Particle particle = particles.get(ii);
+			double[] distance = new double[particle	.getLocation()
+													.getCoordinates().length];
+			for (int jj = 0; jj < distance.length && jj < dimensions; jj++)
+			{
+				distance[jj] = solution[ii * dimensions + jj];
+			}
+			particle.move(new Vector(distance));
+		}
+
+		this.previousParticles = particles.toArray(new Particle[particles.size()]);
+		this.previousSolution = solution;
+	}
+
+	private double[] determineStartSolution(List<Particle> particles, int length)
+	{
+		boolean sameParticles = this.previousParticles.length == particles.size() && this.previousSolution.length == length;
+		for (int ii = 0; sameParticles && ii < this.previousParticles.length; ii++)
+		{
+			sameParticles = this.previousParticles[ii] == particles.get(ii);
+		}
+		return sameParticles ? this.previousSolution.clone() : new double[length];
+	}
+
+	private void solveConjugateGradient(StiffnessBlocks stiffnessBlocks, double h, double[] rightHandSide, double[] solution)
+	{
+		int length = rightHandSide.length;
+		double[] residual = new double[length];
+		double[] direction = new double[length];
+		double[] product = new double[length];
+
+		stiffnessBlocks.multiply(solution, h, product);
+		for (int ii = 0; ii < length; ii++)
+		{
+			residual[ii] = rightHandSide[ii] - product[ii];
+			direction[ii] = residual[ii];
+		}
+
+		double residualSquare = dot(residual, residual);
+		double threshold = this.tolerance * this.tolerance * Math.max(dot(rightHandSide, rightHandSide), Double.MIN_NORMAL);
+
+		int iteration = 0;
+		while (iteration < this.maxIterations && residualSquare > threshold)
+		{
+			stiffnessBlocks.multiply(direction, h, product);
+			double curvature = dot(direction, product);
+			if (curvature <= 0.0)
+			{
+				break;
+			}
+
+			double alpha = residualSquare / curvature;
+			for (int ii = 0; ii < length; ii++)
+			{
+				solution[ii] += alpha * direction[ii];
+				residual[ii] -= alpha * product[ii];
+			}
+
+			double nextResidualSquare = dot(residual, residual);
+			double beta = nextResidualSquare / residualSquare;
+			for (int ii = 0; ii < length; ii++)
+			{
+				direction[ii] = residual[ii] + beta * direction[ii];
+			}
+			residualSquare = nextResidualSquare;
+			iteration++;
+		}
+		this.lastIterations = iteration;
+	}
+
+	private StiffnessBlocks assembleStiffnessBlocks(List<Particle> particles, Collection<ForceProvider> forceProviders,
+													Map<Particle, Integer> particleToIndex, double[] locations, int dimensions)
+	{
+		StiffnessBlocks stiffnessBlocks = new StiffnessBlocks(dimensions);
+		double[] direction = new double[dimensions];
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			if (forceProvider instanceof DistanceForceProvider)
+			{
+				DistanceForceProvider distanceForceProvider = (DistanceForceProvider) forceProvider;
+				this.addSpringBlock(stiffnessBlocks, forceProvider, distanceForceProvider.getParticle1(), distanceForceProvider.getParticle2(),
+									distanceForceProvider.getDistance(), distanceForceProvider.getStrength(), false, particleToIndex, locations,
+									direction);
+			}
+			else if (forceProvider instanceof MinimalDistanceForceProvider)
+			{
+				MinimalDistanceForceProvider minimalDistanceForceProvider = (MinimalDistanceForceProvider) forceProvider;
+				this.addSpringBlock(stiffnessBlocks, forceProvider, minimalDistanceForceProvider.getParticle1(),
+									minimalDistanceForceProvider.getParticle2(), minimalDistanceForceProvider.getDistance(),
+									minimalDistanceForceProvider.getStrength(), true, particleToIndex, locations, direction);
+			}
+			else if (forceProvider instanceof AntiCollisionForceProvider)
+			{
+				AntiCollisionForceProvider antiCollisionForceProvider = (AntiCollisionForceProvider) forceProvider;
+				Integer sourceIndex = particleToIndex.get(antiCollisionForceProvider.getParticle());
+				if (sourceIndex == null)
+				{
+					continue;
+				}
+
+				double collisionDistance = antiCollisionForceProvider.getCollisionDistance();
+				for (int ii = 0; ii < particles.size(); ii++)
+				{
+					double length = direction(locations, ii, sourceIndex, dimensions, direction);
+					if (length > 0.0 && length <= collisionDistance && forceProvider.match(particles.get(ii)))
+					{
+						double axialStiffness = 2.0 * antiCollisionForceProvider.getStrength() * (collisionDistance - length);
+						stiffnessBlocks.add(ii, -1, direction, axialStiffness, 0.0);
+					}
+				}
+			}
+		}
+		return stiffnessBlocks;
+	}
+
+	private void addSpringBlock(StiffnessBlocks stiffnessBlocks, ForceProvider forceProvider, Particle particle1, Particle particle2,
+								double distance, double strength, boolean onlyCompressed, Map<Particle, Integer> particleToIndex, double[] locations,
+								double[] direction)
+	{
+		Integer index1 = particleToIndex.get(particle1);
+		Integer index2 = particleToIndex.get(particle2);
+		if (index1 == null || index2 == null || index1.intValue() == index2.intValue())
+		{
+			return;
+		}
+
+		int dimensions = direction.length;
+		double length = direction(locations, index2, index1, dimensions, direction);
+		if (length <= 0.0 || onlyCompressed && length > distance)
+		{
+			return;
+		}
+
+		double axialStiffness = strength;
+		double lateralStiffness = strength * Math.max(0.0, 1.0 - distance / length);
+		boolean match1 = forceProvider.match(particle1);
+		boolean match2 = forceProvider.match(particle2);
+		if (match1 && match2)
+		{
+			stiffnessBlocks.add(index1, index2, direction, axialStiffness, lateralStiffness);
+		}
+		else if (match1)
+		{
+			stiffnessBlocks.add(index1, -1, direction, axialStiffness, lateralStiffness);
+		}
+		else if (match2)
+		{
+			stiffnessBlocks.add(index2, -1, direction, axialStiffness, lateralStiffness);
+		}
+	}
+
+	/**
+	 * Writes the normalized direction from the second to the first index into the given array and returns the distance
+	 */
+	private static double direction(double[] locations, int index1, int index2, int dimensions, double[] direction)
+	{
+		double lengthSquare = 0.0;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			direction[ii] = locations[index1 * dimensions + ii] - locations[index2 * dimensions + ii];
+			lengthSquare += direction[ii] * direction[ii];
+		}
+		double length = Math.sqrt(lengthSquare);
+		for (int ii = 0; length > 0.0 && ii < dimensions; ii++)
+		{
+			direction[ii] /= length;
+		}
+		return length;
+	}
+
+	private static double dot(double[] vector1, double[] vector2)
+	{
+		double retval = 0.0;
+		for (int ii = 0; ii < vector1.length; ii++)
+		{
+			retval += vector1[ii] * vector2[ii];
+		}
+		return retval;
+	}
+
+}
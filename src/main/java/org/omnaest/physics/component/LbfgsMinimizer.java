@@ -0,0 +1,238 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+/**
+ * Limited memory BFGS minimizer with a backtracking line search. The line search uses the Armijo condition on the energy, if the
+ * {@link Objective} provides an energy, and otherwise the curvature condition on the gradient only. If the line search fails, the position is
+ * kept and the minimization restarts with the steepest descent, or stops if the steepest descent fails as well.
+ * 
+ * @author omnaest
+ */
+public class LbfgsMinimizer
+{
+	private static final double	ARMIJO_FACTOR		= 0.0001;
+	private static final double	CURVATURE_FACTOR	= 0.9;
+	private static final int	MAX_BACKTRACKING	= 20;
+
+	private int		memory			= 7;
+	private double	maxDisplacement	= 1.0;
+
+	/**
+	 * Function to minimize
+	 * 
+	 * @author omnaest
+	 */
+	public static interface Objective
+	{
+		/**
+		 * Writes the gradient at the given position into the gradient array and returns the energy, or {@link Double#NaN} if the energy is
+		 * unknown
+		 * 
+		 * @param position
+		 * @param gradient
+		 * @return
+		 */
+		public double evaluate(double[] position, double[] gradient);
+	}
+
+	/**
+	 * Sets the number of correction pairs which are kept. Defaults to 7
+	 * 
+	 * @param memory
+	 * @return this
+	 */
+	public LbfgsMinimizer setMemory(int memory)
+	{
+		this.memory = Math.max(1, memory);
+		return this;
+	}
+
+	/**
+	 * Sets the maximum absolute change of a single coordinate of the first step, which has no curvature information yet. Defaults to 1.0
+	 * 
+	 * @param maxDisplacement
+	 * @return this
+	 */
+	public LbfgsMinimizer setMaxDisplacement(double maxDisplacement)
+	{
+		this.maxDisplacement = maxDisplacement;
+		return this;
+	}
+
+	/**
+	 * Minimizes the {@link Objective} starting at the given position, which is updated in place
+	 * 
+	 * @param objective
+	 * @param position
+	 * @param maxIterations
+	 * @param tolerance
+	 *            the minimization stops as soon as the largest absolute gradient coordinate is below the tolerance
+	 * @return the number of iterations
+	 */
+	public int minimize(Objective objective, double[] position, int maxIterations, double tolerance)
+	{
+		int length = position.length;
+		double[][] positionDeltas = new double[this.memory][];
+		double[][] gradientDeltas = new double[this.memory][];
+		double[] rhos = new double[this.memory];
+		double[] alphas = new double[this.memory];
+		int numberOfPairs = 0;
+		int nextPair = 0;
+
+		double[] gradient = new double[length];
+		double energy = objective.evaluate(position, gradient);
+
+		double[] direction = new double[length];
+		double[] nextPosition = new double[length];
+		double[] nextGradient = new double[length];
+
+		int iteration = 0;
+		while (iteration < maxIterations && maxAbsolute(gradient) > tolerance)
+		{
+			//two loop recursion for the direction = -H * gradient
+			for (int ii = 0; ii < length; ii++)
+			{
+				direction[ii] = -gradient[ii];
+			}
+			for (int ii = 0; ii < numberOfPairs; ii++)
+			{
+				int pair = Math.floorMod(nextPair - 1 - ii, this.memory);
+				alphas[pair] = rhos[pair] * dot(positionDeltas[pair], direction);
+				addScaled(direction, gradientDeltas[pair], -alphas[pair]);
+			}
+			if (numberOfPairs > 0)
+			{
+				int latest = Math.floorMod(nextPair - 1, this.memory);
+				double scale = dot(positionDeltas[latest], gradientDeltas[latest]) / dot(gradientDeltas[latest], gradientDeltas[latest]);
+				for (int ii = 0; ii < length; ii++)
+				{
+					direction[ii] *= scale;
+				}
+			}
+			else
+			{
+				double maxDirection = maxAbsolute(direction);
+				for (int ii = 0; ii < length; ii++)
+				{
+					direction[ii] *= this.maxDisplacement / maxDirection;
+				}
+			}
+			for (int ii = numberOfPairs - 1; ii >= 0; ii--)
+			{
+				int pair = Math.floorMod(nextPair - 1 - ii, this.memory);
+				double beta = rhos[pair] * dot(gradientDeltas[pair], direction);
+				addScaled(direction, positionDeltas[pair], alphas[pair] - beta);
+			}
+
+			double slope = dot(gradient, direction);
+			if (slope >= 0.0)
+			{
+				//not a descent direction, restart with the steepest descent
+				numberOfPairs = 0;
+				iteration++;
+				continue;
+			}
+
+			//backtracking line search
+			double step = 1.0;
+			double nextEnergy = Double.NaN;
+			boolean accepted = false;
+			for (int ii = 0; ii < MAX_BACKTRACKING && !accepted; ii++)
+			{
+				for (int jj = 0; jj < length; jj++)
+				{
+					nextPosition[jj] = position[jj] + step * direction[jj];
+				}
+				nextEnergy = objective.evaluate(nextPosition, nextGradient);
+
+				accepted = !Double.isNaN(energy) && !Double.isNaN(nextEnergy) ? nextEnergy <= energy + ARMIJO_FACTOR * step * slope
+						: Math.abs(dot(nextGradient, direction)) <= CURVATURE_FACTOR * Math.abs(slope) || dot(nextGradient, direction) < 0.0;
+				if (!accepted)
+				{
+					step /= 2.0;
+				}
+			}
+			if (!accepted)
+			{
+				//the current position is kept, the correction pairs are dropped and the steepest descent is tried once more
+				iteration++;
+				if (numberOfPairs == 0)
+				{
+					break;
+				}
+				numberOfPairs = 0;
+				continue;
+			}
+
+			//correction pair
+			double[] positionDelta = new double[length];
+			double[] gradientDelta = new double[length];
+			for (int ii = 0; ii < length; ii++)
+			{
+				positionDelta[ii] = nextPosition[ii] - position[ii];
+				gradientDelta[ii] = nextGradient[ii] - gradient[ii];
+			}
+			double curvature = dot(positionDelta, gradientDelta);
+			if (curvature > 0.0)
+			{
+				positionDeltas[nextPair] = positionDelta;
+				gradientDeltas[nextPair] = gradientDelta;
+				rhos[nextPair] = 1.0 / curvature;
+				nextPair = (nextPair + 1) % this.memory;
+				numberOfPairs = Math.min(numberOfPairs + 1, this.memory);
+			}
+
+			System.arraycopy(nextPosition, 0, position, 0, length);
+			System.arraycopy(nextGradient, 0, gradient, 0, length);
+			energy = nextEnergy;
+			iteration++;
+		}
+		return iteration;
+	}
+
+	private static void addScaled(double[] target, double[] vector, double factor)
+	{
+		for (int ii = 0; ii < target.length; ii++)
+		{
+			target[ii] += factor * vector[ii];
+		}
+	}
+
+	private static double dot(double[] vector1, double[] vector2)
+	{
+		double retval = 0.0;
+		for (int ii = 0; ii < vector1.length; ii++)
+		{
+			retval += vector1[ii] * vector2[ii];
+		}
+		return retval;
+	}
+
+	private static double maxAbsolute(double[] vector)
+	{
+		double retval = 0.0;
+		for (double value : vector)
+		{
+			retval = Math.max(retval, Math.abs(value));
+		}
+		return retval;
+	}
+
+}
@@ -0,0 +1,133 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+
+/**
+ * Multi time step scheduler in the style of RESPA. The expensive {@link Type#ALL_MATCHING} forces are only evaluated every k-th step and are
+ * applied as impulse with the weight of the number of steps since their last evaluation, while the {@link Type#SPECIFIC} forces are evaluated
+ * on every step. So the weights of the slow forces always sum up to the number of steps, even if k changes in the middle of a cycle.<br>
+ * <br>
+ * The interval k is either fixed via {@link #setInterval(int)} or auto tuned, so that the time spent for the slow forces stays around the
+ * {@link #setSlowCostFraction(double)} of the overall time.
+ * 
+ * @author omnaest
+ */
+public class MultiRateScheduler
+{
+	private int		fixedInterval		= 0;
+	private int		maxInterval			= 16;
+	private double	slowCostFraction	= 0.25;
+
+	private AtomicInteger	stepsSinceSlowStep	= new AtomicInteger();
+	private volatile int	interval			= 2;
+	private volatile double	fastCost			= 0.0;
+	private volatile double	slowCost			= 0.0;
+
+	/**
+	 * Sets a fixed interval k, 0 enables auto tuning which is the default
+	 * 
+	 * @param interval
+	 * @return this
+	 */
+	public MultiRateScheduler setInterval(int interval)
+	{
+		this.fixedInterval = interval;
+		if (interval > 0)
+		{
+			this.interval = interval;
+		}
+		return this;
+	}
+
+	/**
+	 * Upper bound of the auto tuned interval, defaults to 16
+	 * 
+	 * @param maxInterval
+	 * @return this
+	 */
+	public MultiRateScheduler setMaxInterval(int maxInterval)
+	{
+		this.maxInterval = maxInterval;
+		return this;
+	}
+
+	/**
+	 * Fraction of the overall time which the auto tuning allows for the slow forces, defaults to 0.25
+	 * 
+	 * @param slowCostFraction
+	 * @return this
+	 */
+	public MultiRateScheduler setSlowCostFraction(double slowCostFraction)
+	{
+		this.slowCostFraction = slowCostFraction;
+		return this;
+	}
+
+	public int getInterval()
+	{
+		return this.interval;
+	}
+
+	/**
+	 * Advances to the next step and returns the weight of the slow forces for it. As soon as the number of steps since the last slow step,
+	 * including this one, reaches the current interval, this number is returned as weight, for all other steps 0.
+	 * 
+	 * @return
+	 */
+	public int nextStep()
+	{
+		int steps = this.stepsSinceSlowStep.incrementAndGet();
+		if (steps >= this.interval)
+		{
+			this.stepsSinceSlowStep.addAndGet(-steps);
+			return steps;
+		}
+		return 0;
+	}
+
+	/**
+	 * Records the duration of a step and tunes the interval if no fixed interval is set
+	 * 
+	 * @param slowStep
+	 *            true if the slow forces have been evaluated within the step
+	 * @param durationInNanoseconds
+	 */
+	public void recordStep(boolean slowStep, long durationInNanoseconds)
+	{
+		if (slowStep)
+		{
+			double cost = Math.max(0.0, durationInNanoseconds - this.fastCost);
+			this.slowCost = this.slowCost <= 0.0 ? cost : 0.8 * this.slowCost + 0.2 * cost;
+		}
+		else
+		{
+			this.fastCost = this.fastCost <= 0.0 ? durationInNanoseconds : 0.8 * this.fastCost + 0.2 * durationInNanoseconds;
+		}
+
+		if (this.fixedInterval <= 0 && this.fastCost > 0.0)
+		{
+			double interval = this.slowCost * (1.0 - this.slowCostFraction) / (this.slowCostFraction * this.fastCost);
+			this.interval = (int) Math.max(1, Math.min(this.maxInterval, Math.ceil(interval)));
+		}
+	}
+}
@@ -0,0 +1,274 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.ForceField;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.physics.domain.force.PairForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * {@link ForceField} which evaluates two body interactions once per pair and scatters the force with opposite signs into both
+ * {@link Particle}s.<br>
+ * <br>
+ * This applies to {@link PairForceProvider}s and to all pairs of {@link AntiCollisionForceProvider}s of two {@link Particle}s which mirror each
+ * other, which means both providers have the same strength and collision distance and match the {@link Particle} of the other one.
+ * 
+ * @see #isEligible(ForceProvider)
+ * @author omnaest
+ */
+public class PairwiseForceField implements ForceField
+{
+	private Type								type;
+	private List<PairForceProvider>				pairForceProviders;
+	private List<AntiCollisionForceProvider>	antiCollisionForceProviders;
+	private VerletNeighborList					neighborList;
+
+	private ParticleView	indexedParticleView	= null;
+	private int[]			pairIndexes;
+	private int[]			antiCollisionIndexes;
+	private boolean[]		antiCollisionCovered;
+
+	/**
+	 * @param type
+	 * @param forceProviders
+	 *            only {@link #isEligible(ForceProvider)} {@link ForceProvider}s are used
+	 * @param neighborList
+	 *            optional {@link VerletNeighborList} which restricts the checked {@link AntiCollisionForceProvider} pairs, can be null
+	 */
+	public PairwiseForceField(Type type, List<? extends ForceProvider> forceProviders, VerletNeighborList neighborList)
+	{
+		super();
+		this.type = type;
+		this.neighborList = neighborList;
+		this.pairForceProviders = new ArrayList<>();
+		this.antiCollisionForceProviders = new ArrayList<>();
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			if (forceProvider instanceof PairForceProvider)
+			{
+				this.pairForceProviders.add((PairForceProvider) forceProvider);
+			}
+			else if (isEligible(forceProvider))
+			{
+				this.antiCollisionForceProviders.add((AntiCollisionForceProvider) forceProvider);
+			}
+		}
+	}
+
+	/**
+	 * Returns true for {@link PairForceProvider}s and {@link AntiCollisionForceProvider}s without inclusion {@link Particle}s
+	 * 
+	 * @param forceProvider
+	 * @return
+	 */
+	public static boolean isEligible(ForceProvider forceProvider)
+	{
+		return forceProvider instanceof PairForceProvider
+				|| forceProvider instanceof AntiCollisionForceProvider && Type.ALL_MATCHING.equals(forceProvider.getType());
+	}
+
+	@Override
+	public Type getType()
+	{
+		return this.type;
+	}
+
+	@Override
+	public void accumulate(ParticleView particleView, double[] forces)
+	{
+		this.determineIndexes(particleView);
+		this.accumulatePairForces(particleView, forces);
+		this.accumulateAntiCollisionForces(particleView, forces);
+	}
+
+	private void determineIndexes(ParticleView particleView)
+	{
+		if (this.indexedParticleView != particleView)
+		{
+			this.pairIndexes = new int[this.pairForceProviders.size() * 2];
+			for (int ii = 0; ii < this.pairForceProviders.size(); ii++)
+			{
+				PairForceProvider forceProvider = this.pairForceProviders.get(ii);
+				this.pairIndexes[ii * 2] = particleView.indexOf(forceProvider.getParticle1());
+				this.pairIndexes[ii * 2 + 1] = particleView.indexOf(forceProvider.getParticle2());
+			}
+
+			this.antiCollisionIndexes = new int[this.antiCollisionForceProviders.size()];
+			this.antiCollisionCovered = new boolean[particleView.size()];
+			for (int ii = 0; ii < this.antiCollisionForceProviders.size(); ii++)
+			{
+				int index = particleView.indexOf(this.antiCollisionForceProviders	.get(ii)
+																					.getParticle());
+				this.antiCollisionIndexes[ii] = index;
+				if (index >= 0)
+				{
+					this.antiCollisionCovered[index] = true;
+				}
+			}
+			this.indexedParticleView = particleView;
+		}
+	}
+
+	private void accumulatePairForces(ParticleView particleView, double[] forces)
+	{
+		for (int ii = 0; ii < this.pairForceProviders.size(); ii++)
+		{
+			PairForceProvider forceProvider = this.pairForceProviders.get(ii);
+			int index1 = this.pairIndexes[ii * 2];
+			int index2 = this.pairIndexes[ii * 2 + 1];
+			boolean matchParticle1 = index1 >= 0 && forceProvider.match(forceProvider.getParticle1());
+			boolean matchParticle2 = index2 >= 0 && forceProvider.match(forceProvider.getParticle2());
+			if (matchParticle1 || matchParticle2)
+			{
+				double[] force = forceProvider	.getPairForce()
+												.getCoordinates();
+				if (matchParticle1)
+				{
+					add(forces, particleView, index1, force, 1.0);
+				}
+				if (matchParticle2)
+				{
+					add(forces, particleView, index2, force, -1.0);
+				}
+			}
+		}
+	}
+
+	private void accumulateAntiCollisionForces(ParticleView particleView, double[] forces)
+	{
+		int size = this.antiCollisionForceProviders.size();
+		for (int ii = 0; ii < size; ii++)
+		{
+			AntiCollisionForceProvider forceProvider = this.antiCollisionForceProviders.get(ii);
+			Particle particle = forceProvider.getParticle();
+			int index = this.antiCollisionIndexes[ii];
+
+			//pairs of two anti collision providers
+			for (int jj = ii + 1; jj < size; jj++)
+			{
+				AntiCollisionForceProvider otherForceProvider = this.antiCollisionForceProviders.get(jj);
+				Particle otherParticle = otherForceProvider.getParticle();
+				int otherIndex = this.antiCollisionIndexes[jj];
+				if (!this.isCandidate(particleView, index, otherIndex, Math.max(forceProvider.getRange(), otherForceProvider.getRange()), particle,
+										otherParticle))
+				{
+					continue;
+				}
+
+				boolean match = forceProvider.match(otherParticle);
+				boolean otherMatch = otherForceProvider.match(particle);
+				if (match && otherMatch && isMirrored(forceProvider, otherForceProvider))
+				{
+					double[] force = forceProvider	.getForce(otherParticle)
+													.getCoordinates();
+					add(forces, particleView, otherIndex, force, 1.0);
+					add(forces, particleView, index, force, -1.0);
+				}
+				else
+				{
+					if (match)
+					{
+						add(forces, particleView, otherIndex, forceProvider	.getForce(otherParticle)
+																			.getCoordinates(),
+							1.0);
+					}
+					if (otherMatch)
+					{
+						add(forces, particleView, index, otherForceProvider	.getForce(particle)
+																			.getCoordinates(),
+							1.0);
+					}
+				}
+			}
+
+			//particles without an own anti collision provider
+			for (int jj = 0; jj < particleView.size(); jj++)
+			{
+				Particle otherParticle = particleView.getParticle(jj);
+				if (!this.antiCollisionCovered[jj]
+						&& this.isCandidate(particleView, index, jj, forceProvider.getRange(), particle, otherParticle)
+						&& forceProvider.match(otherParticle))
+				{
+					add(forces, particleView, jj, forceProvider	.getForce(otherParticle)
+																.getCoordinates(),
+						1.0);
+				}
+			}
+		}
+	}
+
+	private boolean isCandidate(ParticleView particleView, int index, int otherIndex, double range, Particle particle, Particle otherParticle)
+	{
+		if (otherIndex < 0 || index == otherIndex)
+		{
+			return false;
+		}
+		if (this.neighborList != null)
+		{
+			return this.neighborList.isNeighbor(particle, otherParticle);
+		}
+		if (index < 0)
+		{
+			return true;
+		}
+
+		double distanceSquare = 0.0;
+		for (int ii = 0; ii < particleView.getDimensions(); ii++)
+		{
+			double delta = particleView.getCoordinate(index, ii) - particleView.getCoordinate(otherIndex, ii);
+			distanceSquare += delta * delta;
+		}
+		return distanceSquare <= range * range;
+	}
+
+	private static boolean isMirrored(AntiCollisionForceProvider forceProvider, AntiCollisionForceProvider otherForceProvider)
+	{
+		return forceProvider.getStrength() == otherForceProvider.getStrength()
+				&& forceProvider.getCollisionDistance() == otherForceProvider.getCollisionDistance();
+	}
+
+	private static void add(double[] forces, ParticleView particleView, int index, double[] force, double sign)
+	{
+		if (index >= 0)
+		{
+			int dimensions = particleView.getDimensions();
+			int offset = index * dimensions;
+			for (int ii = 0; ii < force.length && ii < dimensions; ii++)
+			{
+				forces[offset + ii] += sign * force[ii];
+			}
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "PairwiseForceField [type=" + this.type + ", pairForceProviders=" + this.pairForceProviders.size() + ", antiCollisionForceProviders="
+				+ this.antiCollisionForceProviders.size() + "]";
+	}
+
+}
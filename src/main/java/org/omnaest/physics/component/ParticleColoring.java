@@ -0,0 +1,159 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+
+/**
+ * Greedy coloring of the interaction graph of the {@link Particle}s, so that no two {@link Particle}s of the same color interact via a
+ * {@link Type#SPECIFIC} {@link ForceProvider}. A {@link Particle} interacts with all {@link ForceProvider#getDependencies()} of the
+ * {@link ForceProvider}s which match it.<br>
+ * <br>
+ * The {@link Particle}s of one color class can be moved in parallel with the same result as moving them sequentially, which allows a parallel
+ * Gauss-Seidel relaxation by moving the color classes one after another. The {@link Type#ALL_MATCHING} {@link ForceProvider}s are not part of
+ * the coloring, within a color class they behave like a Jacobi relaxation.<br>
+ * <br>
+ * The coloring is only recalculated if the {@link Particle}s or the {@link ForceProvider}s have changed.
+ * 
+ * @author omnaest
+ */
+public class ParticleColoring
+{
+	private List<Particle>		particles		= null;
+	private Set<ForceProvider>	forceProviders	= null;
+	private int[][]				colorClasses	= null;
+
+	/**
+	 * Returns the color classes for the given {@link Particle}s as arrays of {@link Particle} indexes. Returns null if any matching
+	 * {@link Type#SPECIFIC} {@link ForceProvider} has unknown dependencies, which means the {@link Particle}s can not be colored.
+	 * 
+	 * @param particles
+	 * @param forceProviders
+	 * @return
+	 */
+	public synchronized int[][] getColorClasses(List<Particle> particles, Set<ForceProvider> forceProviders)
+	{
+		if (!particles.equals(this.particles) || !forceProviders.equals(this.forceProviders))
+		{
+			this.particles = new ArrayList<>(particles);
+			this.forceProviders = new LinkedHashSet<>(forceProviders);
+			this.colorClasses = calculateColorClasses(particles, forceProviders);
+		}
+		return this.colorClasses;
+	}
+
+	private static int[][] calculateColorClasses(List<Particle> particles, Collection<ForceProvider> forceProviders)
+	{
+		Map<Particle, Integer> particleToIndex = new IdentityHashMap<>(particles.size());
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			particleToIndex.put(particles.get(ii), ii);
+		}
+
+		//interaction graph
+		BitSet[] adjacency = new BitSet[particles.size()];
+		for (int ii = 0; ii < adjacency.length; ii++)
+		{
+			adjacency[ii] = new BitSet();
+		}
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			if (!Type.SPECIFIC.equals(forceProvider.getType()))
+			{
+				continue;
+			}
+
+			Collection<Particle> dependencies = forceProvider.getDependencies();
+			int[] dependencyIndexes = dependencies == null ? null
+					: dependencies	.stream()
+									.map(particleToIndex::get)
+									.filter(index -> index != null)
+									.mapToInt(Integer::intValue)
+									.toArray();
+			for (int ii = 0; ii < particles.size(); ii++)
+			{
+				if (forceProvider.match(particles.get(ii)))
+				{
+					if (dependencyIndexes == null)
+					{
+						return null;
+					}
+					for (int index : dependencyIndexes)
+					{
+						if (index != ii)
+						{
+							adjacency[ii].set(index);
+							adjacency[index].set(ii);
+						}
+					}
+				}
+			}
+		}
+
+		//greedy coloring starting with the highest degree
+		int[] colors = new int[particles.size()];
+		Arrays.fill(colors, -1);
+		int numberOfColors = 0;
+		int[] order = IntStream	.range(0, particles.size())
+								.boxed()
+								.sorted(Comparator.comparingInt((Integer index) -> adjacency[index].cardinality())
+													.reversed())
+								.mapToInt(Integer::intValue)
+								.toArray();
+		for (int index : order)
+		{
+			BitSet usedColors = new BitSet();
+			for (int neighbor = adjacency[index].nextSetBit(0); neighbor >= 0; neighbor = adjacency[index].nextSetBit(neighbor + 1))
+			{
+				if (colors[neighbor] >= 0)
+				{
+					usedColors.set(colors[neighbor]);
+				}
+			}
+			colors[index] = usedColors.nextClearBit(0);
+			numberOfColors = Math.max(numberOfColors, colors[index] + 1);
+		}
+
+		//color classes keep the original order of the particles
+		int[][] colorClasses = new int[numberOfColors][];
+		for (int color = 0; color < numberOfColors; color++)
+		{
+			int currentColor = color;
+			colorClasses[color] = IntStream	.range(0, particles.size())
+											.filter(index -> colors[index] == currentColor)
+											.toArray();
+		}
+		return colorClasses;
+	}
+
+}
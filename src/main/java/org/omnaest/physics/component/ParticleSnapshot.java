@@ -0,0 +1,208 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
+import org.omnaest.vector.Vector;
+
+/**
+ * {@link ParticleView} which holds a copy of the {@link Particle} locations taken at {@link #update()}
+ * 
+ * @author omnaest
+ */
+public class ParticleSnapshot implements ParticleView
+{
+	private Particle[]				particles;
+	private int[]					particleDimensions;
+	private int						dimensions;
+	private double[]				coordinates;
+	private Map<Particle, Integer>	particleToIndex	= null;
+	private volatile int[]			idToIndex		= null;
+	private int						idOffset;
+
+	public ParticleSnapshot(List<Particle> particles)
+	{
+		super();
+		this.particles = particles.toArray(new Particle[particles.size()]);
+		this.particleDimensions = new int[this.particles.length];
+		this.update();
+	}
+
+	/**
+	 * Reads the current locations of all {@link Particle}s
+	 * 
+	 * @return this
+	 */
+	public ParticleSnapshot update()
+	{
+		double[][] locations = new double[this.particles.length][];
+		int dimensions = 0;
+		for (int ii = 0; ii < this.particles.length; ii++)
+		{
+			locations[ii] = this.particles[ii]	.getLocation()
+												.getCoordinates();
+			this.particleDimensions[ii] = locations[ii].length;
+			dimensions = Math.max(dimensions, locations[ii].length);
+		}
+
+		if (this.coordinates == null || this.dimensions != dimensions)
+		{
+			this.dimensions = dimensions;
+			this.coordinates = new double[this.particles.length * dimensions];
+		}
+
+		for (int ii = 0; ii < this.particles.length; ii++)
+		{
+			int offset = ii * dimensions;
+			Arrays.fill(this.coordinates, offset, offset + dimensions, 0.0);
+			System.arraycopy(locations[ii], 0, this.coordinates, offset, locations[ii].length);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns a new zero filled array with the layout of the coordinates
+	 * 
+	 * @return
+	 */
+	public double[] newForceArray()
+	{
+		return new double[this.coordinates.length];
+	}
+
+	/**
+	 * Returns the values of the given array for the {@link Particle} with the given index as {@link Vector} with the dimensions of the
+	 * {@link Particle}
+	 * 
+	 * @param values
+	 * @param index
+	 * @return
+	 */
+	public Vector toVector(double[] values, int index)
+	{
+		int offset = index * this.dimensions;
+		return new Vector(Arrays.copyOfRange(values, offset, offset + this.particleDimensions[index]));
+	}
+
+	@Override
+	public int size()
+	{
+		return this.particles.length;
+	}
+
+	@Override
+	public int getDimensions()
+	{
+		return this.dimensions;
+	}
+
+	@Override
+	public Particle getParticle(int index)
+	{
+		return this.particles[index];
+	}
+
+	/**
+	 * If the {@link Particle#getId()}s are dense and distinct, the index is looked up within an array indexed by the id, otherwise within an
+	 * identity map
+	 */
+	@Override
+	public int indexOf(Particle particle)
+	{
+		if (this.idToIndex == null && this.particleToIndex == null)
+		{
+			this.determineIndexes();
+		}
+
+		if (this.idToIndex != null)
+		{
+			int position = particle.getId() - this.idOffset;
+			int index = position >= 0 && position < this.idToIndex.length ? this.idToIndex[position] : -1;
+			return index >= 0 && this.particles[index] == particle ? index : -1;
+		}
+		Integer index = this.particleToIndex.get(particle);
+		return index != null ? index : -1;
+	}
+
+	private void determineIndexes()
+	{
+		int minId = Integer.MAX_VALUE;
+		int maxId = Integer.MIN_VALUE;
+		for (Particle particle : this.particles)
+		{
+			minId = Math.min(minId, particle.getId());
+			maxId = Math.max(maxId, particle.getId());
+		}
+
+		long range = (long) maxId - minId + 1;
+		int[] idToIndex = null;
+		if (this.particles.length > 0 && minId != Particle.NO_ID && range <= 4L * this.particles.length)
+		{
+			idToIndex = new int[(int) range];
+			Arrays.fill(idToIndex, -1);
+			for (int ii = 0; idToIndex != null && ii < this.particles.length; ii++)
+			{
+				int position = this.particles[ii].getId() - minId;
+				if (idToIndex[position] >= 0)
+				{
+					//a particle which is contained twice is resolved via the identity map
+					idToIndex = null;
+				}
+				else
+				{
+					idToIndex[position] = ii;
+				}
+			}
+		}
+
+		if (idToIndex != null)
+		{
+			this.idOffset = minId;
+			this.idToIndex = idToIndex;
+		}
+		else
+		{
+			Map<Particle, Integer> particleToIndex = new IdentityHashMap<>(this.particles.length);
+			for (int ii = 0; ii < this.particles.length; ii++)
+			{
+				particleToIndex.put(this.particles[ii], ii);
+			}
+			this.particleToIndex = particleToIndex;
+		}
+	}
+
+	@Override
+	public double getCoordinate(int index, int dimension)
+	{
+		return this.coordinates[index * this.dimensions + dimension];
+	}
+
+	@Override
+	public Vector getLocation(int index)
+	{
+		return this.toVector(this.coordinates, index);
+	}
+
+}
@@ -0,0 +1,176 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import org.omnaest.physics.domain.Particle;
+
+/**
+ * Executes an action for all indexes of a range cooperatively by a fixed number of threads. The range is split into contiguous partitions, one
+ * per thread, and {@link #execute(int, IntConsumer)} returns after all partitions are done, which makes it a barrier for e.g. all
+ * {@link Particle}s of a sub step.<br>
+ * <br>
+ * The calling thread of {@link #execute(int, IntConsumer)} processes the first partition, the other partitions are processed by daemon helper
+ * threads which are synchronized by a {@link Phaser}. Only one thread at a time should call {@link #execute(int, IntConsumer)}. A failure of a
+ * helper thread is rethrown to the caller of {@link #execute(int, IntConsumer)} after all partitions are done.
+ * 
+ * @author omnaest
+ */
+public class PartitionedExecutor
+{
+	private int		parallelism;
+	private Phaser	phaser;
+	private long[]	threadIds;
+
+	private volatile int			size	= 0;
+	private volatile IntConsumer	action	= null;
+
+	private AtomicReference<Throwable> failure = new AtomicReference<>();
+
+	/**
+	 * @param parallelism
+	 *            number of partitions including the calling thread, at least 1
+	 */
+	public PartitionedExecutor(int parallelism)
+	{
+		super();
+		this.parallelism = Math.max(1, parallelism);
+		this.phaser = new Phaser(this.parallelism);
+		this.threadIds = new long[this.parallelism - 1];
+		for (int ii = 1; ii < this.parallelism; ii++)
+		{
+			int partition = ii;
+			Thread thread = new Thread(() -> this.runHelper(partition), "PartitionedExecutor-" + ii);
+			thread.setDaemon(true);
+			thread.start();
+			this.threadIds[ii - 1] = thread.getId();
+		}
+	}
+
+	public int getParallelism()
+	{
+		return this.parallelism;
+	}
+
+	/**
+	 * Returns the ids of the helper threads, which excludes the calling thread of {@link #execute(int, IntConsumer)}
+	 * 
+	 * @return
+	 */
+	public long[] getThreadIds()
+	{
+		return this.threadIds.clone();
+	}
+
+	/**
+	 * Calls the given action for all indexes from 0 to size - 1 and returns after all partitions have been processed
+	 * 
+	 * @param size
+	 * @param action
+	 * @throws RuntimeException
+	 *             if the action failed for any partition
+	 */
+	public void execute(int size, IntConsumer action)
+	{
+		if (this.parallelism <= 1 || this.phaser.isTerminated())
+		{
+			this.executePartition(0, 1, size, action);
+			return;
+		}
+
+		this.size = size;
+		this.action = action;
+		this.failure.set(null);
+		this.phaser.arriveAndAwaitAdvance();
+		try
+		{
+			this.executePartition(0, this.parallelism, size, action);
+		}
+		finally
+		{
+			this.phaser.arriveAndAwaitAdvance();
+			this.action = null;
+		}
+
+		Throwable failure = this.failure.getAndSet(null);
+		if (failure instanceof RuntimeException)
+		{
+			throw (RuntimeException) failure;
+		}
+		else if (failure instanceof Error)
+		{
+			throw (Error) failure;
+		}
+		else if (failure != null)
+		{
+			throw new IllegalStateException("Error during partition execution", failure);
+		}
+	}
+
+	private void runHelper(int partition)
+	{
+		while (!this.phaser.isTerminated())
+		{
+			//wait for the next execution
+			if (this.phaser.arriveAndAwaitAdvance() < 0)
+			{
+				break;
+			}
+
+			try
+			{
+				IntConsumer action = this.action;
+				if (action != null)
+				{
+					this.executePartition(partition, this.parallelism, this.size, action);
+				}
+			}
+			catch (Throwable e)
+			{
+				this.failure.compareAndSet(null, e);
+			}
+			finally
+			{
+				this.phaser.arriveAndAwaitAdvance();
+			}
+		}
+	}
+
+	private void executePartition(int partition, int parallelism, int size, IntConsumer action)
+	{
+		int start = (int) ((long) size * partition / parallelism);
+		int end = (int) ((long) size * (partition + 1) / parallelism);
+		for (int ii = start; ii < end; ii++)
+		{
+			action.accept(ii);
+		}
+	}
+
+	/**
+	 * Terminates the helper threads. Later calls of {@link #execute(int, IntConsumer)} are processed by the calling thread only.
+	 */
+	public void stop()
+	{
+		this.phaser.forceTermination();
+	}
+
+}
@@ -0,0 +1,314 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * Position based dynamics solver (XPBD), which treats the relations of {@link DistanceForceProvider}s, {@link MinimalDistanceForceProvider}s
+ * and {@link AntiCollisionForceProvider}s as constraints and projects the {@link Particle} locations onto them, instead of integrating their
+ * stiff forces.<br>
+ * <br>
+ * A {@link DistanceForceProvider} is an equality constraint on the distance of its {@link Particle}s, while {@link MinimalDistanceForceProvider}s
+ * and {@link AntiCollisionForceProvider}s are inequality constraints which only push {@link Particle}s apart. Only {@link Particle}s which are
+ * matched by the {@link ForceProvider} are moved by a constraint, all others are treated as if they had an infinite mass.<br>
+ * <br>
+ * The constraints are solved Gauss-Seidel like for a configurable number of iterations. A compliance of 0 creates hard constraints, larger
+ * compliances soften them.
+ * 
+ * @see #isConstraint(ForceProvider)
+ * @author omnaest
+ */
+public class PositionBasedConstraintSolver
+{
+	private int		iterations	= 4;
+	private double	compliance	= 0.0;
+
+	/**
+	 * Constraints of a single {@link #solve(List, Collection, VerletNeighborList, double)} call, held as primitive arrays
+	 * 
+	 * @author omnaest
+	 */
+	private static class Constraints
+	{
+		private int			size			= 0;
+		private int[]		indexes1		= new int[16];
+		private int[]		indexes2		= new int[16];
+		private double[]	inverseMasses1	= new double[16];
+		private double[]	inverseMasses2	= new double[16];
+		private double[]	distances		= new double[16];
+		private boolean[]	inequalities	= new boolean[16];
+		private double[]	lambdas			= new double[16];
+
+		private void add(int index1, int index2, double inverseMass1, double inverseMass2, double distance, boolean inequality)
+		{
+			if (this.size == this.indexes1.length)
+			{
+				int capacity = this.size * 2;
+				this.indexes1 = Arrays.copyOf(this.indexes1, capacity);
+				this.indexes2 = Arrays.copyOf(this.indexes2, capacity);
+				this.inverseMasses1 = Arrays.copyOf(this.inverseMasses1, capacity);
+				this.inverseMasses2 = Arrays.copyOf(this.inverseMasses2, capacity);
+				this.distances = Arrays.copyOf(this.distances, capacity);
+				this.inequalities = Arrays.copyOf(this.inequalities, capacity);
+				this.lambdas = Arrays.copyOf(this.lambdas, capacity);
+			}
+			this.indexes1[this.size] = index1;
+			this.indexes2[this.size] = index2;
+			this.inverseMasses1[this.size] = inverseMass1;
+			this.inverseMasses2[this.size] = inverseMass2;
+			this.distances[this.size] = distance;
+			this.inequalities[this.size] = inequality;
+			this.lambdas[this.size] = 0.0;
+			this.size++;
+		}
+	}
+
+	/**
+	 * Returns true for all {@link ForceProvider}s which are solved as constraints by this solver
+	 * 
+	 * @param forceProvider
+	 * @return
+	 */
+	public static boolean isConstraint(ForceProvider forceProvider)
+	{
+		return forceProvider instanceof DistanceForceProvider || forceProvider instanceof MinimalDistanceForceProvider
+				|| forceProvider instanceof AntiCollisionForceProvider;
+	}
+
+	/**
+	 * Sets the number of solver iterations per {@link #solve(List, Collection, VerletNeighborList, double)}. Defaults to 4
+	 * 
+	 * @param iterations
+	 * @return this
+	 */
+	public PositionBasedConstraintSolver setIterations(int iterations)
+	{
+		this.iterations = iterations;
+		return this;
+	}
+
+	public int getIterations()
+	{
+		return this.iterations;
+	}
+
+	/**
+	 * Sets the compliance, which is the inverse stiffness, of all constraints. Defaults to 0, which creates hard constraints.
+	 * 
+	 * @param compliance
+	 * @return this
+	 */
+	public PositionBasedConstraintSolver setCompliance(double compliance)
+	{
+		this.compliance = compliance;
+		return this;
+	}
+
+	/**
+	 * Projects the locations of the given {@link Particle}s onto the constraints of the given {@link ForceProvider}s. {@link ForceProvider}s which
+	 * are no constraints are ignored.
+	 * 
+	 * @param particles
+	 * @param forceProviders
+	 * @param neighborList
+	 *            optional {@link VerletNeighborList} which restricts the collision candidates of the {@link AntiCollisionForceProvider}s, can be null
+	 * @param deltaT
+	 *            time step used for the compliance
+	 */
+	public void solve(List<Particle> particles, Collection<ForceProvider> forceProviders, VerletNeighborList neighborList, double deltaT)
+	{
+		int dimensions = particles	.stream()
+									.mapToInt(particle -> particle	.getLocation()
+																	.getCoordinates().length)
+									.max()
+									.orElse(0);
+		double[] locations = new double[particles.size() * dimensions];
+		Map<Particle, Integer> particleToIndex = new IdentityHashMap<>(particles.size());
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			double[] coordinates = particles.get(ii)
+											.getLocation()
+											.getCoordinates();
+			System.arraycopy(coordinates, 0, locations, ii * dimensions, coordinates.length);
+			particleToIndex.put(particles.get(ii), ii);
+		}
+		double[] initialLocations = locations.clone();
+
+		Constraints constraints = this.determineConstraints(particles, forceProviders, neighborList, particleToIndex, locations, dimensions);
+		if (constraints.size == 0)
+		{
+			return;
+		}
+
+		double alpha = deltaT > 0.0 ? this.compliance / (deltaT * deltaT) : 0.0;
+		for (int iteration = 0; iteration < this.iterations; iteration++)
+		{
+			for (int ii = 0; ii < constraints.size; ii++)
+			{
+				this.project(constraints, ii, locations, dimensions, alpha);
+			}
+		}
+
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			Particle particle = particles.get(ii);
+			double[] distance = new double[particle	.getLocation()
+													.getCoordinates().length];
+			boolean moved = false;
+			for (int jj = 0; jj < distance.length; jj++)
+			{
+				distance[jj] = locations[ii * dimensions + jj] - initialLocations[ii * dimensions + jj];
+				moved |= distance[jj] != 0.0;
+			}
+			if (moved)
+			{
+				particle.move(new Vector(distance));
+			}
+		}
+	}
+
+	private Constraints determineConstraints(List<Particle> particles, Collection<ForceProvider> forceProviders, VerletNeighborList neighborList,
+												Map<Particle, Integer> particleToIndex, double[] locations, int dimensions)
+	{
+		Constraints constraints = new Constraints();
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			if (forceProvider instanceof DistanceForceProvider)
+			{
+				DistanceForceProvider distanceForceProvider = (DistanceForceProvider) forceProvider;
+				this.addPairConstraint(constraints, forceProvider, distanceForceProvider.getParticle1(), distanceForceProvider.getParticle2(),
+										distanceForceProvider.getDistance(), false, particleToIndex);
+			}
+			else if (forceProvider instanceof MinimalDistanceForceProvider)
+			{
+				MinimalDistanceForceProvider minimalDistanceForceProvider = (MinimalDistanceForceProvider) forceProvider;
+				this.addPairConstraint(constraints, forceProvider, minimalDistanceForceProvider.getParticle1(), minimalDistanceForceProvider.getParticle2(),
+										minimalDistanceForceProvider.getDistance(), true, particleToIndex);
+			}
+			else if (forceProvider instanceof AntiCollisionForceProvider)
+			{
+				AntiCollisionForceProvider antiCollisionForceProvider = (AntiCollisionForceProvider) forceProvider;
+				Integer sourceIndex = particleToIndex.get(antiCollisionForceProvider.getParticle());
+				if (sourceIndex == null)
+				{
+					continue;
+				}
+
+				double collisionDistance = antiCollisionForceProvider.getCollisionDistance();
+				for (int ii = 0; ii < particles.size(); ii++)
+				{
+					Particle particle = particles.get(ii);
+					boolean candidate = neighborList != null ? neighborList.isInRange(forceProvider, particle)
+							: distanceSquare(locations, sourceIndex, ii, dimensions) < collisionDistance * collisionDistance;
+					if (candidate && ii != sourceIndex && forceProvider.match(particle))
+					{
+						constraints.add(sourceIndex, ii, 0.0, 1.0, collisionDistance, true);
+					}
+				}
+			}
+		}
+		return constraints;
+	}
+
+	private void addPairConstraint(Constraints constraints, ForceProvider forceProvider, Particle particle1, Particle particle2, double distance,
+									boolean inequality, Map<Particle, Integer> particleToIndex)
+	{
+		Integer index1 = particleToIndex.get(particle1);
+		Integer index2 = particleToIndex.get(particle2);
+		if (index1 != null && index2 != null && index1.intValue() != index2.intValue())
+		{
+			constraints.add(index1, index2, forceProvider.match(particle1) ? 1.0 : 0.0, forceProvider.match(particle2) ? 1.0 : 0.0, distance,
+							inequality);
+		}
+	}
+
+	private void project(Constraints constraints, int constraint, double[] locations, int dimensions, double alpha)
+	{
+		double inverseMass1 = constraints.inverseMasses1[constraint];
+		double inverseMass2 = constraints.inverseMasses2[constraint];
+		double inverseMassSum = inverseMass1 + inverseMass2;
+		if (inverseMassSum <= 0.0)
+		{
+			return;
+		}
+
+		int offset1 = constraints.indexes1[constraint] * dimensions;
+		int offset2 = constraints.indexes2[constraint] * dimensions;
+		double length = Math.sqrt(distanceSquare(locations, constraints.indexes1[constraint], constraints.indexes2[constraint], dimensions));
+		double[] separation = null;
+		if (length <= 0.000001)
+		{
+			if (constraints.distances[constraint] <= 0.0 || dimensions == 0)
+			{
+				return;
+			}
+
+			//coincident particles are separated in a random direction, like the force providers do
+			double angle = 2.0 * Math.PI * Math.random();
+			separation = new double[dimensions];
+			separation[0] = dimensions > 1 ? Math.cos(angle) : Math.signum(Math.cos(angle));
+			if (dimensions > 1)
+			{
+				separation[1] = Math.sin(angle);
+			}
+		}
+
+		double violation = length - constraints.distances[constraint];
+		if (constraints.inequalities[constraint] && violation >= 0.0)
+		{
+			return;
+		}
+
+		double lambda = constraints.lambdas[constraint];
+		double deltaLambda = (-violation - alpha * lambda) / (inverseMassSum + alpha);
+		constraints.lambdas[constraint] = lambda + deltaLambda;
+
+		//gradient of the constraint for particle1 is the direction from particle2 to particle1
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			double direction = separation != null ? separation[ii] : (locations[offset1 + ii] - locations[offset2 + ii]) / length;
+			locations[offset1 + ii] += inverseMass1 * deltaLambda * direction;
+			locations[offset2 + ii] -= inverseMass2 * deltaLambda * direction;
+		}
+	}
+
+	private static double distanceSquare(double[] locations, int index1, int index2, int dimensions)
+	{
+		double distanceSquare = 0.0;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			double delta = locations[index1 * dimensions + ii] - locations[index2 * dimensions + ii];
+			distanceSquare += delta * delta;
+		}
+		return distanceSquare;
+	}
+
+}
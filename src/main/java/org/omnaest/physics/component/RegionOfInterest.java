@@ -0,0 +1,192 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * Region of interest of a scene, like the visible viewport or the {@link Particle}s a user is dragging. {@link Particle}s within the region are
+ * simulated at the full rate, all other {@link Particle}s only every n-th tick. The outside {@link Particle}s are moved round robin in n slices,
+ * one slice per tick with the regular deltaT, so the cost of a tick depends on the region and 1/n of the remaining scene, and no tick moves the
+ * whole scene.<br>
+ * <br>
+ * The region consists of
+ * <ul>
+ * <li>all {@link Particle}s within the bounding box</li>
+ * <li>all focus {@link Particle}s and the {@link Particle}s within the focus radius around them</li>
+ * </ul>
+ * 
+ * @author omnaest
+ */
+public class RegionOfInterest
+{
+	private volatile Vector				minimum			= null;
+	private volatile Vector				maximum			= null;
+	private volatile List<Particle>		focusParticles	= Collections.emptyList();
+	private volatile double				focusRadius		= 0.0;
+	private volatile int				outsideRate		= 10;
+
+	private long ticks = 0;
+
+	/**
+	 * Sets the bounding box of the region, null values remove the bounding box
+	 * 
+	 * @param minimum
+	 * @param maximum
+	 * @return this
+	 */
+	public RegionOfInterest setBoundingBox(Vector minimum, Vector maximum)
+	{
+		this.minimum = minimum;
+		this.maximum = maximum;
+		return this;
+	}
+
+	/**
+	 * Sets the focus {@link Particle}s, e.g. the {@link Particle}s a user is dragging
+	 * 
+	 * @param particles
+	 * @param radius
+	 *            distance around the focus {@link Particle}s which belongs to the region as well, 0 for none
+	 * @return this
+	 */
+	public RegionOfInterest setFocusParticles(Collection<Particle> particles, double radius)
+	{
+		this.focusParticles = particles != null ? new ArrayList<>(particles) : Collections.emptyList();
+		this.focusRadius = radius;
+		return this;
+	}
+
+	/**
+	 * Sets the rate at which the {@link Particle}s outside of the region are simulated. A rate of n moves every n-th of them per tick, so each of
+	 * them every n-th tick. Defaults to 10
+	 * 
+	 * @param outsideRate
+	 * @return this
+	 */
+	public RegionOfInterest setOutsideRate(int outsideRate)
+	{
+		this.outsideRate = Math.max(1, outsideRate);
+		return this;
+	}
+
+	public int getOutsideRate()
+	{
+		return this.outsideRate;
+	}
+
+	/**
+	 * Returns true if the given {@link Particle} is part of the region
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public boolean contains(Particle particle)
+	{
+		Vector location = particle.getLocation();
+		Vector minimum = this.minimum;
+		Vector maximum = this.maximum;
+		if (minimum != null && maximum != null && this.isWithin(location, minimum, maximum))
+		{
+			return true;
+		}
+
+		double focusRadius = this.focusRadius;
+		for (Particle focusParticle : this.focusParticles)
+		{
+			if (focusParticle == particle || focusParticle	.getLocation()
+															.subtract(location)
+															.absolute() <= focusRadius)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Advances the tick counter and returns the {@link Particle}s which are moved within the current tick, which are the {@link Particle}s of the
+	 * region and the current slice of the outside {@link Particle}s. Returns null if all {@link Particle}s are moved.
+	 * 
+	 * @see #isCycleCompleted()
+	 * @param particles
+	 * @return
+	 */
+	public Set<Particle> nextTick(Collection<Particle> particles)
+	{
+		int outsideRate = this.outsideRate;
+		long tick;
+		synchronized (this)
+		{
+			tick = this.ticks++;
+		}
+		if (outsideRate <= 1)
+		{
+			return null;
+		}
+
+		int slice = (int) (tick % outsideRate);
+		Set<Particle> retval = Collections.newSetFromMap(new IdentityHashMap<>());
+		int index = 0;
+		for (Particle particle : particles)
+		{
+			if (index++ % outsideRate == slice || this.contains(particle))
+			{
+				retval.add(particle);
+			}
+		}
+		return retval;
+	}
+
+	/**
+	 * Returns true if the last {@link #nextTick(Collection)} has moved the last slice of the outside {@link Particle}s, so that every
+	 * {@link Particle} has been moved since the previous completed cycle
+	 * 
+	 * @return
+	 */
+	public synchronized boolean isCycleCompleted()
+	{
+		return this.ticks % this.outsideRate == 0;
+	}
+
+	private boolean isWithin(Vector location, Vector minimum, Vector maximum)
+	{
+		double[] coordinates = location.getCoordinates();
+		double[] minimumCoordinates = minimum.getCoordinates();
+		double[] maximumCoordinates = maximum.getCoordinates();
+		int dimensions = Math.min(coordinates.length, Math.min(minimumCoordinates.length, maximumCoordinates.length));
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			if (coordinates[ii] < minimumCoordinates[ii] || coordinates[ii] > maximumCoordinates[ii])
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
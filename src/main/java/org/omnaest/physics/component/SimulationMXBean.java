@@ -0,0 +1,96 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.Map;
+
+import org.omnaest.physics.PhysicsSimulation;
+import org.omnaest.physics.PhysicsSimulation.Runner;
+
+/**
+ * JMX management interface of a running {@link PhysicsSimulation}
+ * 
+ * @see SimulationTelemetry
+ * @see Runner#registerMBean(String)
+ * @author omnaest
+ */
+public interface SimulationMXBean
+{
+	/**
+	 * Returns the number of ticks per second over the recent ticks
+	 * 
+	 * @return
+	 */
+	public double getTickRate();
+
+	public long getTickCount();
+
+	public double getTickLatencyP50Millis();
+
+	public double getTickLatencyP90Millis();
+
+	public double getTickLatencyP99Millis();
+
+	public int getParticleCount();
+
+	public int getForceFieldCount();
+
+	/**
+	 * Returns the number of {@link org.omnaest.physics.domain.force.ForceProvider}s per {@link org.omnaest.physics.domain.force.ForceProvider.Type}
+	 * 
+	 * @return
+	 */
+	public Map<String, Integer> getForceProviderCountsByType();
+
+	/**
+	 * Returns the number of {@link org.omnaest.physics.domain.force.ForceProvider}s per class name
+	 * 
+	 * @return
+	 */
+	public Map<String, Integer> getForceProviderCountsByClass();
+
+	/**
+	 * Returns the largest displacement of a {@link org.omnaest.physics.domain.Particle} within a recently sampled tick, which approaches 0 as the
+	 * layout converges
+	 * 
+	 * @return
+	 */
+	public double getConvergenceResidual();
+
+	/**
+	 * Returns the fraction of the time the tick loop and the helper threads of the {@link PartitionedExecutor} have been busy with ticks within
+	 * the last completed utilization window, between 0 and 1. The {@link PhysicsSimulation.TimeTickHandler} is not
+	 * counted.
+	 * 
+	 * @return
+	 */
+	public double getWorkerUtilization();
+
+	public boolean isSuspended();
+
+	public void suspend();
+
+	public void resume();
+
+	/**
+	 * @see Runner#boost(int, java.util.concurrent.TimeUnit)
+	 * @param durationInMilliseconds
+	 */
+	public void boost(int durationInMilliseconds);
+}
@@ -0,0 +1,365 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.omnaest.physics.PhysicsSimulation;
+import org.omnaest.physics.PhysicsSimulation.Runner;
+import org.omnaest.physics.PhysicsSimulation.TimeTickHandler;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.ForceField;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * {@link SimulationMXBean} of a {@link PhysicsSimulation} and its {@link Runner}. The {@link Runner} reports every tick via
+ * {@link #recordTick(long, long)}, the latencies are kept for the most recent ticks. The convergence residual is sampled every
+ * {@link #isResidualSampleDue() n-th} tick. The worker utilization is sampled by the ticks on a fixed window, see
+ * {@link #setUtilizationWindow(long, TimeUnit)}.<br>
+ * <br>
+ * The {@link Particle}s, {@link ForceProvider}s and {@link ForceField}s are read under the read lock of the {@link Runner}, since the MBean server
+ * calls the getters from its own threads, while the {@link TimeTickHandler} mutates the scene under the write lock.
+ * 
+ * @author omnaest
+ */
+public class SimulationTelemetry implements SimulationMXBean
+{
+	private static final int	WINDOW					= 1024;
+	private static final int	RESIDUAL_SAMPLE_RATE	= 10;
+
+	private PhysicsSimulation	simulation;
+	private Runner				runner;
+	private Lock				sceneLock;
+
+	private long[]	tickDurations	= new long[WINDOW];
+	private long[]	tickEndTimes	= new long[WINDOW];
+	private long	tickCount		= 0;
+
+	private volatile double convergenceResidual = Double.NaN;
+
+	private ThreadMXBean	threadMXBean				= ManagementFactory.getThreadMXBean();
+	private long[]			workerThreadIds				= new long[0];
+	private long			utilizationWindow			= TimeUnit.SECONDS.toNanos(1);
+	private long			windowStartTime				= -1;
+	private long			windowStartWorkerCpuTime	= 0;
+	private long			windowTickCpuTime			= 0;
+	private volatile double	workerUtilization			= 0.0;
+
+	/**
+	 * @param simulation
+	 * @param runner
+	 * @param sceneLock
+	 *            read lock of the {@link Runner}, which guards the reads of the scene
+	 */
+	public SimulationTelemetry(PhysicsSimulation simulation, Runner runner, Lock sceneLock)
+	{
+		super();
+		this.simulation = simulation;
+		this.runner = runner;
+		this.sceneLock = sceneLock;
+	}
+
+	/**
+	 * Sets the duration over which the {@link #getWorkerUtilization()} is sampled. Defaults to 1 second
+	 * 
+	 * @param duration
+	 * @param timeUnit
+	 * @return this
+	 */
+	public synchronized SimulationTelemetry setUtilizationWindow(long duration, TimeUnit timeUnit)
+	{
+		this.utilizationWindow = timeUnit.toNanos(duration);
+		return this;
+	}
+
+	/**
+	 * Records a tick which took the given duration and the given cpu time of the thread which ran the tick
+	 * 
+	 * @see #determineCurrentThreadCpuTime()
+	 * @param durationInNanoseconds
+	 * @param cpuTimeInNanoseconds
+	 */
+	public synchronized void recordTick(long durationInNanoseconds, long cpuTimeInNanoseconds)
+	{
+		long time = System.nanoTime();
+		int index = (int) (this.tickCount % WINDOW);
+		this.tickDurations[index] = durationInNanoseconds;
+		this.tickEndTimes[index] = time;
+		this.tickCount++;
+
+		if (this.windowStartTime < 0)
+		{
+			this.startUtilizationWindow(time - durationInNanoseconds);
+		}
+		this.windowTickCpuTime += Math.max(0, cpuTimeInNanoseconds);
+		if (time - this.windowStartTime >= this.utilizationWindow && time > this.windowStartTime)
+		{
+			long workerCpuTime = this.determineCpuTime(this.workerThreadIds) - this.windowStartWorkerCpuTime;
+			long availableTime = (time - this.windowStartTime) * (this.workerThreadIds.length + 1);
+			double utilization = (this.windowTickCpuTime + workerCpuTime) / (double) availableTime;
+			this.workerUtilization = Math.max(0.0, Math.min(1.0, utilization));
+			this.startUtilizationWindow(time);
+		}
+	}
+
+	private void startUtilizationWindow(long time)
+	{
+		this.windowStartTime = time;
+		this.windowStartWorkerCpuTime = this.determineCpuTime(this.workerThreadIds);
+		this.windowTickCpuTime = 0;
+	}
+
+	/**
+	 * Returns the cpu time of the current thread, or 0 if it is not supported
+	 * 
+	 * @return
+	 */
+	public long determineCurrentThreadCpuTime()
+	{
+		return this.threadMXBean.isThreadCpuTimeSupported() ? Math.max(0, this.threadMXBean.getCurrentThreadCpuTime()) : 0;
+	}
+
+	/**
+	 * Returns true if the next tick should sample the convergence residual
+	 * 
+	 * @see #takeLocations(List)
+	 * @see #recordResidual(List, List)
+	 * @return
+	 */
+	public synchronized boolean isResidualSampleDue()
+	{
+		return this.tickCount % RESIDUAL_SAMPLE_RATE == 0;
+	}
+
+	/**
+	 * Returns the current locations of the given {@link Particle}s
+	 * 
+	 * @param particles
+	 * @return
+	 */
+	public List<Vector> takeLocations(List<Particle> particles)
+	{
+		return particles.stream()
+						.map(Particle::getLocation)
+						.collect(Collectors.toList());
+	}
+
+	/**
+	 * Records the largest displacement of the given {@link Particle}s since the given locations as convergence residual
+	 * 
+	 * @param particles
+	 * @param locations
+	 *            {@link #takeLocations(List)} of the same {@link Particle}s before the tick
+	 */
+	public void recordResidual(List<Particle> particles, List<Vector> locations)
+	{
+		double residual = 0.0;
+		for (int ii = 0; ii < particles.size() && ii < locations.size(); ii++)
+		{
+			residual = Math.max(residual, particles	.get(ii)
+													.getLocation()
+													.subtract(locations.get(ii))
+													.absolute());
+		}
+		this.convergenceResidual = residual;
+	}
+
+	/**
+	 * Sets the ids of the helper threads of the {@link PartitionedExecutor}, which only execute partitions of the ticks. The thread which runs a
+	 * tick reports its own cpu time via {@link #recordTick(long, long)}.
+	 * 
+	 * @param workerThreadIds
+	 */
+	public synchronized void setWorkerThreadIds(long... workerThreadIds)
+	{
+		this.workerThreadIds = workerThreadIds.clone();
+		this.windowStartTime = -1;
+	}
+
+	@Override
+	public synchronized double getTickRate()
+	{
+		int size = (int) Math.min(this.tickCount, WINDOW);
+		if (size < 2)
+		{
+			return 0.0;
+		}
+		long lastEndTime = this.tickEndTimes[(int) ((this.tickCount - 1) % WINDOW)];
+		long firstEndTime = this.tickEndTimes[(int) ((this.tickCount - size) % WINDOW)];
+		return lastEndTime > firstEndTime ? (size - 1) * 1000000000.0 / (lastEndTime - firstEndTime) : 0.0;
+	}
+
+	@Override
+	public synchronized long getTickCount()
+	{
+		return this.tickCount;
+	}
+
+	@Override
+	public double getTickLatencyP50Millis()
+	{
+		return this.determineLatencyPercentile(0.5);
+	}
+
+	@Override
+	public double getTickLatencyP90Millis()
+	{
+		return this.determineLatencyPercentile(0.9);
+	}
+
+	@Override
+	public double getTickLatencyP99Millis()
+	{
+		return this.determineLatencyPercentile(0.99);
+	}
+
+	private double determineLatencyPercentile(double percentile)
+	{
+		long[] durations;
+		synchronized (this)
+		{
+			durations = Arrays.copyOf(this.tickDurations, (int) Math.min(this.tickCount, WINDOW));
+		}
+		if (durations.length == 0)
+		{
+			return 0.0;
+		}
+		Arrays.sort(durations);
+		int index = (int) Math.min(durations.length - 1, Math.ceil(percentile * durations.length) - 1);
+		return durations[Math.max(0, index)] / 1000000.0;
+	}
+
+	@Override
+	public int getParticleCount()
+	{
+		return this.readScene(() -> this.simulation	.getParticles()
+													.size());
+	}
+
+	@Override
+	public int getForceFieldCount()
+	{
+		return this.readScene(() -> this.simulation	.getForceFields()
+													.size());
+	}
+
+	@Override
+	public Map<String, Integer> getForceProviderCountsByType()
+	{
+		return this.readScene(() -> this.simulation	.getForceProviders()
+													.stream()
+													.collect(Collectors.groupingBy(forceProvider -> forceProvider	.getType()
+																													.name(),
+																					TreeMap::new, Collectors.summingInt(forceProvider -> 1))));
+	}
+
+	@Override
+	public Map<String, Integer> getForceProviderCountsByClass()
+	{
+		return this.readScene(() -> this.simulation	.getForceProviders()
+													.stream()
+													.collect(Collectors.groupingBy(forceProvider -> forceProvider	.getClass()
+																													.getName(),
+																					TreeMap::new, Collectors.summingInt(forceProvider -> 1))));
+	}
+
+	private <T> T readScene(Supplier<T> reader)
+	{
+		this.sceneLock.lock();
+		try
+		{
+			return reader.get();
+		}
+		finally
+		{
+			this.sceneLock.unlock();
+		}
+	}
+
+	@Override
+	public double getConvergenceResidual()
+	{
+		return this.convergenceResidual;
+	}
+
+	@Override
+	public double getWorkerUtilization()
+	{
+		return this.workerUtilization;
+	}
+
+	private long determineCpuTime(long[] threadIds)
+	{
+		if (!this.threadMXBean.isThreadCpuTimeSupported())
+		{
+			return 0;
+		}
+
+		long cpuTime = 0;
+		for (long threadId : threadIds)
+		{
+			cpuTime += Math.max(0, this.threadMXBean.getThreadCpuTime(threadId));
+		}
+		return cpuTime;
+	}
+
+	@Override
+	public boolean isSuspended()
+	{
+		return this.runner.isSuspended();
+	}
+
+	@Override
+	public void suspend()
+	{
+		if (!this.runner.isSuspended())
+		{
+			this.runner.suspend();
+		}
+	}
+
+	@Override
+	public void resume()
+	{
+		this.runner.resume();
+	}
+
+	@Override
+	public void boost(int durationInMilliseconds)
+	{
+		this.runner.boost(durationInMilliseconds, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SimulationTelemetry [tickCount=" + this.getTickCount() + ", tickRate=" + this.getTickRate() + "]";
+	}
+
+}
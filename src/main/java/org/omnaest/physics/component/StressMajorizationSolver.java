@@ -0,0 +1,382 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * Stress majorization (SMACOF) solver for the target distance graph of {@link DistanceForceProvider}s. Every {@link DistanceForceProvider} is a
+ * term of the stress <code>sum w_ij * (|x_i - x_j| - d_ij)^2</code> with the weight <code>w_ij = d_ij^-2</code>.<br>
+ * <br>
+ * Each iteration is a localized Guttman transform, which moves every {@link Particle} to the weighted average of the locations its terms
+ * suggest. All {@link Particle}s are updated in parallel based on the locations of the previous iteration. Since this parallel update is not
+ * guaranteed to decrease the stress, e.g. two {@link Particle}s which are too close overshoot alternately, an iteration without a decrease is
+ * discarded and all further iterations are sequential sweeps, which use the already updated locations and never increase the stress. For large
+ * graphs the sparse stress is extended by landmark terms, which are the graph theoretical distances to a number of landmark {@link Particle}s
+ * chosen by max-min selection, to keep the global shape.
+ * 
+ * @author omnaest
+ */
+public class StressMajorizationSolver
+{
+	private static final int	AUTOMATIC_LANDMARKS_THRESHOLD	= 500;
+	private static final int	AUTOMATIC_LANDMARKS				= 32;
+	private static final int	PARALLEL_THRESHOLD				= 1000;
+
+	private int		landmarks	= -1;
+	private double	lastStress	= Double.NaN;
+
+	/**
+	 * Stress terms as compressed adjacency lists
+	 * 
+	 * @author omnaest
+	 */
+	private static class Terms
+	{
+		private int[]		offsets;
+		private int[]		targets;
+		private double[]	distances;
+		private double[]	weights;
+	}
+
+	/**
+	 * Sets the number of landmark {@link Particle}s. Defaults to -1, which uses 32 landmarks for graphs with more than 500 {@link Particle}s and
+	 * none for smaller ones. A value of 0 only uses the sparse stress of the {@link DistanceForceProvider}s.
+	 * 
+	 * @param landmarks
+	 * @return this
+	 */
+	public StressMajorizationSolver setLandmarks(int landmarks)
+	{
+		this.landmarks = landmarks;
+		return this;
+	}
+
+	/**
+	 * Returns the stress after the last {@link #solve(List, Collection, int, double)}
+	 * 
+	 * @return
+	 */
+	public double getLastStress()
+	{
+		return this.lastStress;
+	}
+
+	/**
+	 * Runs the stress majorization for the given {@link Particle}s and writes the resulting locations back into the {@link Particle}s. All
+	 * {@link ForceProvider}s apart from {@link DistanceForceProvider}s are ignored.
+	 * 
+	 * @param particles
+	 * @param forceProviders
+	 * @param maxIterations
+	 * @param tolerance
+	 *            the solver stops as soon as the relative decrease of the stress is below the tolerance
+	 * @return the number of iterations
+	 */
+	public int solve(List<Particle> particles, Collection<ForceProvider> forceProviders, int maxIterations, double tolerance)
+	{
+		int size = particles.size();
+		int dimensions = particles	.stream()
+									.mapToInt(particle -> particle	.getLocation()
+																	.getCoordinates().length)
+									.max()
+									.orElse(0);
+		double[] locations = new double[size * dimensions];
+		Map<Particle, Integer> particleToIndex = new IdentityHashMap<>(size);
+		for (int ii = 0; ii < size; ii++)
+		{
+			double[] coordinates = particles.get(ii)
+											.getLocation()
+											.getCoordinates();
+			System.arraycopy(coordinates, 0, locations, ii * dimensions, coordinates.length);
+			particleToIndex.put(particles.get(ii), ii);
+		}
+
+		Terms terms = this.determineTerms(size, forceProviders, particleToIndex);
+
+		double[] nextLocations = locations.clone();
+		double[] coordinates = new double[dimensions];
+		double stress = calculateStress(terms, locations, dimensions);
+		boolean sequential = false;
+		int iteration = 0;
+		while (iteration < maxIterations && stress > 0.0)
+		{
+			double[] currentLocations = locations;
+			double[] targetLocations = nextLocations;
+			if (sequential)
+			{
+				System.arraycopy(currentLocations, 0, targetLocations, 0, targetLocations.length);
+				for (int index = 0; index < size; index++)
+				{
+					transform(terms, targetLocations, coordinates, 0, index, dimensions);
+					System.arraycopy(coordinates, 0, targetLocations, index * dimensions, dimensions);
+				}
+			}
+			else
+			{
+				IntStream indexes = IntStream.range(0, size);
+				(size >= PARALLEL_THRESHOLD ? indexes.parallel() : indexes).forEach(index -> transform(terms, currentLocations, targetLocations,
+																										index * dimensions, index, dimensions));
+			}
+			iteration++;
+
+			double nextStress = calculateStress(terms, targetLocations, dimensions);
+			if (sequential ? nextStress > stress : nextStress >= stress)
+			{
+				//the previous locations are kept and a parallel update without a decrease is replaced by sequential sweeps
+				if (sequential)
+				{
+					break;
+				}
+				sequential = true;
+				continue;
+			}
+
+			locations = targetLocations;
+			nextLocations = currentLocations;
+			boolean converged = stress - nextStress <= tolerance * stress;
+			stress = nextStress;
+			if (converged)
+			{
+				break;
+			}
+		}
+		this.lastStress = stress;
+
+		for (int ii = 0; ii < size; ii++)
+		{
+			Particle particle = particles.get(ii);
+			int particleDimensions = particle	.getLocation()
+												.getCoordinates().length;
+			particle.setLocation(new Vector(Arrays.copyOfRange(locations, ii * dimensions, ii * dimensions + particleDimensions)));
+		}
+		return iteration;
+	}
+
+	/**
+	 * Localized Guttman transform of a single {@link Particle}, which writes its next coordinates at the given target offset
+	 */
+	private static void transform(Terms terms, double[] locations, double[] nextLocations, int targetOffset, int index, int dimensions)
+	{
+		int offset = index * dimensions;
+		if (terms.offsets[index] == terms.offsets[index + 1])
+		{
+			System.arraycopy(locations, offset, nextLocations, targetOffset, dimensions);
+			return;
+		}
+
+		double weightSum = 0.0;
+		Arrays.fill(nextLocations, targetOffset, targetOffset + dimensions, 0.0);
+		for (int term = terms.offsets[index]; term < terms.offsets[index + 1]; term++)
+		{
+			int otherOffset = terms.targets[term] * dimensions;
+			double length = distance(locations, offset, otherOffset, dimensions);
+			double weight = terms.weights[term];
+			double factor = length > 0.0 ? terms.distances[term] / length : 0.0;
+			for (int ii = 0; ii < dimensions; ii++)
+			{
+				double otherCoordinate = locations[otherOffset + ii];
+				nextLocations[targetOffset + ii] += weight * (otherCoordinate + factor * (locations[offset + ii] - otherCoordinate));
+			}
+			weightSum += weight;
+		}
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			nextLocations[targetOffset + ii] /= weightSum;
+		}
+	}
+
+	private static double calculateStress(Terms terms, double[] locations, int dimensions)
+	{
+		double stress = 0.0;
+		for (int index = 0; index + 1 < terms.offsets.length; index++)
+		{
+			for (int term = terms.offsets[index]; term < terms.offsets[index + 1]; term++)
+			{
+				double delta = distance(locations, index * dimensions, terms.targets[term] * dimensions, dimensions) - terms.distances[term];
+				stress += terms.weights[term] * delta * delta;
+			}
+		}
+		return stress / 2.0;
+	}
+
+	private Terms determineTerms(int size, Collection<ForceProvider> forceProviders, Map<Particle, Integer> particleToIndex)
+	{
+		List<List<double[]>> adjacency = new ArrayList<>(size);
+		for (int ii = 0; ii < size; ii++)
+		{
+			adjacency.add(new ArrayList<>());
+		}
+		for (ForceProvider forceProvider : forceProviders)
+		{
+			if (forceProvider instanceof DistanceForceProvider)
+			{
+				DistanceForceProvider distanceForceProvider = (DistanceForceProvider) forceProvider;
+				Integer index1 = particleToIndex.get(distanceForceProvider.getParticle1());
+				Integer index2 = particleToIndex.get(distanceForceProvider.getParticle2());
+				double distance = distanceForceProvider.getDistance();
+				if (index1 != null && index2 != null && index1.intValue() != index2.intValue() && distance > 0.0)
+				{
+					adjacency	.get(index1)
+								.add(new double[] { index2, distance });
+					adjacency	.get(index2)
+								.add(new double[] { index1, distance });
+				}
+			}
+		}
+
+		List<List<double[]>> landmarkTerms = this.determineLandmarkTerms(size, adjacency);
+
+		Terms terms = new Terms();
+		terms.offsets = new int[size + 1];
+		for (int ii = 0; ii < size; ii++)
+		{
+			terms.offsets[ii + 1] = terms.offsets[ii] + adjacency	.get(ii)
+																	.size()
+					+ landmarkTerms	.get(ii)
+									.size();
+		}
+		int numberOfTerms = terms.offsets[size];
+		terms.targets = new int[numberOfTerms];
+		terms.distances = new double[numberOfTerms];
+		terms.weights = new double[numberOfTerms];
+		for (int ii = 0; ii < size; ii++)
+		{
+			int term = terms.offsets[ii];
+			List<double[]> allTerms = new ArrayList<>(adjacency.get(ii));
+			allTerms.addAll(landmarkTerms.get(ii));
+			for (double[] targetAndDistance : allTerms)
+			{
+				terms.targets[term] = (int) targetAndDistance[0];
+				terms.distances[term] = targetAndDistance[1];
+				terms.weights[term] = 1.0 / (targetAndDistance[1] * targetAndDistance[1]);
+				term++;
+			}
+		}
+		return terms;
+	}
+
+	private List<List<double[]>> determineLandmarkTerms(int size, List<List<double[]>> adjacency)
+	{
+		List<List<double[]>> landmarkTerms = new ArrayList<>(size);
+		for (int ii = 0; ii < size; ii++)
+		{
+			landmarkTerms.add(new ArrayList<>());
+		}
+
+		int numberOfLandmarks = Math.min(size, this.landmarks >= 0 ? this.landmarks
+				: size > AUTOMATIC_LANDMARKS_THRESHOLD ? AUTOMATIC_LANDMARKS : 0);
+		if (numberOfLandmarks <= 0)
+		{
+			return landmarkTerms;
+		}
+
+		//max-min selection of the landmarks
+		double[] minDistances = new double[size];
+		Arrays.fill(minDistances, Double.POSITIVE_INFINITY);
+		int landmark = 0;
+		for (int ii = 0; ii < numberOfLandmarks; ii++)
+		{
+			int currentLandmark = landmark;
+			double[] distances = shortestDistances(currentLandmark, adjacency);
+			int nextLandmark = -1;
+			double maxMinDistance = -1.0;
+			for (int index = 0; index < size; index++)
+			{
+				boolean direct = adjacency	.get(index)
+											.stream()
+											.anyMatch(targetAndDistance -> (int) targetAndDistance[0] == currentLandmark);
+				if (index != currentLandmark && !direct && !Double.isInfinite(distances[index]))
+				{
+					landmarkTerms	.get(index)
+									.add(new double[] { currentLandmark, distances[index] });
+					landmarkTerms	.get(currentLandmark)
+									.add(new double[] { index, distances[index] });
+				}
+
+				minDistances[index] = Math.min(minDistances[index], distances[index]);
+				if (minDistances[index] > maxMinDistance && !Double.isInfinite(minDistances[index]))
+				{
+					maxMinDistance = minDistances[index];
+					nextLandmark = index;
+				}
+			}
+			if (nextLandmark < 0 || maxMinDistance <= 0.0)
+			{
+				break;
+			}
+			landmark = nextLandmark;
+		}
+		return landmarkTerms;
+	}
+
+	private static double[] shortestDistances(int source, List<List<double[]>> adjacency)
+	{
+		double[] distances = new double[adjacency.size()];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		distances[source] = 0.0;
+
+		PriorityQueue<double[]> queue = new PriorityQueue<>((entry1, entry2) -> Double.compare(entry1[1], entry2[1]));
+		queue.add(new double[] { source, 0.0 });
+		while (!queue.isEmpty())
+		{
+			double[] entry = queue.poll();
+			int index = (int) entry[0];
+			if (entry[1] > distances[index])
+			{
+				continue;
+			}
+			for (double[] targetAndDistance : adjacency.get(index))
+			{
+				int target = (int) targetAndDistance[0];
+				double distance = entry[1] + targetAndDistance[1];
+				if (distance < distances[target])
+				{
+					distances[target] = distance;
+					queue.add(new double[] { target, distance });
+				}
+			}
+		}
+		return distances;
+	}
+
+	private static double distance(double[] locations, int offset1, int offset2, int dimensions)
+	{
+		double distanceSquare = 0.0;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			double delta = locations[offset1 + ii] - locations[offset2 + ii];
+			distanceSquare += delta * delta;
+		}
+		return Math.sqrt(distanceSquare);
+	}
+
+}
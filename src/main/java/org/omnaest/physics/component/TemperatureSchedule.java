@@ -0,0 +1,141 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import org.omnaest.physics.domain.Particle;
+
+/**
+ * Simulated annealing temperature, which caps the displacement of every {@link Particle} per tick. The temperature is cooled after every tick,
+ * either by a fixed cooling factor or adaptively in the style of Hu:<br>
+ * <ul>
+ * <li>if the energy has increased, the temperature is cooled</li>
+ * <li>if the energy has decreased for a number of ticks in a row, the temperature is raised again by the inverse cooling factor</li>
+ * </ul>
+ * The temperature never falls below the minimum temperature.
+ * 
+ * @author omnaest
+ */
+public class TemperatureSchedule
+{
+	private static final int PROGRESS_STEPS = 5;
+
+	private double	initialTemperature;
+	private double	temperature;
+	private double	minTemperature	= 0.01;
+	private double	coolingFactor	= 0.95;
+	private boolean	adaptive		= false;
+
+	private double	lastEnergy	= Double.NaN;
+	private int		progress	= 0;
+
+	/**
+	 * @param initialTemperature
+	 *            maximum displacement of a {@link Particle} within the first tick
+	 */
+	public TemperatureSchedule(double initialTemperature)
+	{
+		super();
+		this.initialTemperature = initialTemperature;
+		this.temperature = initialTemperature;
+	}
+
+	/**
+	 * Sets the factor the temperature is multiplied with on cooling. Defaults to 0.95
+	 * 
+	 * @param coolingFactor
+	 * @return this
+	 */
+	public TemperatureSchedule setCoolingFactor(double coolingFactor)
+	{
+		this.coolingFactor = coolingFactor;
+		return this;
+	}
+
+	/**
+	 * Sets the minimum temperature. Defaults to 0.01
+	 * 
+	 * @param minTemperature
+	 * @return this
+	 */
+	public TemperatureSchedule setMinTemperature(double minTemperature)
+	{
+		this.minTemperature = minTemperature;
+		return this;
+	}
+
+	/**
+	 * Enables the adaptive cooling based on the energy of the ticks, otherwise the temperature is cooled on every tick. Defaults to false
+	 * 
+	 * @param adaptive
+	 * @return this
+	 */
+	public TemperatureSchedule setAdaptive(boolean adaptive)
+	{
+		this.adaptive = adaptive;
+		return this;
+	}
+
+	public double getTemperature()
+	{
+		return this.temperature;
+	}
+
+	/**
+	 * Restarts the schedule with the initial temperature
+	 * 
+	 * @return this
+	 */
+	public TemperatureSchedule reset()
+	{
+		this.temperature = this.initialTemperature;
+		this.lastEnergy = Double.NaN;
+		this.progress = 0;
+		return this;
+	}
+
+	/**
+	 * Updates the temperature after a tick
+	 * 
+	 * @param energy
+	 *            energy of the finished tick, e.g. the sum of the squared forces
+	 */
+	public synchronized void update(double energy)
+	{
+		if (!this.adaptive)
+		{
+			this.temperature *= this.coolingFactor;
+		}
+		else if (!Double.isNaN(this.lastEnergy) && energy < this.lastEnergy)
+		{
+			if (++this.progress >= PROGRESS_STEPS)
+			{
+				this.progress = 0;
+				this.temperature = Math.min(this.initialTemperature, this.temperature / this.coolingFactor);
+			}
+		}
+		else
+		{
+			this.progress = 0;
+			this.temperature *= this.coolingFactor;
+		}
+		this.temperature = Math.max(this.minTemperature, this.temperature);
+		this.lastEnergy = energy;
+	}
+
+}
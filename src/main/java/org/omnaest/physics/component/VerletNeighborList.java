@@ -0,0 +1,340 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ShortRangeForceProvider;
+
+/**
+ * Verlet neighbor list for {@link ShortRangeForceProvider}s. Every {@link Particle} gets the list of {@link Particle}s within the cutoff plus a
+ * skin distance. The list is only rebuilt if the cutoff grows, the {@link Particle}s change or any {@link Particle} has moved more than half of
+ * the skin distance since the last rebuild.
+ * 
+ * @see #update(List, double)
+ * @see #isInRange(ForceProvider, Particle)
+ * @author omnaest
+ */
+public class VerletNeighborList
+{
+	private double			skin;
+	private volatile State	state			= null;
+	private volatile int	rebuildCount	= 0;
+
+	private static class State
+	{
+		private Particle[]				particles;
+		private Map<Particle, Integer>	particleToIndex;
+		private double[][]				referenceLocations;
+		private int[][]					neighbors;
+		private double					cutoff;
+	}
+
+	public VerletNeighborList(double skin)
+	{
+		super();
+		this.skin = skin;
+	}
+
+	public double getSkin()
+	{
+		return this.skin;
+	}
+
+	public int getRebuildCount()
+	{
+		return this.rebuildCount;
+	}
+
+	/**
+	 * Forces a rebuild on the next {@link #update(List, double)}
+	 */
+	public void invalidate()
+	{
+		this.state = null;
+	}
+
+	/**
+	 * Rebuilds the neighbor list if necessary
+	 * 
+	 * @param particles
+	 * @param cutoff
+	 *            maximum range of all {@link ShortRangeForceProvider}s
+	 */
+	public synchronized void update(List<Particle> particles, double cutoff)
+	{
+		if (this.isRebuildNecessary(particles, cutoff))
+		{
+			this.state = this.build(particles, cutoff);
+			this.rebuildCount++;
+		}
+	}
+
+	/**
+	 * Returns false if the given {@link ForceProvider} is a {@link ShortRangeForceProvider} whose source {@link Particle} is not within the
+	 * neighborhood of the given {@link Particle}, otherwise true
+	 * 
+	 * @param forceProvider
+	 * @param particle
+	 * @return
+	 */
+	public boolean isInRange(ForceProvider forceProvider, Particle particle)
+	{
+		boolean retval = true;
+		if (forceProvider instanceof ShortRangeForceProvider)
+		{
+			Particle sourceParticle = ((ShortRangeForceProvider) forceProvider).getSourceParticle(particle);
+			retval = this.isNeighbor(particle, sourceParticle);
+		}
+		return retval;
+	}
+
+	/**
+	 * Returns true if both {@link Particle}s are within the cutoff plus skin distance or if any of them is not tracked by this list
+	 * 
+	 * @param particle
+	 * @param otherParticle
+	 * @return
+	 */
+	public boolean isNeighbor(Particle particle, Particle otherParticle)
+	{
+		State state = this.state;
+		if (state == null)
+		{
+			return true;
+		}
+
+		Integer index = state.particleToIndex.get(particle);
+		Integer otherIndex = state.particleToIndex.get(otherParticle);
+		return index == null || otherIndex == null || Arrays.binarySearch(state.neighbors[index], otherIndex) >= 0;
+	}
+
+	/**
+	 * Returns the {@link Particle}s within the cutoff plus skin distance of the given {@link Particle}, excluding the {@link Particle} itself.
+	 * Returns null if the given {@link Particle} is not tracked by this list.
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public List<Particle> getNeighbors(Particle particle)
+	{
+		State state = this.state;
+		Integer index = state != null ? state.particleToIndex.get(particle) : null;
+		if (index == null)
+		{
+			return null;
+		}
+
+		int[] neighbors = state.neighbors[index];
+		List<Particle> retlist = new ArrayList<>(neighbors.length);
+		for (int neighbor : neighbors)
+		{
+			retlist.add(state.particles[neighbor]);
+		}
+		return retlist;
+	}
+
+	/**
+	 * Returns true if the given {@link Particle} is tracked by this list
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public boolean isTracked(Particle particle)
+	{
+		State state = this.state;
+		return state != null && state.particleToIndex.containsKey(particle);
+	}
+
+	private boolean isRebuildNecessary(List<Particle> particles, double cutoff)
+	{
+		State state = this.state;
+		if (state == null || cutoff > state.cutoff || particles.size() != state.particleToIndex.size())
+		{
+			return true;
+		}
+
+		double maxDisplacement = this.skin / 2.0;
+		double maxDisplacementSquare = maxDisplacement * maxDisplacement;
+		for (Particle particle : particles)
+		{
+			Integer index = state.particleToIndex.get(particle);
+			if (index == null)
+			{
+				return true;
+			}
+
+			double[] referenceLocation = state.referenceLocations[index];
+			double[] location = particle.getLocation()
+										.getCoordinates();
+			if (location.length != referenceLocation.length || distanceSquare(location, referenceLocation) > maxDisplacementSquare)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private State build(List<Particle> particles, double cutoff)
+	{
+		int size = particles.size();
+
+		State state = new State();
+		state.cutoff = cutoff;
+		state.particles = particles.toArray(new Particle[size]);
+		state.particleToIndex = new IdentityHashMap<>(size);
+		state.referenceLocations = new double[size][];
+		for (int ii = 0; ii < size; ii++)
+		{
+			Particle particle = particles.get(ii);
+			state.particleToIndex.put(particle, ii);
+			state.referenceLocations[ii] = particle	.getLocation()
+													.getCoordinates();
+		}
+
+		double range = cutoff + this.skin;
+		double rangeSquare = range * range;
+
+		List<List<Integer>> neighbors = new ArrayList<>(size);
+		for (int ii = 0; ii < size; ii++)
+		{
+			neighbors.add(new ArrayList<>());
+		}
+
+		Map<CellKey, List<Integer>> cells = new HashMap<>();
+		for (int ii = 0; ii < size; ii++)
+		{
+			cells	.computeIfAbsent(new CellKey(state.referenceLocations[ii], range), key -> new ArrayList<>())
+					.add(ii);
+		}
+
+		for (int ii = 0; ii < size; ii++)
+		{
+			double[] location = state.referenceLocations[ii];
+			for (CellKey cellKey : new CellKey(location, range).getAdjacentKeys())
+			{
+				List<Integer> cell = cells.get(cellKey);
+				if (cell != null)
+				{
+					for (int jj : cell)
+					{
+						if (jj > ii && distanceSquare(location, state.referenceLocations[jj]) <= rangeSquare)
+						{
+							neighbors	.get(ii)
+										.add(jj);
+							neighbors	.get(jj)
+										.add(ii);
+						}
+					}
+				}
+			}
+		}
+
+		state.neighbors = new int[size][];
+		for (int ii = 0; ii < size; ii++)
+		{
+			int[] indexes = neighbors	.get(ii)
+										.stream()
+										.mapToInt(Integer::intValue)
+										.toArray();
+			Arrays.sort(indexes);
+			state.neighbors[ii] = indexes;
+		}
+		return state;
+	}
+
+	private static double distanceSquare(double[] location1, double[] location2)
+	{
+		double retval = 0.0;
+		int dimensions = Math.max(location1.length, location2.length);
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			double delta = (ii < location1.length ? location1[ii] : 0.0) - (ii < location2.length ? location2[ii] : 0.0);
+			retval += delta * delta;
+		}
+		return retval;
+	}
+
+	/**
+	 * Key of a cubic cell of the spatial hash grid
+	 * 
+	 * @author omnaest
+	 */
+	private static class CellKey
+	{
+		private long[] coordinates;
+
+		public CellKey(double[] location, double cellSize)
+		{
+			this(new long[location.length]);
+			for (int ii = 0; ii < location.length; ii++)
+			{
+				this.coordinates[ii] = (long) Math.floor(location[ii] / cellSize);
+			}
+		}
+
+		private CellKey(long[] coordinates)
+		{
+			super();
+			this.coordinates = coordinates;
+		}
+
+		public List<CellKey> getAdjacentKeys()
+		{
+			List<CellKey> retlist = new ArrayList<>();
+			this.addAdjacentKeys(this.coordinates.clone(), 0, retlist);
+			return retlist;
+		}
+
+		private void addAdjacentKeys(long[] coordinates, int dimension, List<CellKey> keys)
+		{
+			if (dimension >= coordinates.length)
+			{
+				keys.add(new CellKey(coordinates.clone()));
+			}
+			else
+			{
+				for (long offset = -1; offset <= 1; offset++)
+				{
+					coordinates[dimension] = this.coordinates[dimension] + offset;
+					this.addAdjacentKeys(coordinates, dimension + 1, keys);
+				}
+			}
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Arrays.hashCode(this.coordinates);
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			return obj instanceof CellKey && Arrays.equals(this.coordinates, ((CellKey) obj).coordinates);
+		}
+	}
+}
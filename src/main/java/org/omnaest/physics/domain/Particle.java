@@ -28,7 +28,16 @@ import org.omnaest.vector.Vector;
 
 public class Particle
 {
-	private AtomicReference<Vector> location = new AtomicReference<>();
+	/**
+	 * Id of the {@link Particle}s which do not take an id from the pool, see {@link #newAnchorParticle(Vector)}
+	 */
+	public static final int NO_ID = -1;
+
+	private static final ParticleIdPool ID_POOL = new ParticleIdPool();
+
+	private final int				id;
+	private AtomicReference<Vector>	location		= new AtomicReference<>();
+	private volatile int			collisionLayers	= 1;
 
 	public Particle(int dimensions)
 	{
@@ -42,9 +51,52 @@ public class Particle
 	protected Particle(Vector location)
 	{
 		super();
+		this.id = ID_POOL.acquire(this);
+		this.location.set(location);
+	}
+
+	private Particle(Vector location, int id)
+	{
+		super();
+		this.id = id;
 		this.location.set(location);
 	}
 
+	/**
+	 * Returns the id of the {@link Particle}, which is unique among all living {@link Particle}s. The ids of garbage collected {@link Particle}s
+	 * are reused, so the ids stay compact but are not ordered by creation. Anchor {@link Particle}s have {@link #NO_ID}.
+	 * 
+	 * @see ParticleIdSet
+	 * @return
+	 */
+	public int getId()
+	{
+		return this.id;
+	}
+
+	/**
+	 * Returns the bitmask of the collision layers the {@link Particle} belongs to, which is layer 0 by default
+	 * 
+	 * @see org.omnaest.physics.domain.force.CollisionLayers
+	 * @return
+	 */
+	public int getCollisionLayers()
+	{
+		return this.collisionLayers;
+	}
+
+	/**
+	 * Sets the bitmask of the collision layers, e.g. <code>1 &lt;&lt; 2</code> for layer 2
+	 * 
+	 * @param collisionLayers
+	 * @return
+	 */
+	public Particle setCollisionLayers(int collisionLayers)
+	{
+		this.collisionLayers = collisionLayers;
+		return this;
+	}
+
 	public Vector getLocation()
 	{
 		return this.location.get();
@@ -58,8 +110,7 @@ public class Particle
 
 	public Particle move(Vector distance)
 	{
-		this.location.set(this.location	.get()
-										.add(distance));
+		this.location.updateAndGet(location -> location.add(distance));
 		return this;
 	}
 
@@ -73,6 +124,18 @@ public class Particle
 		return new Particle(location);
 	}
 
+	/**
+	 * Returns a {@link Particle} at a fixed location, like the dummy counterpart of a {@link org.omnaest.physics.domain.force.ForceProvider} to
+	 * a point, which does not take an id from the pool and is never contained in a {@link ParticleIdSet}
+	 * 
+	 * @param location
+	 * @return
+	 */
+	public static Particle newAnchorParticle(Vector location)
+	{
+		return new Particle(location, NO_ID);
+	}
+
 	@Override
 	public String toString()
 	{
@@ -0,0 +1,85 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Pool of the {@link Particle#getId()}s. The id of a {@link Particle} is released as soon as the {@link Particle} has been garbage collected, and
+ * the lowest released id is reused for the next {@link Particle}. So the ids of the living {@link Particle}s stay dense even if {@link Particle}s
+ * are created and dropped over and over.
+ * 
+ * @author omnaest
+ */
+class ParticleIdPool
+{
+	private final ReferenceQueue<Particle>	queue		= new ReferenceQueue<>();
+	private final Set<IdReference>			references	= new HashSet<>();
+	private final BitSet					freeIds		= new BitSet();
+	private int								nextId		= 0;
+
+	private static class IdReference extends PhantomReference<Particle>
+	{
+		private int id;
+
+		public IdReference(Particle particle, int id, ReferenceQueue<Particle> queue)
+		{
+			super(particle, queue);
+			this.id = id;
+		}
+	}
+
+	/**
+	 * Returns the id for the given new {@link Particle}, which is released again after the {@link Particle} has been garbage collected
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public synchronized int acquire(Particle particle)
+	{
+		this.releaseCollectedIds();
+
+		int id = this.freeIds.nextSetBit(0);
+		if (id >= 0)
+		{
+			this.freeIds.clear(id);
+		}
+		else
+		{
+			id = this.nextId++;
+		}
+		this.references.add(new IdReference(particle, id, this.queue));
+		return id;
+	}
+
+	private void releaseCollectedIds()
+	{
+		for (Reference<? extends Particle> reference = this.queue.poll(); reference != null; reference = this.queue.poll())
+		{
+			IdReference idReference = (IdReference) reference;
+			this.references.remove(idReference);
+			this.freeIds.set(idReference.id);
+		}
+	}
+}
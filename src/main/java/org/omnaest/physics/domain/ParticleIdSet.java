@@ -0,0 +1,121 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of {@link Particle}s based on their {@link Particle#getId()}. Dense sets are stored as bitset over the range of ids, so
+ * {@link #contains(Particle)} is a single bit test, sparse sets as sorted array of ids with a binary search.<br>
+ * <br>
+ * The set references its {@link Particle}s, so their ids are not reused for other {@link Particle}s while the set is in use. Anchor
+ * {@link Particle}s without an id are left out.
+ * 
+ * @author omnaest
+ */
+public class ParticleIdSet
+{
+	public static final ParticleIdSet EMPTY = new ParticleIdSet(new Particle[0], new int[0]);
+
+	//keeps the ids of the particles from being reused
+	private Particle[]	particles;
+	private int			size;
+	private int			offset;
+	private long[]		words	= null;
+	private int[]		ids		= null;
+
+	private ParticleIdSet(Particle[] particles, int[] sortedIds)
+	{
+		super();
+		this.particles = particles;
+		this.size = sortedIds.length;
+		if (sortedIds.length > 0)
+		{
+			this.offset = sortedIds[0];
+			long range = (long) sortedIds[sortedIds.length - 1] - this.offset + 1;
+			int numberOfWords = (int) ((range + 63) / 64);
+			if (numberOfWords <= sortedIds.length)
+			{
+				this.words = new long[numberOfWords];
+				for (int id : sortedIds)
+				{
+					int bit = id - this.offset;
+					this.words[bit >>> 6] |= 1L << bit;
+				}
+			}
+			else
+			{
+				this.ids = sortedIds;
+			}
+		}
+	}
+
+	public static ParticleIdSet of(Particle... particles)
+	{
+		return of(Arrays.asList(particles));
+	}
+
+	public static ParticleIdSet of(Collection<Particle> particles)
+	{
+		if (particles == null || particles.isEmpty())
+		{
+			return EMPTY;
+		}
+		int[] ids = particles	.stream()
+								.mapToInt(Particle::getId)
+								.filter(id -> id != Particle.NO_ID)
+								.sorted()
+								.distinct()
+								.toArray();
+		return new ParticleIdSet(particles.toArray(new Particle[particles.size()]), ids);
+	}
+
+	public boolean contains(Particle particle)
+	{
+		return this.contains(particle.getId());
+	}
+
+	public boolean contains(int id)
+	{
+		if (this.words != null)
+		{
+			int bit = id - this.offset;
+			return bit >= 0 && (bit >>> 6) < this.words.length && (this.words[bit >>> 6] & (1L << bit)) != 0;
+		}
+		return this.ids != null && Arrays.binarySearch(this.ids, id) >= 0;
+	}
+
+	public int size()
+	{
+		return this.size;
+	}
+
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ParticleIdSet [size=" + this.size + "]";
+	}
+
+}
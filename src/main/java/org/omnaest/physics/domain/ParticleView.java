@@ -0,0 +1,54 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain;
+
+import org.omnaest.vector.Vector;
+
+/**
+ * Read only indexed view on the locations of all {@link Particle}s of a simulation. The coordinates of the {@link Particle} with a given index
+ * are stored in a flat array at the position <code>index * {@link #getDimensions()} + dimension</code>, which is the same layout the force
+ * arrays are using.
+ * 
+ * @author omnaest
+ */
+public interface ParticleView
+{
+	public int size();
+
+	/**
+	 * Returns the maximum number of dimensions of all {@link Particle}s
+	 * 
+	 * @return
+	 */
+	public int getDimensions();
+
+	public Particle getParticle(int index);
+
+	/**
+	 * Returns the index of the given {@link Particle} or -1 if it is not part of this {@link ParticleView}
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public int indexOf(Particle particle);
+
+	public double getCoordinate(int index, int dimension);
+
+	public Vector getLocation(int index);
+}
@@ -22,18 +22,20 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleIdSet;
+import org.omnaest.physics.domain.ParticleView;
 import org.omnaest.vector.Vector;
 
-public class AntiCollisionForceProvider implements ForceProvider
+public class AntiCollisionForceProvider implements ShortRangeForceProvider, PotentialEnergyProvider
 {
 	private Particle		particle;
 	protected double		strength			= 1000000000;
 	private double			collisionDistance;
-	private Set<Particle>	exclusionParticles	= Collections.emptySet();
-	private Set<Particle>	inclusionParticles	= null;
+	private ParticleIdSet	exclusionParticles	= ParticleIdSet.EMPTY;
+	private ParticleIdSet	inclusionParticles	= null;
+	private CollisionLayers	collisionLayers		= null;
 
 	public AntiCollisionForceProvider(Particle particle, double collisionDistance)
 	{
@@ -48,9 +50,30 @@ public class AntiCollisionForceProvider implements ForceProvider
 		return this.inclusionParticles == null ? Type.ALL_MATCHING : Type.SPECIFIC;
 	}
 
+	/**
+	 * Restricts the collisions to the given {@link Particle}s, a null value removes the restriction. The {@link Set} is copied into a
+	 * {@link ParticleIdSet}, so later changes of it have no effect.
+	 * 
+	 * @param inclusionParticles
+	 * @return
+	 */
 	public AntiCollisionForceProvider setInclusionParticles(Set<Particle> inclusionParticles)
 	{
-		this.inclusionParticles = inclusionParticles;
+		this.inclusionParticles = inclusionParticles != null ? ParticleIdSet.of(inclusionParticles) : null;
+		return this;
+	}
+
+	/**
+	 * Restricts the collisions to the {@link Particle}s of layers which collide with the layers of the own {@link Particle}, a null value removes
+	 * the restriction
+	 * 
+	 * @see Particle#setCollisionLayers(int)
+	 * @param collisionLayers
+	 * @return
+	 */
+	public AntiCollisionForceProvider setCollisionLayers(CollisionLayers collisionLayers)
+	{
+		this.collisionLayers = collisionLayers;
 		return this;
 	}
 
@@ -65,23 +88,63 @@ public class AntiCollisionForceProvider implements ForceProvider
 		return this;
 	}
 
+	public double getStrength()
+	{
+		return this.strength;
+	}
+
 	public Particle getParticle()
 	{
 		return this.particle;
 	}
 
+	@Override
+	public Particle getSourceParticle(Particle particle)
+	{
+		return this.particle;
+	}
+
+	@Override
+	public double getRange()
+	{
+		return this.collisionDistance;
+	}
+
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return Collections.singletonList(this.particle);
+	}
+
 	@Override
 	public boolean match(Particle particle)
 	{
-		return !this.particle.equals(particle) && !this.exclusionParticles.contains(particle)
-				&& (this.inclusionParticles == null || this.inclusionParticles != null && this.inclusionParticles.contains(particle));
+		int id = particle.getId();
+		return this.particle != particle && !this.exclusionParticles.contains(id)
+				&& (this.inclusionParticles == null || this.inclusionParticles.contains(id))
+				&& (this.collisionLayers == null || this.collisionLayers.collide(this.particle, particle));
 	}
 
 	@Override
 	public Vector getForce(Particle particle)
 	{
-		Vector delta = particle	.getLocation()
-								.subtract(this.particle.getLocation());
+		return this.calculateForce(particle.getLocation(), this.particle.getLocation());
+	}
+
+	/**
+	 * Uses the location of the own {@link Particle} within the {@link ParticleView}, or its current location if it is not part of it
+	 */
+	@Override
+	public Vector getForce(ParticleView particleView, int index)
+	{
+		int sourceIndex = particleView.indexOf(this.particle);
+		Vector sourceLocation = sourceIndex >= 0 ? particleView.getLocation(sourceIndex) : this.particle.getLocation();
+		return this.calculateForce(particleView.getLocation(index), sourceLocation);
+	}
+
+	private Vector calculateForce(Vector location, Vector sourceLocation)
+	{
+		Vector delta = location.subtract(sourceLocation);
 		double distance = delta.absolute();
 		if (distance <= 0.001)
 		{
@@ -101,6 +164,20 @@ public class AntiCollisionForceProvider implements ForceProvider
 		return force;
 	}
 
+	/**
+	 * The potential energy of a colliding pair is <code>strength / 3 * (collisionDistance - distance)^3</code>. Since the pair is usually covered by
+	 * the {@link AntiCollisionForceProvider}s of both {@link Particle}s, each of them attributes half of it to the colliding {@link Particle}.
+	 */
+	@Override
+	public double getEnergy(Particle particle)
+	{
+		double distance = particle	.getLocation()
+									.subtract(this.particle.getLocation())
+									.absolute();
+		double delta = Math.max(0.0, this.collisionDistance - distance);
+		return this.strength / 6.0 * delta * delta * delta;
+	}
+
 	public AntiCollisionForceProvider setExclusionParticles(Particle... exclusionParticles)
 	{
 		return this.setExclusionParticles(Arrays.asList(exclusionParticles));
@@ -108,8 +185,7 @@ public class AntiCollisionForceProvider implements ForceProvider
 
 	public AntiCollisionForceProvider setExclusionParticles(Collection<Particle> exclusionParticles)
 	{
-		this.exclusionParticles = exclusionParticles.stream()
-													.collect(Collectors.toSet());
+		this.exclusionParticles = ParticleIdSet.of(exclusionParticles);
 		return this;
 	}
 
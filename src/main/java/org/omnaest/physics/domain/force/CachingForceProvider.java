@@ -0,0 +1,225 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * A {@link ForceProvider} which caches the forces of another {@link ForceProvider}. A cached force is reused until the {@link Particle} it
+ * acts on or any of the {@link ForceProvider#getDependencies()} has moved more than the given epsilon distance since the force was
+ * calculated.<br>
+ * <br>
+ * If the dependencies of the wrapped {@link ForceProvider} are unknown, nothing is cached. Changes of the parameters of the wrapped
+ * {@link ForceProvider} are detected via {@link ForceProvider#getParameterVersion()}, for untracked parameters use {@link #invalidate()}.
+ * 
+ * @author omnaest
+ */
+public class CachingForceProvider implements ForceProvider
+{
+	private ForceProvider	forceProvider;
+	private double			epsilon;
+
+	private Map<Particle, CacheEntry> particleToCacheEntry = new ConcurrentHashMap<>();
+
+	private static class CacheEntry
+	{
+		private Vector[]	locations;
+		private double[][]	coordinates;
+		private long		parameterVersion;
+		private Vector		force;
+
+		public CacheEntry(Vector[] locations, long parameterVersion, Vector force)
+		{
+			super();
+			this.locations = locations;
+			this.coordinates = new double[locations.length][];
+			for (int ii = 0; ii < locations.length; ii++)
+			{
+				this.coordinates[ii] = locations[ii].getCoordinates();
+			}
+			this.parameterVersion = parameterVersion;
+			this.force = force;
+		}
+	}
+
+	public CachingForceProvider(ForceProvider forceProvider, double epsilon)
+	{
+		super();
+		this.forceProvider = forceProvider;
+		this.epsilon = epsilon;
+	}
+
+	public ForceProvider getForceProvider()
+	{
+		return this.forceProvider;
+	}
+
+	public double getEpsilon()
+	{
+		return this.epsilon;
+	}
+
+	/**
+	 * Clears all cached forces
+	 * 
+	 * @return this
+	 */
+	public CachingForceProvider invalidate()
+	{
+		this.particleToCacheEntry.clear();
+		return this;
+	}
+
+	@Override
+	public boolean match(Particle particle)
+	{
+		return this.forceProvider.match(particle);
+	}
+
+	@Override
+	public Vector getForce(Particle particle)
+	{
+		Collection<Particle> dependencies = this.forceProvider.getDependencies();
+		if (dependencies == null)
+		{
+			return this.forceProvider.getForce(particle);
+		}
+
+		long parameterVersion = this.forceProvider.getParameterVersion();
+		CacheEntry cacheEntry = this.particleToCacheEntry.get(particle);
+		if (cacheEntry == null || cacheEntry.parameterVersion != parameterVersion || this.hasMoved(cacheEntry, particle, dependencies))
+		{
+			cacheEntry = new CacheEntry(this.determineLocations(particle, dependencies), parameterVersion, this.forceProvider.getForce(particle));
+			this.particleToCacheEntry.put(particle, cacheEntry);
+		}
+		return cacheEntry.force;
+	}
+
+	private Vector[] determineLocations(Particle particle, Collection<Particle> dependencies)
+	{
+		Vector[] retval = new Vector[dependencies.size() + 1];
+		retval[0] = particle.getLocation();
+		int index = 1;
+		for (Particle dependency : dependencies)
+		{
+			retval[index++] = dependency.getLocation();
+		}
+		return retval;
+	}
+
+	/**
+	 * Compares the current locations with the cached ones without copying them, only locations with more than two dimensions are read via
+	 * {@link Vector#getCoordinates()}
+	 */
+	private boolean hasMoved(CacheEntry cacheEntry, Particle particle, Collection<Particle> dependencies)
+	{
+		if (cacheEntry.locations.length != dependencies.size() + 1)
+		{
+			return true;
+		}
+
+		double epsilonSquare = this.epsilon * this.epsilon;
+		if (this.hasMoved(cacheEntry, 0, particle.getLocation(), epsilonSquare))
+		{
+			return true;
+		}
+		int index = 1;
+		for (Particle dependency : dependencies)
+		{
+			if (this.hasMoved(cacheEntry, index++, dependency.getLocation(), epsilonSquare))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean hasMoved(CacheEntry cacheEntry, int index, Vector location, double epsilonSquare)
+	{
+		if (location == cacheEntry.locations[index])
+		{
+			return false;
+		}
+
+		double[] cachedCoordinates = cacheEntry.coordinates[index];
+		double distanceSquare = 0.0;
+		if (cachedCoordinates.length <= 2)
+		{
+			double deltaX = location.getX() - (cachedCoordinates.length > 0 ? cachedCoordinates[0] : 0.0);
+			double deltaY = location.getY() - (cachedCoordinates.length > 1 ? cachedCoordinates[1] : 0.0);
+			distanceSquare = deltaX * deltaX + deltaY * deltaY;
+		}
+		else
+		{
+			double[] coordinates = location.getCoordinates();
+			if (coordinates.length != cachedCoordinates.length)
+			{
+				return true;
+			}
+			for (int ii = 0; ii < coordinates.length; ii++)
+			{
+				double delta = coordinates[ii] - cachedCoordinates[ii];
+				distanceSquare += delta * delta;
+			}
+		}
+		return distanceSquare > epsilonSquare;
+	}
+
+	@Override
+	public Type getType()
+	{
+		return this.forceProvider.getType();
+	}
+
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return this.forceProvider.getDependencies();
+	}
+
+	@Override
+	public long getParameterVersion()
+	{
+		return this.forceProvider.getParameterVersion();
+	}
+
+	@Override
+	public void beforeTick()
+	{
+		this.forceProvider.beforeTick();
+	}
+
+	@Override
+	public void afterTick()
+	{
+		this.forceProvider.afterTick();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CachingForceProvider [forceProvider=" + this.forceProvider + ", epsilon=" + this.epsilon + "]";
+	}
+
+}
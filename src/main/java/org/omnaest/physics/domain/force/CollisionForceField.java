@@ -0,0 +1,302 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+
+/**
+ * {@link ForceField} which keeps all {@link Particle}s of colliding layers at the collision distance, with the same force law as the
+ * {@link AntiCollisionForceProvider}. Which layers collide is defined by the {@link CollisionLayers} matrix, so the filter of a pair is a single
+ * bit test of the mask of one {@link Particle} against the layers of the other one.<br>
+ * <br>
+ * The pairs are found via a uniform grid with the collision distance as cell size. The grid is a primitive open addressing table from the cell
+ * key to the first {@link Particle} of the cell, which is reused across the sub steps.
+ * 
+ * @see Particle#setCollisionLayers(int)
+ * @author omnaest
+ */
+public class CollisionForceField implements ForceField
+{
+	private static final int CELL_BITS = 21;
+
+	private double							collisionDistance;
+	private double							strength	= 1000000000;
+	private CollisionLayers					collisionLayers;
+	private final AtomicReference<CellGrid>	cellGrid	= new AtomicReference<>();
+
+	/**
+	 * Uniform grid with chained cells. The cells are held in an open addressing table of the cell keys, and the {@link Particle}s of a cell are
+	 * chained via {@link #nextIndex}.
+	 * 
+	 * @author omnaest
+	 */
+	private static class CellGrid
+	{
+		private int[]	layers		= new int[0];
+		private int[]	masks		= new int[0];
+		private int[]	cells		= new int[0];
+		private int[]	nextIndex	= new int[0];
+		private long[]	tableKeys	= new long[0];
+		private int[]	tableValues	= new int[0];
+
+		private void reset(int size)
+		{
+			if (this.layers.length < size)
+			{
+				this.layers = new int[size];
+				this.masks = new int[size];
+				this.cells = new int[size * 3];
+				this.nextIndex = new int[size];
+			}
+
+			int capacity = Integer.highestOneBit(Math.max(1, size) * 2 - 1) << 1;
+			if (this.tableValues.length != capacity)
+			{
+				this.tableKeys = new long[capacity];
+				this.tableValues = new int[capacity];
+			}
+			Arrays.fill(this.tableValues, -1);
+		}
+
+		/**
+		 * Adds the {@link Particle} with the given index to the cell with the given key
+		 */
+		private void add(long key, int index)
+		{
+			int slot = this.findSlot(key);
+			this.nextIndex[index] = this.tableValues[slot];
+			this.tableKeys[slot] = key;
+			this.tableValues[slot] = index;
+		}
+
+		/**
+		 * Returns the index of the first {@link Particle} of the cell with the given key or -1 for an empty cell
+		 */
+		private int getFirstIndex(long key)
+		{
+			return this.tableValues[this.findSlot(key)];
+		}
+
+		private int findSlot(long key)
+		{
+			int mask = this.tableValues.length - 1;
+			int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+			while (this.tableValues[slot] >= 0 && this.tableKeys[slot] != key)
+			{
+				slot = (slot + 1) & mask;
+			}
+			return slot;
+		}
+	}
+
+	public CollisionForceField(double collisionDistance, CollisionLayers collisionLayers)
+	{
+		super();
+		this.collisionDistance = collisionDistance;
+		this.collisionLayers = collisionLayers;
+	}
+
+	public CollisionForceField setStrength(double strength)
+	{
+		this.strength = strength;
+		return this;
+	}
+
+	public double getStrength()
+	{
+		return this.strength;
+	}
+
+	public double getCollisionDistance()
+	{
+		return this.collisionDistance;
+	}
+
+	public CollisionLayers getCollisionLayers()
+	{
+		return this.collisionLayers;
+	}
+
+	@Override
+	public Type getType()
+	{
+		return Type.ALL_MATCHING;
+	}
+
+	@Override
+	public void accumulate(ParticleView particleView, double[] forces)
+	{
+		int size = particleView.size();
+		int dimensions = particleView.getDimensions();
+		int gridDimensions = Math.min(3, dimensions);
+
+		//a concurrent accumulation allocates its own grid instead of sharing the reused one
+		CellGrid cellGrid = this.cellGrid.getAndSet(null);
+		if (cellGrid == null)
+		{
+			cellGrid = new CellGrid();
+		}
+		cellGrid.reset(size);
+
+		int[] layers = cellGrid.layers;
+		int[] masks = cellGrid.masks;
+		int[] cells = cellGrid.cells;
+		int[] nextIndex = cellGrid.nextIndex;
+		for (int ii = 0; ii < size; ii++)
+		{
+			layers[ii] = particleView	.getParticle(ii)
+										.getCollisionLayers();
+			masks[ii] = this.collisionLayers.getMask(layers[ii]);
+			this.determineCell(particleView, ii, gridDimensions, cells);
+			cellGrid.add(toKey(cells, ii, 0, 0, 0), ii);
+		}
+
+		double[] delta = new double[dimensions];
+		int range1 = gridDimensions >= 2 ? 1 : 0;
+		int range2 = gridDimensions >= 3 ? 1 : 0;
+		for (int ii = 0; ii < size; ii++)
+		{
+			if (masks[ii] == 0)
+			{
+				continue;
+			}
+			for (int offset0 = -1; offset0 <= 1; offset0++)
+			{
+				for (int offset1 = -range1; offset1 <= range1; offset1++)
+				{
+					for (int offset2 = -range2; offset2 <= range2; offset2++)
+					{
+						for (int jj = cellGrid.getFirstIndex(toKey(cells, ii, offset0, offset1, offset2)); jj >= 0; jj = nextIndex[jj])
+						{
+							if (jj > ii && (masks[ii] & layers[jj]) != 0)
+							{
+								this.accumulatePair(particleView, ii, jj, ii, jj, dimensions, delta, forces);
+							}
+						}
+					}
+				}
+			}
+		}
+		this.cellGrid.set(cellGrid);
+	}
+
+	/**
+	 * Evaluates only the pairs of the {@link Particle} with the given index, without building the grid
+	 */
+	@Override
+	public void accumulate(ParticleView particleView, int index, double[] force)
+	{
+		int size = particleView.size();
+		int dimensions = particleView.getDimensions();
+		int layer = particleView	.getParticle(index)
+									.getCollisionLayers();
+		int mask = this.collisionLayers.getMask(layer);
+
+		double[] delta = new double[dimensions];
+		double[] pairForces = new double[2 * dimensions];
+		for (int jj = 0; jj < size; jj++)
+		{
+			if (jj == index)
+			{
+				continue;
+			}
+			int otherLayer = particleView	.getParticle(jj)
+											.getCollisionLayers();
+			boolean colliding = jj > index ? (mask & otherLayer) != 0 : (this.collisionLayers.getMask(otherLayer) & layer) != 0;
+			if (colliding)
+			{
+				//the pair is evaluated in the same order as by the collective accumulation
+				Arrays.fill(pairForces, 0.0);
+				this.accumulatePair(particleView, Math.min(index, jj), Math.max(index, jj), 0, 1, dimensions, delta, pairForces);
+				int slot = jj > index ? 0 : 1;
+				for (int ii = 0; ii < dimensions; ii++)
+				{
+					force[ii] += pairForces[slot * dimensions + ii];
+				}
+			}
+		}
+	}
+
+	private void accumulatePair(ParticleView particleView, int index, int otherIndex, int slot, int otherSlot, int dimensions, double[] delta,
+								double[] forces)
+	{
+		double distance = 0.0;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			delta[ii] = particleView.getCoordinate(otherIndex, ii) - particleView.getCoordinate(index, ii);
+			distance += delta[ii] * delta[ii];
+		}
+		distance = Math.sqrt(distance);
+		if (distance > this.collisionDistance)
+		{
+			return;
+		}
+
+		double length = distance;
+		if (distance <= 0.001)
+		{
+			length = 0.0;
+			for (int ii = 0; ii < dimensions; ii++)
+			{
+				delta[ii] = ii < 2 ? Math.random() : 0.0;
+				length += delta[ii] * delta[ii];
+			}
+			length = Math.sqrt(length);
+		}
+
+		double effectiveDistance = this.collisionDistance - distance;
+		double factor = effectiveDistance * effectiveDistance * this.strength / length;
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			forces[otherSlot * dimensions + ii] += factor * delta[ii];
+			forces[slot * dimensions + ii] -= factor * delta[ii];
+		}
+	}
+
+	/**
+	 * Writes the three cell coordinates of the {@link Particle} with the given index into the given cells at <code>index * 3</code>
+	 */
+	private void determineCell(ParticleView particleView, int index, int gridDimensions, int[] cells)
+	{
+		for (int ii = 0; ii < 3; ii++)
+		{
+			cells[index * 3 + ii] = ii < gridDimensions ? (int) Math.floor(particleView.getCoordinate(index, ii) / this.collisionDistance) : 0;
+		}
+	}
+
+	private static long toKey(int[] cells, int index, int offset0, int offset1, int offset2)
+	{
+		long mask = (1L << CELL_BITS) - 1;
+		int offset = index * 3;
+		return ((cells[offset] + offset0) & mask) << (2 * CELL_BITS) | ((cells[offset + 1] + offset1) & mask) << CELL_BITS
+				| ((cells[offset + 2] + offset2) & mask);
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CollisionForceField [collisionDistance=" + this.collisionDistance + ", strength=" + this.strength + "]";
+	}
+
+}
@@ -0,0 +1,118 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import java.util.Arrays;
+
+import org.omnaest.physics.domain.Particle;
+
+/**
+ * Interaction matrix of the collision layers of {@link Particle}s, see {@link Particle#getCollisionLayers()}. By default all layers collide with
+ * each other. Whole layers can be disabled, which removes all collisions of their {@link Particle}s at once.
+ * 
+ * @see CollisionForceField
+ * @author omnaest
+ */
+public class CollisionLayers
+{
+	public static final int MAX_LAYERS = 32;
+
+	private volatile int[]	interactions	= newInteractions();
+	private volatile int	enabledLayers	= -1;
+
+	private static int[] newInteractions()
+	{
+		int[] interactions = new int[MAX_LAYERS];
+		Arrays.fill(interactions, -1);
+		return interactions;
+	}
+
+	/**
+	 * Defines if the {@link Particle}s of the two given layers collide with each other
+	 * 
+	 * @param layer1
+	 *            0 to 31
+	 * @param layer2
+	 *            0 to 31
+	 * @param collide
+	 * @return this
+	 */
+	public synchronized CollisionLayers setInteraction(int layer1, int layer2, boolean collide)
+	{
+		int[] interactions = this.interactions.clone();
+		if (collide)
+		{
+			interactions[layer1] |= 1 << layer2;
+			interactions[layer2] |= 1 << layer1;
+		}
+		else
+		{
+			interactions[layer1] &= ~(1 << layer2);
+			interactions[layer2] &= ~(1 << layer1);
+		}
+		this.interactions = interactions;
+		return this;
+	}
+
+	/**
+	 * Enables or disables all collisions of the given layer
+	 * 
+	 * @param layer
+	 *            0 to 31
+	 * @param enabled
+	 * @return this
+	 */
+	public synchronized CollisionLayers setEnabled(int layer, boolean enabled)
+	{
+		this.enabledLayers = enabled ? this.enabledLayers | 1 << layer : this.enabledLayers & ~(1 << layer);
+		return this;
+	}
+
+	/**
+	 * Returns the bitmask of all enabled layers the {@link Particle}s of the given layers collide with
+	 * 
+	 * @param layers
+	 *            bitmask of layers
+	 * @return
+	 */
+	public int getMask(int layers)
+	{
+		int enabledLayers = this.enabledLayers;
+		int[] interactions = this.interactions;
+		int mask = 0;
+		for (int remainingLayers = layers & enabledLayers; remainingLayers != 0; remainingLayers &= remainingLayers - 1)
+		{
+			mask |= interactions[Integer.numberOfTrailingZeros(remainingLayers)];
+		}
+		return mask & enabledLayers;
+	}
+
+	/**
+	 * Returns true if the given {@link Particle}s collide with each other
+	 * 
+	 * @param particle1
+	 * @param particle2
+	 * @return
+	 */
+	public boolean collide(Particle particle1, Particle particle2)
+	{
+		return (this.getMask(particle1.getCollisionLayers()) & particle2.getCollisionLayers()) != 0;
+	}
+
+}
@@ -18,10 +18,13 @@
 */
 package org.omnaest.physics.domain.force;
 
+import java.util.Arrays;
+import java.util.Collection;
+
 import org.omnaest.physics.domain.Particle;
 import org.omnaest.vector.Vector;
 
-public class DistanceForceProvider implements ForceProvider
+public class DistanceForceProvider implements PairForceProvider, PotentialEnergyProvider
 {
 	private Particle	particle1;
 	private Particle	particle2;
@@ -43,16 +46,34 @@ public class DistanceForceProvider implements ForceProvider
 		return this;
 	}
 
+	public double getDistance()
+	{
+		return this.distance;
+	}
+
+	public double getStrength()
+	{
+		return this.strength;
+	}
+
+	@Override
 	public Particle getParticle1()
 	{
 		return this.particle1;
 	}
 
+	@Override
 	public Particle getParticle2()
 	{
 		return this.particle2;
 	}
 
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return Arrays.asList(this.particle1, this.particle2);
+	}
+
 	@Override
 	public boolean match(Particle particle)
 	{
@@ -63,13 +84,19 @@ public class DistanceForceProvider implements ForceProvider
 	@Override
 	public Vector getForce(Particle particle)
 	{
-		Vector delta = this.particle1	.getLocation()
-										.subtract(this.particle2.getLocation());
+		Vector force = this.getPairForce();
+		return particle == this.particle1 ? force : force.multiply(-1.0);
+	}
+
+	@Override
+	public Vector getPairForce()
+	{
+		Vector delta = this.particle2	.getLocation()
+										.subtract(this.particle1.getLocation());
 		if (delta.absolute() <= 0.001)
 		{
 			delta = new Vector(Math.random(), Math.random()).divide(this.strength);
 		}
-		delta = delta.multiply(particle == this.particle1 ? -1.0 : 1.0);
 		double distanceToDistance = -1 * (this.distance - delta.absolute());
 		Vector force = delta.normVector()
 							.multiply(distanceToDistance)
@@ -77,6 +104,19 @@ public class DistanceForceProvider implements ForceProvider
 		return force;
 	}
 
+	/**
+	 * The potential energy <code>strength / 2 * (length - distance)^2</code> is shared equally by the matching {@link Particle}s
+	 */
+	@Override
+	public double getEnergy(Particle particle)
+	{
+		double length = this.particle2	.getLocation()
+										.subtract(this.particle1.getLocation())
+										.absolute();
+		double energy = 0.5 * this.strength * (length - this.distance) * (length - this.distance);
+		return this.match(this.particle1) && this.match(this.particle2) ? energy / 2.0 : energy;
+	}
+
 	@Override
 	public String toString()
 	{
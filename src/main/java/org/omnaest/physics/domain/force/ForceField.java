@@ -0,0 +1,79 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
+
+/**
+ * Collective counterpart of a {@link ForceProvider}. A {@link ForceField} calculates the forces for all {@link Particle}s within a single call,
+ * which allows to share work between the {@link Particle}s, like grids, trees or pair interactions.
+ * 
+ * @see #accumulate(ParticleView, double[])
+ * @author omnaest
+ */
+public interface ForceField
+{
+	/**
+	 * Adds the forces for the {@link Particle}s of the given {@link ParticleView} to the given forces array. The force of the {@link Particle}
+	 * with a given index is located at <code>index * {@link ParticleView#getDimensions()} + dimension</code>.
+	 * 
+	 * @param particleView
+	 * @param forces
+	 */
+	public void accumulate(ParticleView particleView, double[] forces);
+
+	/**
+	 * Adds the force of the single {@link Particle} with the given index of the {@link ParticleView} to the given force array with the length of
+	 * {@link ParticleView#getDimensions()}. The default implementation accumulates the forces of all {@link Particle}s and picks the one of the
+	 * index, so implementations should override it if they can evaluate a single {@link Particle} cheaper.
+	 * 
+	 * @param particleView
+	 * @param index
+	 * @param force
+	 */
+	public default void accumulate(ParticleView particleView, int index, double[] force)
+	{
+		int dimensions = particleView.getDimensions();
+		double[] forces = new double[particleView.size() * dimensions];
+		this.accumulate(particleView, forces);
+		for (int ii = 0; ii < dimensions; ii++)
+		{
+			force[ii] += forces[index * dimensions + ii];
+		}
+	}
+
+	public ForceProvider.Type getType();
+
+	/**
+	 * @see ForceProvider#beforeTick()
+	 */
+	public default void beforeTick()
+	{
+		//do nothing by default
+	}
+
+	/**
+	 * @see ForceProvider#afterTick()
+	 */
+	public default void afterTick()
+	{
+		//do nothing by default
+	}
+}
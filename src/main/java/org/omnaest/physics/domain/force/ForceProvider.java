@@ -19,8 +19,10 @@
 package org.omnaest.physics.domain.force;
 
 import java.util.Arrays;
+import java.util.Collection;
 
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
 import org.omnaest.vector.Vector;
 
 public interface ForceProvider
@@ -50,5 +52,61 @@ public interface ForceProvider
 
 	public Vector getForce(Particle particle);
 
+	/**
+	 * Returns the force for the {@link Particle} with the given index calculated with the locations of the given {@link ParticleView} instead of
+	 * the current locations of the {@link Particle}s. The default implementation falls back to {@link #getForce(Particle)}, which uses the
+	 * current locations.
+	 * 
+	 * @param particleView
+	 * @param index
+	 * @return
+	 */
+	public default Vector getForce(ParticleView particleView, int index)
+	{
+		return this.getForce(particleView.getParticle(index));
+	}
+
 	public Type getType();
+
+	/**
+	 * Returns the {@link Particle}s, apart from the {@link Particle} a force is calculated for, whose locations determine the forces of this
+	 * {@link ForceProvider}. Returns null if they are unknown, which is the default.
+	 * 
+	 * @return
+	 */
+	public default Collection<Particle> getDependencies()
+	{
+		return null;
+	}
+
+	/**
+	 * Returns a version of the state apart from the {@link Particle} locations the forces of this {@link ForceProvider} depend on, like a fixed
+	 * location or a strength. The version has to change whenever this state changes. Returns 0 by default, for a state which never changes or
+	 * is not tracked.
+	 * 
+	 * @see #getDependencies()
+	 * @return
+	 */
+	public default long getParameterVersion()
+	{
+		return 0;
+	}
+
+	/**
+	 * Is called once by the simulation before a tick starts. Allows to calculate state which is shared between all {@link Particle}s.
+	 */
+	public default void beforeTick()
+	{
+		//do nothing by default
+	}
+
+	/**
+	 * Is called once by the simulation after a tick has finished
+	 * 
+	 * @see #beforeTick()
+	 */
+	public default void afterTick()
+	{
+		//do nothing by default
+	}
 }
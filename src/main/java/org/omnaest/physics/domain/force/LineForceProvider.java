@@ -21,13 +21,16 @@ package org.omnaest.physics.domain.force;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.utils.DynamicParameters;
 import org.omnaest.vector.Vector;
 
 /**
@@ -39,8 +42,11 @@ public class LineForceProvider implements ForceProvider
 {
 	protected Collection<Particle> particles;
 
-	protected Supplier<Double>	distance	= () -> 0.0;
-	protected Supplier<Double>	strength	= () -> 0.1;
+	protected double			distance			= 0.0;
+	protected double			strength			= 0.1;
+	private DynamicParameters	dynamicParameters	= new DynamicParameters();
+
+	private volatile Map<Particle, Vector> tickForces = null;
 
 	public LineForceProvider(Particle... particles)
 	{
@@ -56,26 +62,58 @@ public class LineForceProvider implements ForceProvider
 
 	public LineForceProvider setDistance(double distance)
 	{
-		return this.setDistance(() -> distance);
+		this.dynamicParameters.unbind("distance");
+		this.distance = distance;
+		return this;
 	}
 
+	/**
+	 * Sets a dynamic distance, the {@link Supplier} is sampled once per tick
+	 * 
+	 * @param distance
+	 * @return
+	 */
 	public LineForceProvider setDistance(Supplier<Double> distance)
 	{
-		this.distance = distance;
+		this.dynamicParameters.bind("distance", distance, value -> this.distance = value);
 		return this;
 	}
 
 	public LineForceProvider setStrength(double strength)
 	{
-		return this.setStrength(() -> strength);
+		this.dynamicParameters.unbind("strength");
+		this.strength = strength;
+		return this;
 	}
 
+	/**
+	 * Sets a dynamic strength, the {@link Supplier} is sampled once per tick
+	 * 
+	 * @param strength
+	 * @return
+	 */
 	public LineForceProvider setStrength(Supplier<Double> strength)
 	{
-		this.strength = strength;
+		this.dynamicParameters.bind("strength", strength, value -> this.strength = value);
 		return this;
 	}
 
+	public double getDistance()
+	{
+		return this.distance;
+	}
+
+	public double getStrength()
+	{
+		return this.strength;
+	}
+
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return Collections.unmodifiableCollection(this.particles);
+	}
+
 	@Override
 	public boolean match(Particle particle)
 	{
@@ -85,65 +123,131 @@ public class LineForceProvider implements ForceProvider
 
 	@Override
 	public Vector getForce(Particle particle)
+	{
+		Map<Particle, Vector> tickForces = this.tickForces;
+		Vector force = tickForces != null ? tickForces.get(particle) : null;
+		if (force == null)
+		{
+			List<Vector> locations = this.determineLocations();
+			force = this.calculateForce(particle, particle.getLocation(), locations, this.calculateSum(locations), this.distance, this.strength);
+		}
+		return force;
+	}
+
+	/**
+	 * Calculates the forces for all {@link Particle}s of the line within a single pass. The sum of all locations and the parameters are only
+	 * determined once and the two closest points are selected in linear time for every {@link Particle}.
+	 * 
+	 * @return
+	 */
+	public Map<Particle, Vector> calculateForces()
+	{
+		Map<Particle, Vector> retmap = new IdentityHashMap<>(this.particles.size());
+
+		List<Vector> locations = this.determineLocations();
+		Vector sum = this.calculateSum(locations);
+		double distance = this.distance;
+		double strength = this.strength;
+
+		Iterator<Vector> locationIterator = locations.iterator();
+		for (Particle particle : this.particles)
+		{
+			Vector location = locationIterator.next();
+			retmap.put(particle, this.calculateForce(particle, location, locations, sum, distance, strength));
+		}
+		return retmap;
+	}
+
+	/**
+	 * Samples the dynamic parameters and calculates the forces of all {@link Particle}s once per tick, which are returned by {@link #getForce(Particle)} until {@link #afterTick()}
+	 */
+	@Override
+	public void beforeTick()
+	{
+		this.dynamicParameters.sample();
+		this.tickForces = this.calculateForces();
+	}
+
+	@Override
+	public void afterTick()
+	{
+		this.tickForces = null;
+	}
+
+	private List<Vector> determineLocations()
+	{
+		return this.particles	.stream()
+								.map(p -> p.getLocation())
+								.collect(Collectors.toList());
+	}
+
+	private Vector calculateSum(List<Vector> locations)
+	{
+		return locations.stream()
+						.reduce((l1, l2) -> l1.add(l2))
+						.orElse(Vector.NULL);
+	}
+
+	private Vector calculateForce(Particle particle, Vector location, List<Vector> locations, Vector sum, double distance, double strength)
 	{
 		Vector delta = Vector.NULL;
 
-		long countOfOtherParticles = this.particles	.stream()
-													.filter(p -> ObjectUtils.notEqual(p, particle))
-													.count();
-		if (countOfOtherParticles >= 2)
+		//
+		Vector sumOfOtherParticles = sum;
+		long countOfOtherParticles = 0;
+		Vector closestPoint1 = null;
+		Vector closestPoint2 = null;
+		double closestDistance1 = Double.POSITIVE_INFINITY;
+		double closestDistance2 = Double.POSITIVE_INFINITY;
+
+		Iterator<Vector> locationIterator = locations.iterator();
+		for (Particle otherParticle : this.particles)
 		{
-			Vector location = particle.getLocation();
-
-			Vector center = this.particles	.stream()
-											.filter(p -> ObjectUtils.notEqual(p, particle))
-											.map(p -> p.getLocation())
-											.reduce((l1, l2) -> l1.add(l2))
-											.get()
-											.divide(countOfOtherParticles);
-
-			List<Vector> closestPoints = this.particles	.stream()
-														.filter(p -> ObjectUtils.notEqual(p, particle))
-														.map(p -> p.getLocation())
-														.collect(Collectors.toList());
-
-			Collections.sort(closestPoints, (v1, v2) -> -1 * Double.compare(location.subtract(v1)
-																					.absolute(),
-																			location.subtract(v2)
-																					.absolute()));
-
-			while (closestPoints.size() > 2)
+			Vector otherLocation = locationIterator.next();
+			if (ObjectUtils.equals(otherParticle, particle))
 			{
-				closestPoints.remove(0);
+				sumOfOtherParticles = sumOfOtherParticles.subtract(otherLocation);
 			}
-
-			if (closestPoints.size() == 2)
+			else
 			{
-				Iterator<Vector> iterator = closestPoints.iterator();
-
-				Vector closestPoint1 = iterator.next();
-				Vector closestPoint2 = iterator.next();
+				countOfOtherParticles++;
+
+				double otherDistance = location	.subtract(otherLocation)
+												.absolute();
+				if (otherDistance < closestDistance1)
+				{
+					closestPoint2 = closestPoint1;
+					closestDistance2 = closestDistance1;
+					closestPoint1 = otherLocation;
+					closestDistance1 = otherDistance;
+				}
+				else if (otherDistance < closestDistance2)
+				{
+					closestPoint2 = otherLocation;
+					closestDistance2 = otherDistance;
+				}
+			}
+		}
 
-				Vector lineDirection = closestPoint2.subtract(closestPoint1);
+		if (countOfOtherParticles >= 2)
+		{
+			Vector center = sumOfOtherParticles.divide(countOfOtherParticles);
+			Vector lineDirection = closestPoint1.subtract(closestPoint2);
 
-				delta = location.closestDirectionToLine(center, lineDirection);
-			}
+			delta = location.closestDirectionToLine(center, lineDirection);
 		}
 
 		//
-		final double distance = this.distance.get();
-
 		if (delta.absolute() <= 0.001)
 		{
 			delta = new Vector(Math.random(), Math.random(), Math.random());
 		}
 
 		double absoluteDistanceDelta = delta.absolute() - distance;
-		double multiplier = this.strength.get();
 
 		Vector force = delta.normVector()
 							.multiply(absoluteDistanceDelta)
-							.multiply(multiplier);
+							.multiply(strength);
 		return force;
 	}
 
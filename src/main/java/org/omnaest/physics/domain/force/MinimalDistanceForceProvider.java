@@ -18,29 +18,44 @@
 */
 package org.omnaest.physics.domain.force;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.function.Supplier;
 
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.utils.DynamicParameters;
 import org.omnaest.vector.Vector;
 
-public class MinimalDistanceForceProvider implements ForceProvider
+public class MinimalDistanceForceProvider implements ShortRangeForceProvider, PairForceProvider, PotentialEnergyProvider
 {
 	private Particle			particle1;
 	private Particle			particle2;
-	private Supplier<Double>	distanceSupplier;
-	protected double			strength	= 100.0;
+	private double				distance;
+	protected double			strength			= 100.0;
+	private DynamicParameters	dynamicParameters	= new DynamicParameters();
 
 	public MinimalDistanceForceProvider(Particle particle1, Particle particle2, double distance)
 	{
-		this(particle1, particle2, () -> distance);
+		super();
+		this.particle1 = particle1;
+		this.particle2 = particle2;
+		this.distance = distance;
 	}
 
+	/**
+	 * Similar to {@link #MinimalDistanceForceProvider(Particle, Particle, double)} with a dynamic distance, whereby the {@link Supplier} is
+	 * sampled once per tick
+	 * 
+	 * @param particle1
+	 * @param particle2
+	 * @param distanceSupplier
+	 */
 	public MinimalDistanceForceProvider(Particle particle1, Particle particle2, Supplier<Double> distanceSupplier)
 	{
 		super();
 		this.particle1 = particle1;
 		this.particle2 = particle2;
-		this.distanceSupplier = distanceSupplier;
+		this.dynamicParameters.bind("distance", distanceSupplier, value -> this.distance = value);
 	}
 
 	@Override
@@ -55,16 +70,52 @@ public class MinimalDistanceForceProvider implements ForceProvider
 		return this;
 	}
 
+	@Override
 	public Particle getParticle1()
 	{
 		return this.particle1;
 	}
 
+	@Override
 	public Particle getParticle2()
 	{
 		return this.particle2;
 	}
 
+	@Override
+	public Particle getSourceParticle(Particle particle)
+	{
+		return particle == this.particle1 ? this.particle2 : this.particle1;
+	}
+
+	@Override
+	public double getRange()
+	{
+		return this.distance;
+	}
+
+	public double getDistance()
+	{
+		return this.distance;
+	}
+
+	public double getStrength()
+	{
+		return this.strength;
+	}
+
+	@Override
+	public void beforeTick()
+	{
+		this.dynamicParameters.sample();
+	}
+
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return Arrays.asList(this.particle1, this.particle2);
+	}
+
 	@Override
 	public boolean match(Particle particle)
 	{
@@ -74,15 +125,21 @@ public class MinimalDistanceForceProvider implements ForceProvider
 	@Override
 	public Vector getForce(Particle particle)
 	{
-		Vector delta = this.particle1	.getLocation()
-										.subtract(this.particle2.getLocation());
-		final double distance = this.distanceSupplier.get();
+		Vector force = this.getPairForce();
+		return particle == this.particle1 ? force : force.multiply(-1.0);
+	}
+
+	@Override
+	public Vector getPairForce()
+	{
+		Vector delta = this.particle2	.getLocation()
+										.subtract(this.particle1.getLocation());
+		final double distance = this.distance;
 
 		if (delta.absolute() <= 0.001)
 		{
 			delta = new Vector(Math.random(), Math.random());
 		}
-		delta = delta.multiply(particle == this.particle1 ? -1.0 : 1.0);
 		double absoluteDistanceDelta = distance - delta.absolute();
 		double multiplier = this.strength;
 
@@ -98,11 +155,24 @@ public class MinimalDistanceForceProvider implements ForceProvider
 		return force;
 	}
 
+	/**
+	 * The potential energy <code>strength / 2 * (distance - length)^2</code> below the minimal distance is shared equally by both {@link Particle}s
+	 */
+	@Override
+	public double getEnergy(Particle particle)
+	{
+		double length = this.particle2	.getLocation()
+										.subtract(this.particle1.getLocation())
+										.absolute();
+		double delta = Math.max(0.0, this.distance - length);
+		return 0.25 * this.strength * delta * delta;
+	}
+
 	@Override
 	public String toString()
 	{
-		return "MinimalDistanceForceProvider [particle1=" + this.particle1 + ", particle2=" + this.particle2 + ", distanceSupplier="
-				+ this.distanceSupplier.get() + ", strength=" + this.strength + "]";
+		return "MinimalDistanceForceProvider [particle1=" + this.particle1 + ", particle2=" + this.particle2 + ", distance=" + this.distance
+				+ ", strength=" + this.strength + "]";
 	}
 
 }
\ No newline at end of file
@@ -18,17 +18,29 @@
 */
 package org.omnaest.physics.domain.force;
 
+import java.util.Collection;
+
 import org.omnaest.physics.domain.Particle;
 import org.omnaest.vector.Vector;
 
-public class MinimalPointDistanceForceProvider implements ForceProvider
+public class MinimalPointDistanceForceProvider implements PotentialEnergyProvider
 {
-	private ForceProvider forceProvider;
+	private MinimalDistanceForceProvider forceProvider;
 
 	public MinimalPointDistanceForceProvider(Particle particle, double minimumDistance, double... coordinates)
 	{
 		super();
-		this.forceProvider = new MinimalDistanceForceProvider(particle, new Particle(coordinates.length).setLocation(new Vector(coordinates)), minimumDistance);
+		this.forceProvider = new MinimalDistanceForceProvider(particle, Particle.newAnchorParticle(new Vector(coordinates)), minimumDistance);
+	}
+
+	/**
+	 * Returns the {@link MinimalDistanceForceProvider} between the {@link Particle} and a fixed dummy {@link Particle} at the point
+	 * 
+	 * @return
+	 */
+	public MinimalDistanceForceProvider getForceProvider()
+	{
+		return this.forceProvider;
 	}
 
 	@Override
@@ -37,6 +49,12 @@ public class MinimalPointDistanceForceProvider implements ForceProvider
 		return Type.SPECIFIC;
 	}
 
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return this.forceProvider.getDependencies();
+	}
+
 	@Override
 	public boolean match(Particle particle)
 	{
@@ -49,6 +67,27 @@ public class MinimalPointDistanceForceProvider implements ForceProvider
 		return this.forceProvider.getForce(particle);
 	}
 
+	/**
+	 * The point does not move, so the whole potential energy is attributed to the {@link Particle}
+	 */
+	@Override
+	public double getEnergy(Particle particle)
+	{
+		return 2.0 * this.forceProvider.getEnergy(particle);
+	}
+
+	@Override
+	public void beforeTick()
+	{
+		this.forceProvider.beforeTick();
+	}
+
+	@Override
+	public void afterTick()
+	{
+		this.forceProvider.afterTick();
+	}
+
 	@Override
 	public String toString()
 	{
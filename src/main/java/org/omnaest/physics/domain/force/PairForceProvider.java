@@ -0,0 +1,44 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * A {@link ForceProvider} for the interaction of exactly two {@link Particle}s, which follows Newton's third law. The force on the second
+ * {@link Particle} is always the negated force on the first {@link Particle}, so the interaction can be calculated once for both of them.
+ * 
+ * @see #getPairForce()
+ * @author omnaest
+ */
+public interface PairForceProvider extends ForceProvider
+{
+	public Particle getParticle1();
+
+	public Particle getParticle2();
+
+	/**
+	 * Returns the force on {@link #getParticle1()}, the force on {@link #getParticle2()} is the negated force. {@link #match(Particle)} still
+	 * determines if the force is applied to a {@link Particle}.
+	 * 
+	 * @return
+	 */
+	public Vector getPairForce();
+}
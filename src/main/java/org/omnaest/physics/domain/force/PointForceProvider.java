@@ -18,9 +18,14 @@
 */
 package org.omnaest.physics.domain.force;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.ParticleView;
+import org.omnaest.physics.domain.force.utils.DynamicParameters;
 import org.omnaest.vector.Vector;
 
 /**
@@ -28,13 +33,15 @@ import org.omnaest.vector.Vector;
  * @see #setStrength(double)
  * @author omnaest
  */
-public class PointForceProvider implements ForceProvider
+public class PointForceProvider implements PotentialEnergyProvider
 {
 	protected Particle			particle;
 	protected Vector			location;
-	protected Supplier<Double>	strength	= () -> 0.9;
-	protected Supplier<Double>	mass		= () -> 1.0;
-	private Type				type		= Type.SPECIFIC;
+	protected double			strength			= 0.9;
+	protected double			mass				= 1.0;
+	private Type				type				= Type.SPECIFIC;
+	private DynamicParameters	dynamicParameters	= new DynamicParameters();
+	private AtomicLong			parameterVersion	= new AtomicLong();
 
 	public PointForceProvider(double... coordinates)
 	{
@@ -59,30 +66,62 @@ public class PointForceProvider implements ForceProvider
 		return this.type;
 	}
 
+	/**
+	 * Sets a dynamic strength, the {@link Supplier} is sampled once per tick
+	 * 
+	 * @param strength
+	 * @return
+	 */
 	public PointForceProvider setStrength(Supplier<Double> strength)
 	{
-		this.strength = strength;
+		this.dynamicParameters.bind("strength", strength, value -> this.strength = value);
 		return this;
 	}
 
 	public PointForceProvider setStrength(double strength)
 	{
-		this.strength = () -> strength;
+		this.dynamicParameters.unbind("strength");
+		this.strength = strength;
+		this.parameterVersion.incrementAndGet();
 		return this;
 	}
 
+	/**
+	 * Sets a dynamic mass, the {@link Supplier} is sampled once per tick
+	 * 
+	 * @param mass
+	 * @return
+	 */
 	public PointForceProvider setMass(Supplier<Double> mass)
 	{
-		this.mass = mass;
+		this.dynamicParameters.bind("mass", mass, value -> this.mass = value);
 		return this;
 	}
 
 	public PointForceProvider setMass(double mass)
 	{
-		this.mass = () -> mass;
+		this.dynamicParameters.unbind("mass");
+		this.mass = mass;
+		this.parameterVersion.incrementAndGet();
 		return this;
 	}
 
+	public double getStrength()
+	{
+		return this.strength;
+	}
+
+	public double getMass()
+	{
+		return this.mass;
+	}
+
+	@Override
+	public void beforeTick()
+	{
+		this.dynamicParameters.sample();
+	}
+
 	public Particle getParticle()
 	{
 		return this.particle;
@@ -96,9 +135,30 @@ public class PointForceProvider implements ForceProvider
 	public PointForceProvider setLocation(Vector location)
 	{
 		this.location = location;
+		this.parameterVersion.incrementAndGet();
 		return this;
 	}
 
+	/**
+	 * The force only depends on the location of the affected {@link Particle} and the fixed {@link #getLocation()}
+	 * 
+	 * @see #getParameterVersion()
+	 */
+	@Override
+	public Collection<Particle> getDependencies()
+	{
+		return Collections.emptyList();
+	}
+
+	/**
+	 * Changes with {@link #setLocation(Vector)} and with the static as well as the sampled dynamic strength and mass
+	 */
+	@Override
+	public long getParameterVersion()
+	{
+		return this.parameterVersion.get() + this.dynamicParameters.getVersion();
+	}
+
 	@Override
 	public boolean match(Particle particle)
 	{
@@ -108,8 +168,18 @@ public class PointForceProvider implements ForceProvider
 	@Override
 	public Vector getForce(Particle particle)
 	{
-		Vector delta = particle	.getLocation()
-								.subtract(this.location);
+		return this.calculateForce(particle.getLocation());
+	}
+
+	@Override
+	public Vector getForce(ParticleView particleView, int index)
+	{
+		return this.calculateForce(particleView.getLocation(index));
+	}
+
+	private Vector calculateForce(Vector location)
+	{
+		Vector delta = location.subtract(this.location);
 		if (delta.absolute() <= 0.001)
 		{
 			delta = new Vector(Math.random(), Math.random());
@@ -117,10 +187,22 @@ public class PointForceProvider implements ForceProvider
 		delta = delta.multiply(-1.0);
 		Vector force = delta.normVector()
 							.multiply(delta.absolute() * delta.absolute())
-							.multiply(this.strength.get() * this.mass.get());
+							.multiply(this.strength * this.mass);
 		return force;
 	}
 
+	/**
+	 * The potential energy is <code>strength * mass / 3 * distance^3</code>
+	 */
+	@Override
+	public double getEnergy(Particle particle)
+	{
+		double distance = particle	.getLocation()
+									.subtract(this.location)
+									.absolute();
+		return this.strength * this.mass / 3.0 * distance * distance * distance;
+	}
+
 	@Override
 	public String toString()
 	{
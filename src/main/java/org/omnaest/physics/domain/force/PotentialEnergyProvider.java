@@ -0,0 +1,39 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import org.omnaest.physics.domain.Particle;
+
+/**
+ * {@link ForceProvider} whose forces are derived from a potential energy. The energy is split into shares per matching {@link Particle}, the sum
+ * of the shares of all matching {@link Particle}s is the potential energy of this {@link ForceProvider} and the negative gradient of the
+ * potential energy of all {@link ForceProvider}s is the force.
+ * 
+ * @author omnaest
+ */
+public interface PotentialEnergyProvider extends ForceProvider
+{
+	/**
+	 * Returns the share of the potential energy attributed to the given {@link Particle}, which should be matched by {@link #match(Particle)}
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public double getEnergy(Particle particle);
+}
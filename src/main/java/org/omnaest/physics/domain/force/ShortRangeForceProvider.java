@@ -0,0 +1,46 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import org.omnaest.physics.domain.Particle;
+
+/**
+ * A {@link ForceProvider} whose force on a {@link Particle} vanishes as soon as the distance to its source {@link Particle} exceeds the
+ * {@link #getRange()}
+ * 
+ * @author omnaest
+ */
+public interface ShortRangeForceProvider extends ForceProvider
+{
+	/**
+	 * Returns the {@link Particle} the force on the given {@link Particle} originates from. If {@link #getDependencies()} are known, they have to
+	 * contain it.
+	 * 
+	 * @param particle
+	 * @return
+	 */
+	public Particle getSourceParticle(Particle particle);
+
+	/**
+	 * Returns the distance beyond which the force of this {@link ForceProvider} is zero
+	 * 
+	 * @return
+	 */
+	public double getRange();
+}
@@ -0,0 +1,135 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleConsumer;
+import java.util.function.Supplier;
+
+import org.omnaest.physics.domain.force.ForceProvider;
+
+/**
+ * Dynamic parameters of a {@link ForceProvider}. The {@link Supplier} of every bound parameter is only called by {@link #sample()}, which
+ * writes the current value into a primitive field of the {@link ForceProvider}, so the force calculation itself does not need to call and
+ * unbox any {@link Supplier}.
+ * 
+ * @see #bind(String, Supplier, DoubleConsumer)
+ * @see #sample()
+ * @author omnaest
+ */
+public class DynamicParameters
+{
+	private Map<String, Binding>	nameToBinding	= new ConcurrentHashMap<>();
+	private AtomicLong				version			= new AtomicLong();
+
+	private static class Binding
+	{
+		private Supplier<Double>	supplier;
+		private DoubleConsumer		consumer;
+		private double				value	= Double.NaN;
+
+		public Binding(Supplier<Double> supplier, DoubleConsumer consumer)
+		{
+			super();
+			this.supplier = supplier;
+			this.consumer = consumer;
+		}
+
+		/**
+		 * Returns true if the sampled value differs from the last one
+		 */
+		public boolean sample()
+		{
+			double value = this.supplier.get();
+			this.consumer.accept(value);
+			boolean changed = Double.compare(value, this.value) != 0;
+			this.value = value;
+			return changed;
+		}
+	}
+
+	/**
+	 * Binds the {@link Supplier} to the parameter with the given name and samples it immediately
+	 * 
+	 * @param name
+	 * @param supplier
+	 * @param consumer
+	 *            writes the sampled value
+	 * @return this
+	 */
+	public DynamicParameters bind(String name, Supplier<Double> supplier, DoubleConsumer consumer)
+	{
+		Binding binding = new Binding(supplier, consumer);
+		binding.sample();
+		this.nameToBinding.put(name, binding);
+		this.version.incrementAndGet();
+		return this;
+	}
+
+	/**
+	 * Removes the {@link Supplier} for the parameter with the given name, so the parameter keeps its last value
+	 * 
+	 * @param name
+	 * @return this
+	 */
+	public DynamicParameters unbind(String name)
+	{
+		this.nameToBinding.remove(name);
+		return this;
+	}
+
+	/**
+	 * Samples all bound {@link Supplier}s, which should be done once per tick
+	 * 
+	 * @see ForceProvider#beforeTick()
+	 */
+	public void sample()
+	{
+		if (!this.nameToBinding.isEmpty())
+		{
+			boolean changed = false;
+			for (Binding binding : this.nameToBinding.values())
+			{
+				changed |= binding.sample();
+			}
+			if (changed)
+			{
+				this.version.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Returns a version which changes whenever a {@link Supplier} is bound or a {@link #sample()} yields a different value
+	 * 
+	 * @see ForceProvider#getParameterVersion()
+	 * @return
+	 */
+	public long getVersion()
+	{
+		return this.version.get();
+	}
+
+	public boolean isEmpty()
+	{
+		return this.nameToBinding.isEmpty();
+	}
+}
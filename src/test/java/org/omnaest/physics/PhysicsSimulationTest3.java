@@ -18,12 +18,27 @@
 */
 package org.omnaest.physics;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 import org.junit.Ignore;
 import org.junit.Test;
+import org.omnaest.physics.component.FusedTickKernel;
+import org.omnaest.physics.component.PartitionedExecutor;
 import org.omnaest.physics.domain.Particle;
 import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.CenterForceProvider;
 import org.omnaest.physics.domain.force.DistanceForceProvider;
 import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+import org.omnaest.vector.Vector;
 
 public class PhysicsSimulationTest3
 {
@@ -58,4 +73,140 @@ public class PhysicsSimulationTest3
 
     }
 
+    @Test
+    public void testTickMultiRateWithFusedEvaluation() throws Exception
+    {
+        PhysicsSimulation simulation = PhysicsUtils.newSimulationInstance()
+                                                   .setFusedEvaluation(true)
+                                                   .setSlowForceInterval(3);
+
+        List<ForceProvider> distanceForceProviders = new ArrayList<>();
+        Particle lastParticle = null;
+        for (int ii = 0; ii < 10; ii++)
+        {
+            Particle particle = new Particle(2).setLocation(new Vector(ii * 10, ii % 2));
+            simulation.addParticle(particle);
+            if (lastParticle != null)
+            {
+                distanceForceProviders.add(new DistanceForceProvider(particle, lastParticle, 20));
+            }
+            lastParticle = particle;
+        }
+        simulation.addForceProviders(distanceForceProviders);
+        simulation.addForceProvider(new CenterForceProvider(2).setStrength(0.01));
+        assertNull(simulation.getFusedTickKernel());
+
+        //the fast steps only include the specific forces with a weight of 1
+        simulation.tickMultiRate(1.0);
+        FusedTickKernel fusedTickKernel = simulation.getFusedTickKernel();
+        assertNotNull(fusedTickKernel);
+        assertTrue(fusedTickKernel.isGeneratedFor(distanceForceProviders));
+
+        //the slow step weights the center force by 3 and is not fused
+        simulation.tickMultiRate(1.0);
+        simulation.tickMultiRate(1.0);
+        assertSame(fusedTickKernel, simulation.getFusedTickKernel());
+    }
+
+    @Test
+    public void testTickMultiRateIndependentOfPartitioning() throws Exception
+    {
+        PhysicsSimulation simulation = PhysicsUtils.newSimulationInstance()
+                                                   .setSlowForceInterval(2);
+        List<Particle> particles = new ArrayList<>();
+        List<Vector> locations = new ArrayList<>();
+        for (int ii = 0; ii < 50; ii++)
+        {
+            Particle particle = new Particle(2).setLocation(new Vector(ii * 7 % 40, ii * 13 % 30));
+            simulation.addParticle(particle)
+                      .addForceProvider(new AntiCollisionForceProvider(particle, 20));
+            if (!particles.isEmpty())
+            {
+                simulation.addForceProvider(new DistanceForceProvider(particle, particles.get(particles.size() - 1), 10));
+            }
+            particles.add(particle);
+            locations.add(particle.getLocation());
+        }
+
+        List<Vector> sequentialLocations = this.tickPartitioned(simulation, particles, locations, 1);
+        List<Vector> parallelLocations = this.tickPartitioned(simulation, particles, locations, 4);
+        for (int ii = 0; ii < particles.size(); ii++)
+        {
+            assertEquals(sequentialLocations.get(ii)
+                                            .getX(),
+                         parallelLocations.get(ii)
+                                          .getX(),
+                         0.0);
+            assertEquals(sequentialLocations.get(ii)
+                                            .getY(),
+                         parallelLocations.get(ii)
+                                          .getY(),
+                         0.0);
+        }
+    }
+
+    @Test
+    public void testFusedTickMatchesPartitionedTick() throws Exception
+    {
+        PhysicsSimulation simulation = PhysicsUtils.newSimulationInstance()
+                                                   .setSlowForceInterval(2);
+        List<Particle> particles = new ArrayList<>();
+        List<Vector> locations = new ArrayList<>();
+        for (int ii = 0; ii < 20; ii++)
+        {
+            Particle particle = new Particle(2).setLocation(new Vector(ii * 7 % 40, ii * 13 % 30));
+            simulation.addParticle(particle);
+            if (!particles.isEmpty())
+            {
+                simulation.addForceProvider(new DistanceForceProvider(particle, particles.get(particles.size() - 1), 10).setStrength(1.0));
+            }
+            particles.add(particle);
+            locations.add(particle.getLocation());
+        }
+        simulation.addForceProvider(new PointForceProvider(particles.get(0), 5.0, 5.0));
+
+        List<Vector> regularLocations = this.tickPartitioned(simulation, particles, locations, 1);
+        simulation.setFusedEvaluation(true);
+        List<Vector> fusedLocations = this.tickPartitioned(simulation, particles, locations, 1);
+        assertNotNull(simulation.getFusedTickKernel());
+        for (int ii = 0; ii < particles.size(); ii++)
+        {
+            assertEquals(regularLocations.get(ii)
+                                         .getX(),
+                         fusedLocations.get(ii)
+                                       .getX(),
+                         0.000001);
+            assertEquals(regularLocations.get(ii)
+                                         .getY(),
+                         fusedLocations.get(ii)
+                                       .getY(),
+                         0.000001);
+        }
+    }
+
+    private List<Vector> tickPartitioned(PhysicsSimulation simulation, List<Particle> particles, List<Vector> locations, int parallelism)
+    {
+        for (int ii = 0; ii < particles.size(); ii++)
+        {
+            particles.get(ii)
+                     .setLocation(locations.get(ii));
+        }
+
+        PartitionedExecutor partitionedExecutor = new PartitionedExecutor(parallelism);
+        try
+        {
+            for (int ii = 0; ii < 10; ii++)
+            {
+                simulation.tickMultiRate(1.0, partitionedExecutor);
+            }
+        }
+        finally
+        {
+            partitionedExecutor.stop();
+        }
+        return particles.stream()
+                        .map(Particle::getLocation)
+                        .collect(Collectors.toList());
+    }
+
 }
@@ -0,0 +1,54 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.omnaest.physics.component.AllocationMonitor.Phase;
+
+/**
+ * @see AllocationMonitor
+ * @author omnaest
+ */
+public class AllocationMonitorTest
+{
+
+	@Test
+	public void testRecord() throws Exception
+	{
+		AllocationMonitor allocationMonitor = new AllocationMonitor();
+		Assume.assumeTrue(allocationMonitor.isSupported());
+
+		long startBytes = allocationMonitor.sample();
+		byte[] data = new byte[1000000];
+		allocationMonitor.record(Phase.SLOW_TICK, startBytes);
+
+		assertEquals(1000000, data.length);
+		assertEquals(1, allocationMonitor.getCount(Phase.SLOW_TICK));
+		assertEquals(0, allocationMonitor.getCount(Phase.FAST_TICK));
+		assertTrue(allocationMonitor.getTotalBytes(Phase.SLOW_TICK) >= 1000000);
+		assertTrue(allocationMonitor.getAverageBytes(Phase.SLOW_TICK) >= 1000000);
+		assertTrue(allocationMonitor.getStatistics(1, 2, 3)
+									.getAverageBytes(Phase.SLOW_TICK) >= 1000000);
+	}
+
+}
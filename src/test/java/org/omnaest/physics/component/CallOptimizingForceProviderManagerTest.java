@@ -0,0 +1,185 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.omnaest.physics.component.CallOptimizingForceProviderManager.MatchingIndex;
+import org.omnaest.physics.component.CallOptimizingForceProviderManager.Slots;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see CallOptimizingForceProviderManager
+ * @author omnaest
+ */
+public class CallOptimizingForceProviderManagerTest
+{
+
+	private static class CountingForceProvider implements ForceProvider
+	{
+		private AtomicInteger	counter	= new AtomicInteger();
+		private Type			type;
+		private Vector			force;
+
+		public CountingForceProvider(Type type, Vector force)
+		{
+			super();
+			this.type = type;
+			this.force = force;
+		}
+
+		@Override
+		public boolean match(Particle particle)
+		{
+			return true;
+		}
+
+		@Override
+		public Vector getForce(Particle particle)
+		{
+			this.counter.incrementAndGet();
+			return this.force;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return this.type;
+		}
+	}
+
+	private static class CountingAntiCollisionForceProvider extends AntiCollisionForceProvider
+	{
+		private AtomicInteger matchCounter = new AtomicInteger();
+
+		public CountingAntiCollisionForceProvider(Particle particle, double collisionDistance)
+		{
+			super(particle, collisionDistance);
+		}
+
+		@Override
+		public boolean match(Particle particle)
+		{
+			this.matchCounter.incrementAndGet();
+			return super.match(particle);
+		}
+	}
+
+	@Test
+	public void testCalculateMatchingForceProvidersOfNeighbors() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(15, 0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(100, 0));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3);
+
+		VerletNeighborList neighborList = new VerletNeighborList(10.0);
+		neighborList.update(particles, 10.0);
+
+		CountingAntiCollisionForceProvider forceProvider1 = new CountingAntiCollisionForceProvider(particle1, 10.0);
+		CountingAntiCollisionForceProvider forceProvider2 = new CountingAntiCollisionForceProvider(particle2, 10.0);
+		CountingAntiCollisionForceProvider forceProvider3 = new CountingAntiCollisionForceProvider(particle3, 10.0);
+		CountingForceProvider forceProvider = new CountingForceProvider(Type.SPECIFIC, new Vector(0, 1));
+
+		CallOptimizingForceProviderManager manager = new CallOptimizingForceProviderManager();
+		MatchingIndex matchingIndex = manager.indexForceProviders(new HashSet<>(Arrays.asList(forceProvider1, forceProvider2, forceProvider3,
+																								forceProvider)),
+																	neighborList);
+
+		Map<Type, List<ForceProvider>> forceProviders1 = manager.calculateMatchingForceProviders(matchingIndex, particle1);
+		assertEquals(Arrays.asList(forceProvider2), forceProviders1.get(Type.ALL_MATCHING));
+		assertEquals(Arrays.asList(forceProvider), forceProviders1.get(Type.SPECIFIC));
+
+		//the far particle keeps an empty group to contribute a zero force
+		Map<Type, List<ForceProvider>> forceProviders3 = manager.calculateMatchingForceProviders(matchingIndex, particle3);
+		assertEquals(Collections.emptyList(), forceProviders3.get(Type.ALL_MATCHING));
+
+		//only the force providers of the neighbors are matched
+		assertEquals(0, forceProvider1.matchCounter.get());
+		assertEquals(1, forceProvider2.matchCounter.get());
+		assertEquals(0, forceProvider3.matchCounter.get());
+	}
+
+	@Test
+	public void testCalculateForce() throws Exception
+	{
+		Particle particle = new Particle(2);
+		CountingForceProvider strongForceProvider = new CountingForceProvider(Type.SPECIFIC, new Vector(100, 0));
+		CountingForceProvider weakForceProvider = new CountingForceProvider(Type.ALL_MATCHING, new Vector(0, 1));
+
+		CallOptimizingForceProviderManager manager = new CallOptimizingForceProviderManager()	.setMaxSkippedSteps(3)
+																								.setCheapCostInNanoseconds(-1);
+		List<Particle> particles = Arrays.asList(particle);
+		Slots slots = manager.assignSlots(particles);
+		Map<Type, List<ForceProvider>> forceProviders = manager.calculateMatchingForceProviders(new HashSet<>(Arrays.asList(strongForceProvider,
+																															weakForceProvider)),
+																								particle);
+
+		for (int ii = 0; ii < 8; ii++)
+		{
+			Vector force = manager.calculateForce(slots, 0, forceProviders);
+			assertEquals(1.0, force.getY(), 0.0001);
+		}
+
+		assertEquals(8, strongForceProvider.counter.get());
+		assertEquals(2, weakForceProvider.counter.get());
+	}
+
+	@Test
+	public void testAssignSlotsKeepsSkippedSteps() throws Exception
+	{
+		Particle particle = new Particle(2);
+		CountingForceProvider strongForceProvider = new CountingForceProvider(Type.SPECIFIC, new Vector(100, 0));
+		CountingForceProvider weakForceProvider = new CountingForceProvider(Type.ALL_MATCHING, new Vector(0, 1));
+
+		CallOptimizingForceProviderManager manager = new CallOptimizingForceProviderManager()	.setMaxSkippedSteps(3)
+																								.setCheapCostInNanoseconds(-1);
+		Map<Type, List<ForceProvider>> forceProviders = manager.calculateMatchingForceProviders(new HashSet<>(Arrays.asList(strongForceProvider,
+																															weakForceProvider)),
+																								particle);
+
+		Slots slots = manager.assignSlots(Arrays.asList(particle));
+		manager.calculateForce(slots, 0, forceProviders);
+		manager.calculateForce(slots, 0, forceProviders);
+		assertEquals(1, weakForceProvider.counter.get());
+
+		//the particle moves to another slot, but keeps its skipped steps
+		slots = manager.assignSlots(Arrays.asList(new Particle(2), particle));
+		manager.calculateForce(slots, 1, forceProviders);
+		Vector force = manager.calculateForce(slots, 1, forceProviders);
+		assertEquals(1, weakForceProvider.counter.get());
+		assertEquals(1.0, force.getY(), 0.0001);
+
+		manager.calculateForce(slots, 1, forceProviders);
+		assertEquals(2, weakForceProvider.counter.get());
+	}
+
+}
@@ -0,0 +1,107 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.CenterForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.physics.domain.force.MinimalPointDistanceForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see CompiledForceField
+ * @author omnaest
+ */
+public class CompiledForceFieldTest
+{
+
+	@Test
+	public void testAccumulate() throws Exception
+	{
+		List<Particle> particles = ForceFieldFixture.newParticles();
+		Particle particle1 = particles.get(0);
+		Particle particle2 = particles.get(1);
+		Particle particle3 = particles.get(2);
+		Particle particle4 = particles.get(3);
+
+		List<ForceProvider> specificForceProviders = new ArrayList<>();
+		specificForceProviders.add(new DistanceForceProvider(particle1, particle2, 50.0));
+		specificForceProviders.add(new DistanceForceProvider(particle2, particle3, 10.0).setExclusionParticle(particle3));
+		specificForceProviders.add(new MinimalDistanceForceProvider(particle1, particle4, 20.0));
+		specificForceProviders.add(new MinimalDistanceForceProvider(particle2, particle3, 20.0));
+		specificForceProviders.add(new MinimalPointDistanceForceProvider(particle3, 10.0, 25.0, 45.0));
+		specificForceProviders.add(new PointForceProvider(particle4, 5.0, 5.0).setStrength(0.5));
+
+		List<ForceProvider> allMatchingForceProviders = new ArrayList<>();
+		allMatchingForceProviders.add(new CenterForceProvider(2).setStrength(0.01));
+
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+		double[] forces = particleSnapshot.newForceArray();
+		new CompiledForceField(Type.SPECIFIC, specificForceProviders).accumulate(particleSnapshot, forces);
+		new CompiledForceField(Type.ALL_MATCHING, allMatchingForceProviders).accumulate(particleSnapshot, forces);
+
+		List<ForceProvider> forceProviders = new ArrayList<>(specificForceProviders);
+		forceProviders.addAll(allMatchingForceProviders);
+		ForceFieldFixture.assertForces(particleSnapshot, forces, forceProviders);
+	}
+
+	@Test
+	public void testAccumulateWithAnchorOutsideOfTheView() throws Exception
+	{
+		List<Particle> particles = ForceFieldFixture.newParticles();
+		Particle anchor = new Particle(2).setLocation(new Vector(40, 30));
+
+		List<ForceProvider> forceProviders = new ArrayList<>();
+		forceProviders.add(new DistanceForceProvider(particles.get(0), anchor, 20.0));
+		forceProviders.add(new DistanceForceProvider(anchor, particles.get(2), 10.0));
+		forceProviders.add(new MinimalDistanceForceProvider(particles.get(1), anchor, 40.0));
+		forceProviders.add(new MinimalDistanceForceProvider(anchor, particles.get(3), 50.0));
+
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+		double[] forces = particleSnapshot.newForceArray();
+		new CompiledForceField(Type.SPECIFIC, forceProviders).accumulate(particleSnapshot, forces);
+
+		ForceFieldFixture.assertForces(particleSnapshot, forces, forceProviders);
+	}
+
+	@Test
+	public void testIsCompilable() throws Exception
+	{
+		Particle particle = new Particle(2);
+		assertTrue(CompiledForceField.isCompilable(new DistanceForceProvider(particle, particle, 1.0)));
+		assertTrue(CompiledForceField.isCompilable(new CenterForceProvider()));
+		assertFalse(CompiledForceField.isCompilable(new AntiCollisionForceProvider(particle, 1.0)));
+		assertFalse(CompiledForceField.isCompilable(new DistanceForceProvider(particle, particle, 1.0)
+		{
+		}));
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see DirtyRegion
+ * @author omnaest
+ */
+public class DirtyRegionTest
+{
+
+	@Test
+	public void testGetRegion() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0.0, 0.0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(10.0, 0.0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(20.0, 0.0));
+		Particle particle4 = new Particle(2).setLocation(new Vector(30.0, 0.0));
+		Particle particle5 = new Particle(2).setLocation(new Vector(21.0, 0.0));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4, particle5);
+
+		Set<ForceProvider> forceProviders = new LinkedHashSet<>();
+		forceProviders.add(new DistanceForceProvider(particle1, particle2, 10.0));
+		forceProviders.add(new DistanceForceProvider(particle2, particle3, 10.0));
+		forceProviders.add(new DistanceForceProvider(particle3, particle4, 10.0));
+
+		DirtyRegion dirtyRegion = new DirtyRegion(1, 2.0);
+		assertNull(dirtyRegion.getRegion(particles, forceProviders));
+		assertFalse(dirtyRegion.isEmpty());
+
+		dirtyRegion.update(0.0);
+		assertTrue(dirtyRegion.isEmpty());
+		assertTrue(dirtyRegion	.getRegion(particles, forceProviders)
+								.isEmpty());
+
+		dirtyRegion.markDirty(Arrays.asList(particle1));
+		assertFalse(dirtyRegion.isEmpty());
+		Set<Particle> region = dirtyRegion.getRegion(particles, forceProviders);
+		assertEquals(2, region.size());
+		assertTrue(region.containsAll(Arrays.asList(particle1, particle2)));
+
+		//the spatial neighbor of particle3 joins the region
+		dirtyRegion.markDirty(Arrays.asList(particle4));
+		region = dirtyRegion.getRegion(particles, forceProviders);
+		assertEquals(5, region.size());
+
+		//no convergence
+		dirtyRegion.update(1.0);
+		assertFalse(dirtyRegion.isEmpty());
+
+		dirtyRegion.update(0.001);
+		assertTrue(dirtyRegion.isEmpty());
+	}
+
+	@Test
+	public void testMaxTicks() throws Exception
+	{
+		Particle particle = new Particle(2);
+		DirtyRegion dirtyRegion = new DirtyRegion(0, 0.0).setMaxTicks(2);
+		dirtyRegion.update(1.0);
+		assertFalse(dirtyRegion.isEmpty());
+		dirtyRegion.update(1.0);
+		assertTrue(dirtyRegion.isEmpty());
+
+		dirtyRegion.markDirty(Arrays.asList(particle));
+		dirtyRegion.update(1.0);
+		assertFalse(dirtyRegion.isEmpty());
+		dirtyRegion.update(1.0);
+		assertTrue(dirtyRegion.isEmpty());
+	}
+
+	@Test
+	public void testMarkRemoved() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0.0, 0.0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(10.0, 0.0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(20.0, 0.0));
+		Particle particle4 = new Particle(2).setLocation(new Vector(21.0, 0.0));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle4);
+
+		Set<ForceProvider> forceProviders = new LinkedHashSet<>();
+		forceProviders.add(new DistanceForceProvider(particle1, particle2, 10.0));
+		forceProviders.add(new DistanceForceProvider(particle2, particle3, 10.0));
+
+		DirtyRegion dirtyRegion = new DirtyRegion(0, 2.0);
+		dirtyRegion.update(0.0);
+		assertTrue(dirtyRegion.isEmpty());
+
+		//particle3 has been removed, its connected neighbor and the particle it was pushing are relaxed
+		dirtyRegion.markRemoved(Arrays.asList(particle3), particles, forceProviders);
+		Set<Particle> region = dirtyRegion.getRegion(particles, forceProviders);
+		assertEquals(2, region.size());
+		assertTrue(region.containsAll(Arrays.asList(particle2, particle4)));
+	}
+
+}
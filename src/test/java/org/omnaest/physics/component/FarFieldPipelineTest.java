@@ -0,0 +1,85 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.utils.ThreadUtils;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see FarFieldPipeline
+ * @author omnaest
+ */
+public class FarFieldPipelineTest
+{
+
+	@Test
+	public void testGetForce() throws Exception
+	{
+		Particle particle = new Particle(2).setLocation(new Vector(0, 0));
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(Arrays.asList(particle));
+
+		FarFieldPipeline pipeline = new FarFieldPipeline();
+		try
+		{
+			assertNull(pipeline.getForce(particle, 0));
+
+			assertTrue(pipeline.request(0, particleSnapshot, snapshot -> new double[] { 1.0, 0.0 }));
+			this.awaitIdle(pipeline);
+			assertEquals(1.0, pipeline	.getForce(particle, 5)
+										.getX(),
+							0.0001);
+
+			assertTrue(pipeline.request(10, particleSnapshot, snapshot -> new double[] { 2.0, 0.0 }));
+			this.awaitIdle(pipeline);
+			assertEquals(10, pipeline	.getLatestForceBuffer()
+										.getVersion());
+			assertEquals(2.0, pipeline	.getForce(particle, 10)
+										.getX(),
+							0.0001);
+			assertEquals(2.5, pipeline	.getForce(particle, 15)
+										.getX(),
+							0.0001);
+			assertEquals(3.0, pipeline	.getForce(particle, 100)
+										.getX(),
+							0.0001);
+		}
+		finally
+		{
+			pipeline.stop();
+		}
+	}
+
+	private void awaitIdle(FarFieldPipeline pipeline)
+	{
+		while (pipeline.isRunning())
+		{
+			ThreadUtils.sleepSilently(1, TimeUnit.MILLISECONDS);
+		}
+	}
+
+}
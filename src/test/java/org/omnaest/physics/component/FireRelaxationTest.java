@@ -0,0 +1,79 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see FireRelaxation
+ * @author omnaest
+ */
+public class FireRelaxationTest
+{
+
+	@Test
+	public void testStep() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(30, 10));
+		List<Particle> particles = Arrays.asList(particle1, particle2);
+		DistanceForceProvider forceProvider = new DistanceForceProvider(particle1, particle2, 20.0).setStrength(10.0);
+
+		FireRelaxation fireRelaxation = new FireRelaxation();
+		for (int ii = 0; ii < 200; ii++)
+		{
+			double[] forces = new double[4];
+			System.arraycopy(forceProvider	.getForce(particle1)
+											.getCoordinates(),
+								0, forces, 0, 2);
+			System.arraycopy(forceProvider	.getForce(particle2)
+											.getCoordinates(),
+								0, forces, 2, 2);
+			fireRelaxation.step(particles, forces, 2, 0.1);
+		}
+
+		assertEquals(20.0, particle1.getLocation()
+									.subtract(particle2.getLocation())
+									.absolute(),
+						0.01);
+	}
+
+	@Test
+	public void testFirstStepKeepsTimeStep() throws Exception
+	{
+		Particle particle = new Particle(2).setLocation(new Vector(0, 0));
+
+		FireRelaxation fireRelaxation = new FireRelaxation();
+		fireRelaxation.step(Arrays.asList(particle), new double[] { 1.0, 0.0 }, 2, 1.0);
+
+		assertEquals(0.1, fireRelaxation.getTimeStep(), 0.0);
+		assertEquals(0.01, particle	.getLocation()
+									.getX(),
+						0.000001);
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.ForceField;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * Shared fixture of the {@link ForceField} tests, which compares the accumulated forces against the forces of the single {@link ForceProvider}s
+ * 
+ * @author omnaest
+ */
+class ForceFieldFixture
+{
+	private ForceFieldFixture()
+	{
+		super();
+	}
+
+	/**
+	 * Returns four two dimensional {@link Particle}s, none of them at the origin
+	 * 
+	 * @return
+	 */
+	static List<Particle> newParticles()
+	{
+		return Arrays.asList(	new Particle(2).setLocation(new Vector(2, 1)), new Particle(2).setLocation(new Vector(30, 0)),
+								new Particle(2).setLocation(new Vector(20, 40)), new Particle(2).setLocation(new Vector(10, 5)));
+	}
+
+	/**
+	 * Asserts that the given forces, accumulated for the {@link ParticleSnapshot}, equal the sum of {@link ForceProvider#getForce(Particle)} of
+	 * all matching {@link ForceProvider}s for each {@link Particle} of the {@link ParticleSnapshot}
+	 * 
+	 * @param particleSnapshot
+	 * @param forces
+	 * @param forceProviders
+	 */
+	static void assertForces(ParticleSnapshot particleSnapshot, double[] forces, List<? extends ForceProvider> forceProviders)
+	{
+		for (int ii = 0; ii < particleSnapshot.size(); ii++)
+		{
+			Particle particle = particleSnapshot.getParticle(ii);
+			Vector expected = forceProviders.stream()
+											.filter(forceProvider -> forceProvider.match(particle))
+											.map(forceProvider -> forceProvider.getForce(particle))
+											.reduce(Vector.NULL, (f1, f2) -> f1.add(f2));
+			Vector actual = particleSnapshot.toVector(forces, ii);
+			assertEquals(expected.getX(), actual.getX(), 0.000001 * Math.max(1.0, Math.abs(expected.getX())));
+			assertEquals(expected.getY(), actual.getY(), 0.000001 * Math.max(1.0, Math.abs(expected.getY())));
+		}
+	}
+
+}
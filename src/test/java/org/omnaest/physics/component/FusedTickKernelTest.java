@@ -0,0 +1,87 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see FusedTickKernel
+ * @author omnaest
+ */
+public class FusedTickKernelTest
+{
+
+	@Test
+	public void testTick() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(30, 0));
+		List<Particle> particles = Arrays.asList(particle1, particle2);
+
+		List<ForceProvider> forceProviders = new ArrayList<>();
+		forceProviders.add(new DistanceForceProvider(particle1, particle2, 10.0).setStrength(1.0));
+
+		FusedTickKernel fusedTickKernel = new FusedTickKernel(forceProviders);
+		for (int ii = 0; ii < 100; ii++)
+		{
+			fusedTickKernel.tick(particles, forceProviders, 1.0);
+		}
+		assertEquals(10.0, particle2	.getLocation()
+										.subtract(particle1.getLocation())
+										.absolute(),
+						0.01);
+		assertEquals(30.0, particle1	.getLocation()
+										.add(particle2.getLocation())
+										.getX(),
+						0.000001);
+	}
+
+	@Test
+	public void testIsGeneratedFor() throws Exception
+	{
+		Particle particle1 = new Particle(2);
+		Particle particle2 = new Particle(2);
+		List<ForceProvider> forceProviders = new ArrayList<>();
+		forceProviders.add(new DistanceForceProvider(particle1, particle2, 10.0));
+
+		FusedTickKernel fusedTickKernel = new FusedTickKernel(forceProviders);
+		assertTrue(fusedTickKernel.isGeneratedFor(Arrays.asList(new DistanceForceProvider(particle2, particle1, 5.0))));
+
+		forceProviders.add(new PointForceProvider(particle1, 0.0, 0.0));
+		assertFalse(fusedTickKernel.isGeneratedFor(forceProviders));
+
+		forceProviders.add(new AntiCollisionForceProvider(particle1, 10.0));
+		assertFalse(FusedTickKernel.isFusable(forceProviders));
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see ImplicitIntegrator
+ * @author omnaest
+ */
+public class ImplicitIntegratorTest
+{
+
+	@Test
+	public void testIntegrate() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(30, 0));
+		List<Particle> particles = Arrays.asList(particle1, particle2);
+		DistanceForceProvider forceProvider = new DistanceForceProvider(particle1, particle2, 20.0).setStrength(1000000.0);
+		List<ForceProvider> forceProviders = Arrays.asList(forceProvider);
+
+		//an explicit step with this step size would overshoot by several orders of magnitude
+		ImplicitIntegrator implicitIntegrator = new ImplicitIntegrator();
+		for (int ii = 0; ii < 3; ii++)
+		{
+			double[] forces = new double[4];
+			System.arraycopy(forceProvider	.getForce(particle1)
+											.getCoordinates(),
+								0, forces, 0, 2);
+			System.arraycopy(forceProvider	.getForce(particle2)
+											.getCoordinates(),
+								0, forces, 2, 2);
+			implicitIntegrator.integrate(particles, forceProviders, forces, 2, 1.0);
+			assertTrue(implicitIntegrator.getLastIterations() <= 2);
+		}
+
+		assertEquals(20.0, particle1.getLocation()
+									.subtract(particle2.getLocation())
+									.absolute(),
+						0.001);
+		assertEquals(30.0, particle1.getLocation()
+									.add(particle2.getLocation())
+									.getX(),
+						0.001);
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * @see LbfgsMinimizer
+ * @author omnaest
+ */
+public class LbfgsMinimizerTest
+{
+
+	@Test
+	public void testMinimize() throws Exception
+	{
+		//Rosenbrock function
+		LbfgsMinimizer.Objective objective = (position, gradient) ->
+		{
+			double x = position[0];
+			double y = position[1];
+			gradient[0] = -2.0 * (1.0 - x) - 400.0 * x * (y - x * x);
+			gradient[1] = 200.0 * (y - x * x);
+			return (1.0 - x) * (1.0 - x) + 100.0 * (y - x * x) * (y - x * x);
+		};
+
+		double[] position = new double[] { -1.2, 1.0 };
+		int iterations = new LbfgsMinimizer().minimize(objective, position, 200, 0.000001);
+
+		assertTrue(iterations < 200);
+		assertEquals(1.0, position[0], 0.0001);
+		assertEquals(1.0, position[1], 0.0001);
+	}
+
+	@Test
+	public void testMinimizeWithoutEnergy() throws Exception
+	{
+		LbfgsMinimizer.Objective objective = (position, gradient) ->
+		{
+			gradient[0] = 4.0 * (position[0] - 3.0);
+			gradient[1] = 10.0 * (position[1] + 2.0);
+			return Double.NaN;
+		};
+
+		double[] position = new double[] { 0.0, 0.0 };
+		new LbfgsMinimizer().minimize(objective, position, 100, 0.000001);
+
+		assertEquals(3.0, position[0], 0.0001);
+		assertEquals(-2.0, position[1], 0.0001);
+	}
+
+	@Test
+	public void testMinimizeKeepsPositionIfLineSearchFails() throws Exception
+	{
+		//the gradient points uphill, so no step decreases the energy
+		LbfgsMinimizer.Objective objective = (position, gradient) ->
+		{
+			gradient[0] = -2.0 * position[0];
+			return position[0] * position[0];
+		};
+
+		double[] position = new double[] { 1.0 };
+		int iterations = new LbfgsMinimizer().minimize(objective, position, 100, 0.000001);
+
+		assertEquals(1, iterations);
+		assertEquals(1.0, position[0], 0.0);
+	}
+
+}
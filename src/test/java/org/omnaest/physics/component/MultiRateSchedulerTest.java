@@ -0,0 +1,95 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @see MultiRateScheduler
+ * @author omnaest
+ */
+public class MultiRateSchedulerTest
+{
+
+	@Test
+	public void testNextStep() throws Exception
+	{
+		MultiRateScheduler scheduler = new MultiRateScheduler().setInterval(3);
+		assertEquals(0, scheduler.nextStep());
+		assertEquals(0, scheduler.nextStep());
+		assertEquals(3, scheduler.nextStep());
+		assertEquals(0, scheduler.nextStep());
+		assertEquals(0, scheduler.nextStep());
+		assertEquals(3, scheduler.nextStep());
+	}
+
+	@Test
+	public void testNextStepWithChangedInterval() throws Exception
+	{
+		MultiRateScheduler scheduler = new MultiRateScheduler().setInterval(4);
+		int steps = 0;
+		int weights = 0;
+		weights += scheduler.nextStep();
+		weights += scheduler.nextStep();
+		weights += scheduler.nextStep();
+		steps += 3;
+		assertEquals(0, weights);
+
+		//shrinking the interval in the middle of a cycle applies the slow forces for all steps since their last evaluation
+		scheduler.setInterval(2);
+		weights += scheduler.nextStep();
+		steps++;
+		assertEquals(steps, weights);
+
+		//growing the interval in the middle of a cycle delays the slow step
+		weights += scheduler.nextStep();
+		scheduler.setInterval(5);
+		for (int ii = 0; ii < 4; ii++)
+		{
+			weights += scheduler.nextStep();
+		}
+		steps += 5;
+		assertEquals(steps, weights);
+	}
+
+	@Test
+	public void testAutoTuning() throws Exception
+	{
+		MultiRateScheduler scheduler = new MultiRateScheduler().setMaxInterval(100);
+		int weights = 0;
+		for (int ii = 0; ii < 1000; ii++)
+		{
+			int slowForceWeight = scheduler.nextStep();
+			scheduler.recordStep(slowForceWeight > 0, slowForceWeight > 0 ? 1000 + 2900 : 1000);
+
+			//the retuned interval never over or under applies the slow forces
+			weights += slowForceWeight;
+			if (slowForceWeight > 0)
+			{
+				assertEquals(ii + 1, weights);
+			}
+		}
+
+		//slow forces cost 2900 against 1000 for the fast forces, which is below a quarter of the time for an interval of 9
+		assertEquals(9, scheduler.getInterval());
+	}
+
+}
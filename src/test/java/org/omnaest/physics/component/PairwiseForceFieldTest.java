@@ -0,0 +1,66 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+
+/**
+ * @see PairwiseForceField
+ * @author omnaest
+ */
+public class PairwiseForceFieldTest
+{
+
+	@Test
+	public void testAccumulate() throws Exception
+	{
+		List<Particle> particles = ForceFieldFixture.newParticles();
+		Particle particle1 = particles.get(0);
+		Particle particle2 = particles.get(1);
+		Particle particle3 = particles.get(2);
+		Particle particle4 = particles.get(3);
+
+		List<ForceProvider> specificForceProviders = new ArrayList<>();
+		specificForceProviders.add(new DistanceForceProvider(particle1, particle2, 50.0));
+		specificForceProviders.add(new DistanceForceProvider(particle2, particle3, 10.0));
+
+		List<ForceProvider> allMatchingForceProviders = new ArrayList<>();
+		allMatchingForceProviders.add(new AntiCollisionForceProvider(particle1, 20.0).setStrength(10.0));
+		allMatchingForceProviders.add(new AntiCollisionForceProvider(particle2, 20.0).setStrength(10.0));
+		allMatchingForceProviders.add(new AntiCollisionForceProvider(particle4, 30.0).setStrength(5.0));
+
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+		double[] forces = particleSnapshot.newForceArray();
+		new PairwiseForceField(Type.SPECIFIC, specificForceProviders, null).accumulate(particleSnapshot, forces);
+		new PairwiseForceField(Type.ALL_MATCHING, allMatchingForceProviders, null).accumulate(particleSnapshot, forces);
+
+		List<ForceProvider> forceProviders = new ArrayList<>(specificForceProviders);
+		forceProviders.addAll(allMatchingForceProviders);
+		ForceFieldFixture.assertForces(particleSnapshot, forces, forceProviders);
+	}
+
+}
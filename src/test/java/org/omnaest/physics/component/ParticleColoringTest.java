@@ -0,0 +1,108 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider.Type;
+import org.omnaest.physics.domain.force.LineForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see ParticleColoring
+ * @author omnaest
+ */
+public class ParticleColoringTest
+{
+
+	@Test
+	public void testGetColorClasses() throws Exception
+	{
+		Particle particle1 = new Particle(2);
+		Particle particle2 = new Particle(2);
+		Particle particle3 = new Particle(2);
+		Particle particle4 = new Particle(2);
+		Particle particle5 = new Particle(2);
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4, particle5);
+
+		Set<ForceProvider> forceProviders = new LinkedHashSet<>();
+		forceProviders.add(new DistanceForceProvider(particle1, particle2, 10.0));
+		forceProviders.add(new DistanceForceProvider(particle2, particle3, 10.0));
+		forceProviders.add(new LineForceProvider(Arrays.asList(particle3, particle4, particle5)));
+
+		ParticleColoring particleColoring = new ParticleColoring();
+		int[][] colorClasses = particleColoring.getColorClasses(particles, forceProviders);
+		assertEquals(3, colorClasses.length);
+		assertEquals(5, Arrays	.stream(colorClasses)
+								.mapToInt(colorClass -> colorClass.length)
+								.sum());
+		for (int[] colorClass : colorClasses)
+		{
+			for (int index : colorClass)
+			{
+				for (int otherIndex : colorClass)
+				{
+					Particle particle = particles.get(index);
+					Particle otherParticle = particles.get(otherIndex);
+					assertFalse(index != otherIndex && forceProviders	.stream()
+																		.anyMatch(forceProvider -> forceProvider.match(particle)
+																				&& forceProvider.getDependencies()
+																								.contains(otherParticle)));
+				}
+			}
+		}
+		assertSame(colorClasses, particleColoring.getColorClasses(particles, new LinkedHashSet<>(forceProviders)));
+
+		//unknown dependencies
+		forceProviders.add(new ForceProvider()
+		{
+			@Override
+			public boolean match(Particle particle)
+			{
+				return true;
+			}
+
+			@Override
+			public Vector getForce(Particle particle)
+			{
+				return Vector.NULL;
+			}
+
+			@Override
+			public Type getType()
+			{
+				return Type.SPECIFIC;
+			}
+		});
+		assertNull(particleColoring.getColorClasses(particles, forceProviders));
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see ParticleSnapshot
+ * @author omnaest
+ */
+public class ParticleSnapshotTest
+{
+
+	@Test
+	public void testUpdate() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(1, 2));
+		Particle particle2 = new Particle(3).setLocation(new Vector(3, 4, 5));
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(Arrays.asList(particle1, particle2));
+
+		assertEquals(2, particleSnapshot.size());
+		assertEquals(3, particleSnapshot.getDimensions());
+		assertEquals(1, particleSnapshot.indexOf(particle2));
+		assertEquals(-1, particleSnapshot.indexOf(new Particle(2)));
+		assertEquals(0.0, particleSnapshot.getCoordinate(0, 2), 0.0);
+		assertEquals(5.0, particleSnapshot.getCoordinate(1, 2), 0.0);
+
+		particle1.move(new Vector(1, 1));
+		assertEquals(1.0, particleSnapshot.getCoordinate(0, 0), 0.0);
+		particleSnapshot.update();
+		assertEquals(2.0, particleSnapshot.getCoordinate(0, 0), 0.0);
+
+		double[] forces = particleSnapshot.newForceArray();
+		forces[3] = 7.0;
+		forces[5] = 8.0;
+		assertEquals(2, particleSnapshot	.toVector(forces, 0)
+											.getCoordinates().length);
+		assertEquals(8.0, particleSnapshot	.toVector(forces, 1)
+											.getCoordinates()[2],
+						0.0);
+	}
+
+}
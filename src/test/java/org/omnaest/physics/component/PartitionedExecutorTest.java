@@ -0,0 +1,94 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Test;
+
+/**
+ * @see PartitionedExecutor
+ * @author omnaest
+ */
+public class PartitionedExecutorTest
+{
+
+	@Test
+	public void testExecute() throws Exception
+	{
+		PartitionedExecutor partitionedExecutor = new PartitionedExecutor(4);
+		try
+		{
+			AtomicIntegerArray counters = new AtomicIntegerArray(103);
+			for (int ii = 0; ii < 50; ii++)
+			{
+				partitionedExecutor.execute(counters.length(), index -> counters.incrementAndGet(index));
+				for (int jj = 0; jj < counters.length(); jj++)
+				{
+					assertEquals(ii + 1, counters.get(jj));
+				}
+			}
+		}
+		finally
+		{
+			partitionedExecutor.stop();
+		}
+
+		AtomicIntegerArray counters = new AtomicIntegerArray(10);
+		partitionedExecutor.execute(counters.length(), index -> counters.incrementAndGet(index));
+		assertEquals(1, counters.get(9));
+	}
+
+	@Test
+	public void testExecuteRethrowsHelperFailure() throws Exception
+	{
+		PartitionedExecutor partitionedExecutor = new PartitionedExecutor(4);
+		try
+		{
+			try
+			{
+				partitionedExecutor.execute(100, index ->
+				{
+					if (index == 99)
+					{
+						throw new IllegalArgumentException("failure " + index);
+					}
+				});
+				fail();
+			}
+			catch (IllegalArgumentException e)
+			{
+				assertEquals("failure 99", e.getMessage());
+			}
+
+			//the failure does not leak into the next execution
+			AtomicIntegerArray counters = new AtomicIntegerArray(100);
+			partitionedExecutor.execute(counters.length(), index -> counters.incrementAndGet(index));
+			assertEquals(1, counters.get(99));
+		}
+		finally
+		{
+			partitionedExecutor.stop();
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.physics.domain.force.MinimalDistanceForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see PositionBasedConstraintSolver
+ * @author omnaest
+ */
+public class PositionBasedConstraintSolverTest
+{
+
+	@Test
+	public void testSolve() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(50, 0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(52, 3));
+		Particle particle4 = new Particle(2).setLocation(new Vector(0, 80));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4);
+
+		List<ForceProvider> forceProviders = Arrays.asList(	new DistanceForceProvider(particle1, particle2, 20.0),
+															new MinimalDistanceForceProvider(particle1, particle4, 100.0),
+															new AntiCollisionForceProvider(particle2, 10.0));
+
+		new PositionBasedConstraintSolver()	.setIterations(20)
+											.solve(particles, forceProviders, null, 1.0);
+
+		assertEquals(20.0, distance(particle1, particle2), 0.5);
+		assertEquals(100.0, distance(particle1, particle4), 0.5);
+		assertTrue(distance(particle2, particle3) >= 9.5);
+	}
+
+	@Test
+	public void testInactiveInequality() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(50, 0));
+
+		new PositionBasedConstraintSolver().solve(	Arrays.asList(particle1, particle2),
+													Arrays.asList(new MinimalDistanceForceProvider(particle1, particle2, 10.0)), null, 1.0);
+
+		assertEquals(0.0, particle1	.getLocation()
+									.getX(),
+						0.0);
+		assertEquals(50.0, particle2.getLocation()
+									.getX(),
+						0.0);
+	}
+
+	@Test
+	public void testSolveCoincidentParticles() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(5, 5));
+		Particle particle2 = new Particle(2).setLocation(new Vector(5, 5));
+
+		new PositionBasedConstraintSolver().solve(	Arrays.asList(particle1, particle2),
+													Arrays.asList(new AntiCollisionForceProvider(particle1, 10.0)), null, 1.0);
+
+		assertEquals(10.0, distance(particle1, particle2), 0.000001);
+	}
+
+	private static double distance(Particle particle1, Particle particle2)
+	{
+		return particle1.getLocation()
+						.subtract(particle2.getLocation())
+						.absolute();
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.omnaest.physics.PhysicsSimulation;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.PointForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see RegionOfInterest
+ * @author omnaest
+ */
+public class RegionOfInterestTest
+{
+
+	@Test
+	public void testContains() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(5.0, 5.0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(50.0, 50.0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(52.0, 50.0));
+		Particle particle4 = new Particle(2).setLocation(new Vector(100.0, 100.0));
+
+		RegionOfInterest regionOfInterest = new RegionOfInterest()	.setBoundingBox(new Vector(0.0, 0.0), new Vector(10.0, 10.0))
+																	.setFocusParticles(Arrays.asList(particle2), 5.0);
+		assertTrue(regionOfInterest.contains(particle1));
+		assertTrue(regionOfInterest.contains(particle2));
+		assertTrue(regionOfInterest.contains(particle3));
+		assertFalse(regionOfInterest.contains(particle4));
+	}
+
+	@Test
+	public void testNextTick() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(5.0, 5.0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(50.0, 50.0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(60.0, 50.0));
+		Particle particle4 = new Particle(2).setLocation(new Vector(70.0, 50.0));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4);
+
+		RegionOfInterest regionOfInterest = new RegionOfInterest()	.setBoundingBox(new Vector(0.0, 0.0), new Vector(10.0, 10.0))
+																	.setOutsideRate(3);
+		Set<Particle> movedOutsideParticles = Collections.newSetFromMap(new IdentityHashMap<>());
+		for (int ii = 0; ii < 3; ii++)
+		{
+			//the region and one slice of the outside particles
+			Set<Particle> activeParticles = regionOfInterest.nextTick(particles);
+			assertEquals(2, activeParticles.size());
+			assertTrue(activeParticles.contains(particle1));
+			activeParticles.remove(particle1);
+			assertTrue(movedOutsideParticles.addAll(activeParticles));
+			assertEquals(ii == 2, regionOfInterest.isCycleCompleted());
+		}
+		assertEquals(3, movedOutsideParticles.size());
+
+		regionOfInterest.setOutsideRate(1);
+		assertNull(regionOfInterest.nextTick(particles));
+	}
+
+	@Test
+	public void testIncrementalRelaxationOutsideOfTheRegion() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(100.0, 100.0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(100.0, 120.0));
+
+		PhysicsSimulation simulation = new PhysicsSimulation()	.setIncrementalRelaxation(1, 0.0)
+																.setRegionOfInterest(new RegionOfInterest()	.setBoundingBox(new Vector(0.0, 0.0),
+																											new Vector(10.0, 10.0))
+																							.setOutsideRate(3))
+																.addParticles(Arrays.asList(particle1, particle2))
+																.addForceProvider(new DistanceForceProvider(particle1, particle2, 10.0));
+		for (int ii = 0; ii < 30; ii++)
+		{
+			simulation.tick();
+		}
+
+		//the ticks which hold the outside particles still must not count as converged
+		assertEquals(10.0, particle1.getLocation()
+									.subtract(particle2.getLocation())
+									.absolute(),
+						0.1);
+	}
+
+	@Test
+	public void testOutsideParticlesMoveWithTheRegularDeltaT() throws Exception
+	{
+		Vector location = this.tickOutsideParticle(new RegionOfInterest()	.setBoundingBox(new Vector(0.0, 0.0), new Vector(10.0, 10.0))
+																			.setOutsideRate(3));
+		Vector expectedLocation = this.tickOutsideParticle(null);
+		assertEquals(expectedLocation.getX(), location.getX(), 0.0);
+		assertEquals(expectedLocation.getY(), location.getY(), 0.0);
+	}
+
+	private Vector tickOutsideParticle(RegionOfInterest regionOfInterest)
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(100.0, 100.0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(100.0, 300.0));
+		PhysicsSimulation simulation = new PhysicsSimulation()	.setRegionOfInterest(regionOfInterest)
+																.addParticles(Arrays.asList(particle1, particle2))
+																.addForceProvider(new PointForceProvider(particle1, 100.0, 300.0))
+																.addForceProvider(new PointForceProvider(particle2, 100.0, 100.0));
+		simulation.tick();
+		return particle1.getLocation();
+	}
+
+}
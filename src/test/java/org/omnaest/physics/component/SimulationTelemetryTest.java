@@ -0,0 +1,193 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.management.JMX;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.omnaest.physics.PhysicsSimulation;
+import org.omnaest.physics.PhysicsSimulation.Runner;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+
+/**
+ * @see SimulationTelemetry
+ * @author omnaest
+ */
+public class SimulationTelemetryTest
+{
+
+	@Test
+	public void testRecordTick() throws Exception
+	{
+		PhysicsSimulation simulation = new PhysicsSimulation();
+		Runner runner = simulation.getRunner();
+		try
+		{
+			SimulationTelemetry telemetry = new SimulationTelemetry(simulation, runner, new ReentrantReadWriteLock().readLock());
+			for (int ii = 1; ii <= 100; ii++)
+			{
+				telemetry.recordTick(ii * 1000000L, 0);
+			}
+			assertEquals(100, telemetry.getTickCount());
+			assertEquals(50.0, telemetry.getTickLatencyP50Millis(), 0.0);
+			assertEquals(90.0, telemetry.getTickLatencyP90Millis(), 0.0);
+			assertEquals(99.0, telemetry.getTickLatencyP99Millis(), 0.0);
+			assertTrue(telemetry.getTickRate() > 0.0);
+		}
+		finally
+		{
+			runner.stop();
+		}
+	}
+
+	@Test
+	public void testGetWorkerUtilization() throws Exception
+	{
+		PhysicsSimulation simulation = new PhysicsSimulation();
+		Runner runner = simulation.getRunner();
+		try
+		{
+			SimulationTelemetry telemetry = new SimulationTelemetry(simulation, runner, new ReentrantReadWriteLock().readLock());
+			telemetry.setUtilizationWindow(20, TimeUnit.MILLISECONDS);
+			telemetry.recordTick(0, 0);
+			assertEquals(0.0, telemetry.getWorkerUtilization(), 0.0);
+
+			Thread.sleep(40);
+			telemetry.recordTick(1000000, TimeUnit.MILLISECONDS.toNanos(10));
+			double workerUtilization = telemetry.getWorkerUtilization();
+			assertTrue(workerUtilization > 0.0);
+			assertTrue(workerUtilization <= 0.25);
+
+			//reading the utilization does not reset the window
+			assertEquals(workerUtilization, telemetry.getWorkerUtilization(), 0.0);
+		}
+		finally
+		{
+			runner.stop();
+		}
+	}
+
+	@Test
+	public void testRegisterMBean() throws Exception
+	{
+		Particle particle1 = new Particle(2);
+		Particle particle2 = new Particle(2);
+		PhysicsSimulation simulation = new PhysicsSimulation()	.addParticle(particle1)
+																.addParticle(particle2)
+																.addForceProvider(new DistanceForceProvider(particle1, particle2, 10.0))
+																.addForceProvider(new AntiCollisionForceProvider(particle1, 10.0));
+		Runner runner = simulation	.getRunner()
+									.registerMBean("test");
+		try
+		{
+			SimulationMXBean mxBean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+															new ObjectName("org.omnaest.physics:type=PhysicsSimulation,name=\"test\""), SimulationMXBean.class);
+			assertEquals(2, mxBean.getParticleCount());
+			Map<String, Integer> countsByType = mxBean.getForceProviderCountsByType();
+			assertEquals(1, countsByType.get("SPECIFIC")
+										.intValue());
+			assertEquals(1, countsByType.get("ALL_MATCHING")
+										.intValue());
+
+			assertFalse(mxBean.isSuspended());
+			mxBean.suspend();
+			mxBean.suspend();
+			assertTrue(runner.isSuspended());
+			mxBean.resume();
+			assertFalse(runner.isSuspended());
+		}
+		finally
+		{
+			runner.stop();
+		}
+		assertFalse(ManagementFactory	.getPlatformMBeanServer()
+										.isRegistered(new ObjectName("org.omnaest.physics:type=PhysicsSimulation,name=\"test\"")));
+	}
+
+	@Test
+	public void testRegisterMBeanTwice() throws Exception
+	{
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName1 = new ObjectName("org.omnaest.physics:type=PhysicsSimulation,name=\"first\"");
+		ObjectName objectName2 = new ObjectName("org.omnaest.physics:type=PhysicsSimulation,name=\"second\"");
+		Runner runner = new PhysicsSimulation()	.getRunner()
+												.registerMBean("first");
+		try
+		{
+			runner.registerMBean("second");
+			assertFalse(mBeanServer.isRegistered(objectName1));
+			assertTrue(mBeanServer.isRegistered(objectName2));
+
+			runner.registerMBean("second");
+			assertTrue(mBeanServer.isRegistered(objectName2));
+		}
+		finally
+		{
+			runner.stop();
+		}
+		assertFalse(mBeanServer.isRegistered(objectName2));
+	}
+
+	@Test
+	public void testReadSceneWhileMutated() throws Exception
+	{
+		Particle particle = new Particle(2);
+		PhysicsSimulation simulation = new PhysicsSimulation().addParticle(particle);
+		Runner runner = simulation	.getRunner()
+									.setTimeTickHandler((timeTick, physicsSimulation) ->
+									{
+										Particle otherParticle = new Particle(2);
+										physicsSimulation	.addParticle(otherParticle)
+															.addForceProvider(new DistanceForceProvider(particle, otherParticle, 10.0));
+									})
+									.registerMBean("mutated");
+		try
+		{
+			runner.run();
+			SimulationMXBean mxBean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+															new ObjectName("org.omnaest.physics:type=PhysicsSimulation,name=\"mutated\""), SimulationMXBean.class);
+			for (int ii = 0; ii < 5000; ii++)
+			{
+				int particleCount = mxBean.getParticleCount();
+				Integer forceProviderCount = mxBean	.getForceProviderCountsByClass()
+													.get(DistanceForceProvider.class.getName());
+				assertTrue(particleCount >= 1);
+				assertTrue(forceProviderCount == null || forceProviderCount > 0);
+			}
+		}
+		finally
+		{
+			runner.stop();
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.DistanceForceProvider;
+import org.omnaest.physics.domain.force.ForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see StressMajorizationSolver
+ * @author omnaest
+ */
+public class StressMajorizationSolverTest
+{
+
+	@Test
+	public void testSolve() throws Exception
+	{
+		//grid of 5x5 particles with random start locations
+		Random random = new Random(1);
+		List<Particle> particles = new ArrayList<>();
+		for (int ii = 0; ii < 25; ii++)
+		{
+			particles.add(new Particle(2).setLocation(new Vector(random.nextDouble() * 10, random.nextDouble() * 10)));
+		}
+		List<ForceProvider> forceProviders = new ArrayList<>();
+		for (int ii = 0; ii < 5; ii++)
+		{
+			for (int jj = 0; jj < 5; jj++)
+			{
+				if (ii < 4)
+				{
+					forceProviders.add(new DistanceForceProvider(particles.get(ii * 5 + jj), particles.get((ii + 1) * 5 + jj), 10.0));
+				}
+				if (jj < 4)
+				{
+					forceProviders.add(new DistanceForceProvider(particles.get(ii * 5 + jj), particles.get(ii * 5 + jj + 1), 10.0));
+				}
+			}
+		}
+
+		StressMajorizationSolver solver = new StressMajorizationSolver().setLandmarks(0);
+		int iterations = solver.solve(particles, forceProviders, 500, 0.0000001);
+		assertTrue(iterations > 0);
+		assertTrue(solver.getLastStress() < 0.001);
+
+		DistanceForceProvider forceProvider = (DistanceForceProvider) forceProviders.get(0);
+		assertEquals(10.0, forceProvider.getParticle1()
+										.getLocation()
+										.subtract(forceProvider	.getParticle2()
+																.getLocation())
+										.absolute(),
+						0.1);
+	}
+
+	@Test
+	public void testSolveWithLandmarks() throws Exception
+	{
+		//grid of 30x20 particles, which is large enough for the automatic landmarks
+		int width = 30;
+		int height = 20;
+		Random random = new Random(1);
+		List<Particle> particles = new ArrayList<>();
+		for (int ii = 0; ii < width * height; ii++)
+		{
+			particles.add(new Particle(2).setLocation(new Vector(random.nextDouble() * 10, random.nextDouble() * 10)));
+		}
+		List<ForceProvider> forceProviders = new ArrayList<>();
+		for (int ii = 0; ii < height; ii++)
+		{
+			for (int jj = 0; jj < width; jj++)
+			{
+				if (ii < height - 1)
+				{
+					forceProviders.add(new DistanceForceProvider(particles.get(ii * width + jj), particles.get((ii + 1) * width + jj), 10.0));
+				}
+				if (jj < width - 1)
+				{
+					forceProviders.add(new DistanceForceProvider(particles.get(ii * width + jj), particles.get(ii * width + jj + 1), 10.0));
+				}
+			}
+		}
+
+		StressMajorizationSolver solver = new StressMajorizationSolver();
+		solver.solve(particles, forceProviders, 0, 0.0);
+		double initialStress = solver.getLastStress();
+
+		int iterations = solver.solve(particles, forceProviders, 1000, 0.00001);
+		assertTrue(iterations > 0);
+		assertTrue(solver.getLastStress() < initialStress * 0.05);
+
+		//the landmarks unfold the grid, whose corners have a graph distance of 480 and an euclidean one of about 347
+		double diagonal = particles	.get(0)
+									.getLocation()
+									.subtract(particles	.get(width * height - 1)
+														.getLocation())
+									.absolute();
+		assertTrue(diagonal > 300.0);
+		assertTrue(diagonal < 480.0);
+	}
+
+	@Test
+	public void testSolveOvershootingPair() throws Exception
+	{
+		//parallel updates move both particles past each other forever without changing the stress
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(1, 0));
+		List<ForceProvider> forceProviders = new ArrayList<>();
+		forceProviders.add(new DistanceForceProvider(particle1, particle2, 10.0));
+
+		StressMajorizationSolver solver = new StressMajorizationSolver().setLandmarks(0);
+		solver.solve(Arrays.asList(particle1, particle2), forceProviders, 10, 0.0001);
+		assertEquals(0.0, solver.getLastStress(), 0.000001);
+		assertEquals(10.0, particle1	.getLocation()
+										.subtract(particle2.getLocation())
+										.absolute(),
+						0.0001);
+	}
+
+}
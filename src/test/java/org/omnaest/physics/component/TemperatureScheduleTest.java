@@ -0,0 +1,65 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * @see TemperatureSchedule
+ * @author omnaest
+ */
+public class TemperatureScheduleTest
+{
+
+	@Test
+	public void testUpdate() throws Exception
+	{
+		TemperatureSchedule temperatureSchedule = new TemperatureSchedule(10.0)	.setCoolingFactor(0.5)
+																				.setMinTemperature(1.0);
+		temperatureSchedule.update(1.0);
+		assertEquals(5.0, temperatureSchedule.getTemperature(), 0.0);
+		temperatureSchedule.update(1.0);
+		temperatureSchedule.update(1.0);
+		temperatureSchedule.update(1.0);
+		assertEquals(1.0, temperatureSchedule.getTemperature(), 0.0);
+	}
+
+	@Test
+	public void testAdaptiveUpdate() throws Exception
+	{
+		TemperatureSchedule temperatureSchedule = new TemperatureSchedule(10.0)	.setCoolingFactor(0.5)
+																				.setAdaptive(true);
+		temperatureSchedule.update(100.0);
+		assertEquals(5.0, temperatureSchedule.getTemperature(), 0.0);
+
+		//increasing energy cools
+		temperatureSchedule.update(200.0);
+		assertEquals(2.5, temperatureSchedule.getTemperature(), 0.0);
+
+		//continuously decreasing energy heats up again
+		for (int ii = 0; ii < 5; ii++)
+		{
+			temperatureSchedule.update(100.0 - ii);
+		}
+		assertEquals(5.0, temperatureSchedule.getTemperature(), 0.0);
+	}
+
+}
@@ -0,0 +1,80 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.component;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.physics.domain.force.AntiCollisionForceProvider;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see VerletNeighborList
+ * @author omnaest
+ */
+public class VerletNeighborListTest
+{
+
+	@Test
+	public void testIsInRange() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(15, 0));
+		Particle particle3 = new Particle(2).setLocation(new Vector(100, 0));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3);
+
+		VerletNeighborList neighborList = new VerletNeighborList(10.0);
+		neighborList.update(particles, 10.0);
+
+		assertTrue(neighborList.isNeighbor(particle1, particle2));
+		assertFalse(neighborList.isNeighbor(particle1, particle3));
+		assertTrue(neighborList.isInRange(new AntiCollisionForceProvider(particle1, 10.0), particle2));
+		assertFalse(neighborList.isInRange(new AntiCollisionForceProvider(particle1, 10.0), particle3));
+		assertTrue(neighborList.isNeighbor(particle1, new Particle(2)));
+	}
+
+	@Test
+	public void testRebuild() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(100, 0));
+		List<Particle> particles = Arrays.asList(particle1, particle2);
+
+		VerletNeighborList neighborList = new VerletNeighborList(10.0);
+		neighborList.update(particles, 10.0);
+		assertEquals(1, neighborList.getRebuildCount());
+
+		particle2.move(new Vector(-4.0, 0));
+		neighborList.update(particles, 10.0);
+		assertEquals(1, neighborList.getRebuildCount());
+		assertFalse(neighborList.isNeighbor(particle1, particle2));
+
+		particle2.move(new Vector(-90.0, 0));
+		neighborList.update(particles, 10.0);
+		assertEquals(2, neighborList.getRebuildCount());
+		assertTrue(neighborList.isNeighbor(particle1, particle2));
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see ParticleIdSet
+ * @author omnaest
+ */
+public class ParticleIdSetTest
+{
+
+	@Test
+	public void testContains() throws Exception
+	{
+		List<Particle> particles = new ArrayList<>();
+		for (int ii = 0; ii < 200; ii++)
+		{
+			particles.add(new Particle(2));
+		}
+
+		//dense
+		ParticleIdSet particleIdSet = ParticleIdSet.of(particles.subList(10, 100));
+		assertEquals(90, particleIdSet.size());
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			assertEquals(ii >= 10 && ii < 100, particleIdSet.contains(particles.get(ii)));
+		}
+
+		//sparse
+		particleIdSet = ParticleIdSet.of(particles.get(0), particles.get(199));
+		assertEquals(2, particleIdSet.size());
+		assertTrue(particleIdSet.contains(particles.get(0)));
+		assertTrue(particleIdSet.contains(particles.get(199)));
+		assertFalse(particleIdSet.contains(particles.get(100)));
+
+		assertFalse(ParticleIdSet.EMPTY.contains(particles.get(0)));
+	}
+
+	@Test
+	public void testAnchorParticle() throws Exception
+	{
+		Particle particle = new Particle(2);
+		Particle anchorParticle = Particle.newAnchorParticle(new Vector(1, 1));
+		assertEquals(Particle.NO_ID, anchorParticle.getId());
+
+		ParticleIdSet particleIdSet = ParticleIdSet.of(particle, anchorParticle);
+		assertEquals(1, particleIdSet.size());
+		assertTrue(particleIdSet.contains(particle));
+		assertFalse(particleIdSet.contains(Particle.newAnchorParticle(new Vector(2, 2))));
+	}
+
+}
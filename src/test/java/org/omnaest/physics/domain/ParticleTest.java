@@ -0,0 +1,59 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * @see Particle
+ * @author omnaest
+ */
+public class ParticleTest
+{
+
+	@Test
+	public void testGetIdReusesIdsOfCollectedParticles() throws Exception
+	{
+		List<Particle> particles = new ArrayList<>();
+		for (int ii = 0; ii < 1000; ii++)
+		{
+			particles.add(new Particle(2));
+		}
+		int maxId = particles	.stream()
+								.mapToInt(Particle::getId)
+								.max()
+								.getAsInt();
+		particles.clear();
+
+		boolean reused = false;
+		for (int ii = 0; ii < 100 && !reused; ii++)
+		{
+			System.gc();
+			Thread.sleep(10);
+			reused = new Particle(2).getId() <= maxId;
+		}
+		assertTrue(reused);
+	}
+
+}
@@ -18,11 +18,16 @@
 */
 package org.omnaest.physics.domain.force;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+
 import org.junit.Test;
+import org.omnaest.physics.component.ParticleSnapshot;
 import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
 
 public class AntiCollisionForceProviderTest
 {
@@ -41,4 +46,38 @@ public class AntiCollisionForceProviderTest
 		assertTrue(forceProvider.match(otherParticle));
 	}
 
+	@Test
+	public void testMatchCollisionLayers() throws Exception
+	{
+		Particle particle = new Particle(3);
+		Particle otherParticle = new Particle(3).setCollisionLayers(1 << 1);
+		AntiCollisionForceProvider forceProvider = new AntiCollisionForceProvider(particle, 100).setCollisionLayers(new CollisionLayers());
+		assertTrue(forceProvider.match(otherParticle));
+
+		forceProvider.setCollisionLayers(new CollisionLayers().setInteraction(0, 1, false));
+		assertFalse(forceProvider.match(otherParticle));
+	}
+
+	@Test
+	public void testGetForceWithParticleView() throws Exception
+	{
+		Particle particle = new Particle(2).setLocation(new Vector(0, 0));
+		Particle otherParticle = new Particle(2).setLocation(new Vector(0, 5));
+		AntiCollisionForceProvider forceProvider = new AntiCollisionForceProvider(particle, 10).setStrength(1.0);
+
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(Arrays.asList(particle, otherParticle));
+		Vector force = forceProvider.getForce(otherParticle);
+		assertEquals(25.0, force.getY(), 0.0001);
+
+		//the view keeps the locations of the snapshot
+		particle.move(new Vector(0, 4));
+		otherParticle.move(new Vector(0, 20));
+		assertEquals(force.getY(), forceProvider	.getForce(particleSnapshot, 1)
+													.getY(),
+						0.0001);
+		assertEquals(0.0, forceProvider	.getForce(otherParticle)
+										.absolute(),
+						0.0001);
+	}
+
 }
@@ -0,0 +1,96 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see CachingForceProvider
+ * @author omnaest
+ */
+public class CachingForceProviderTest
+{
+
+	@Test
+	public void testGetForce() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(0, 200));
+		CachingForceProvider forceProvider = new CachingForceProvider(new DistanceForceProvider(particle1, particle2, 100), 1.0);
+
+		Vector force = forceProvider.getForce(particle2);
+		assertEquals(100000.0, force.absolute(), 0.001);
+
+		particle1.move(new Vector(0.5, 0.0));
+		assertSame(force, forceProvider.getForce(particle2));
+
+		particle1.move(new Vector(0.6, 0.0));
+		assertNotSame(force, forceProvider.getForce(particle2));
+	}
+
+	@Test
+	public void testGetForceInThreeDimensions() throws Exception
+	{
+		Particle particle1 = new Particle(3).setLocation(new Vector(0, 0, 0));
+		Particle particle2 = new Particle(3).setLocation(new Vector(0, 0, 200));
+		CachingForceProvider forceProvider = new CachingForceProvider(new DistanceForceProvider(particle1, particle2, 100), 1.0);
+
+		Vector force = forceProvider.getForce(particle2);
+		particle1.setLocation(new Vector(0, 0, 0));
+		assertSame(force, forceProvider.getForce(particle2));
+
+		particle1.move(new Vector(0.0, 0.0, 1.1));
+		assertNotSame(force, forceProvider.getForce(particle2));
+	}
+
+	@Test
+	public void testGetForceWithChangedParameters() throws Exception
+	{
+		Particle particle = new Particle(2).setLocation(new Vector(0, 10));
+		AtomicReference<Double> strength = new AtomicReference<>(1.0);
+		PointForceProvider pointForceProvider = new PointForceProvider(particle, 0, 0).setStrength(strength::get);
+		CachingForceProvider forceProvider = new CachingForceProvider(pointForceProvider, 1.0);
+
+		Vector force = forceProvider.getForce(particle);
+		assertEquals(100.0, force.absolute(), 0.001);
+		assertSame(force, forceProvider.getForce(particle));
+
+		pointForceProvider.setLocation(new Vector(0, 5));
+		force = forceProvider.getForce(particle);
+		assertEquals(25.0, force.absolute(), 0.001);
+
+		forceProvider.beforeTick();
+		assertSame(force, forceProvider.getForce(particle));
+
+		strength.set(2.0);
+		forceProvider.beforeTick();
+		assertEquals(50.0, forceProvider	.getForce(particle)
+											.absolute(),
+						0.001);
+	}
+
+}
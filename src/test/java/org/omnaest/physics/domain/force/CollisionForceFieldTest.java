@@ -0,0 +1,137 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.omnaest.physics.component.ParticleSnapshot;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see CollisionForceField
+ * @author omnaest
+ */
+public class CollisionForceFieldTest
+{
+
+	@Test
+	public void testAccumulate() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2)	.setLocation(new Vector(3, 0))
+												.setCollisionLayers(1 << 1);
+		Particle particle3 = new Particle(2).setLocation(new Vector(0, 4));
+		Particle particle4 = new Particle(2).setLocation(new Vector(50, 50));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4);
+
+		CollisionLayers collisionLayers = new CollisionLayers().setInteraction(0, 1, false);
+		CollisionForceField collisionForceField = new CollisionForceField(10.0, collisionLayers).setStrength(1.0);
+
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+		double[] forces = particleSnapshot.newForceArray();
+		collisionForceField.accumulate(particleSnapshot, forces);
+
+		Vector force1 = new AntiCollisionForceProvider(particle3, 10.0)	.setStrength(1.0)
+																		.getForce(particle1);
+		Vector force3 = new AntiCollisionForceProvider(particle1, 10.0)	.setStrength(1.0)
+																		.getForce(particle3);
+		assertEquals(force1.getX(), particleSnapshot.toVector(forces, 0)
+													.getX(),
+						0.000001);
+		assertEquals(force1.getY(), particleSnapshot.toVector(forces, 0)
+													.getY(),
+						0.000001);
+		assertEquals(0.0, particleSnapshot	.toVector(forces, 1)
+											.absolute(),
+						0.0);
+		assertEquals(force3.getY(), particleSnapshot.toVector(forces, 2)
+													.getY(),
+						0.000001);
+		assertEquals(0.0, particleSnapshot	.toVector(forces, 3)
+											.absolute(),
+						0.0);
+
+		//disabled layer
+		collisionLayers.setEnabled(0, false);
+		forces = particleSnapshot.newForceArray();
+		collisionForceField.accumulate(particleSnapshot, forces);
+		assertEquals(0.0, particleSnapshot	.toVector(forces, 0)
+											.absolute(),
+						0.0);
+	}
+
+	@Test
+	public void testAccumulateSingleParticle() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2)	.setLocation(new Vector(3, 0))
+												.setCollisionLayers(1 << 1);
+		Particle particle3 = new Particle(2).setLocation(new Vector(0, 4));
+		Particle particle4 = new Particle(2).setLocation(new Vector(2, 2));
+		List<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4);
+
+		CollisionLayers collisionLayers = new CollisionLayers().setInteraction(0, 1, false);
+		CollisionForceField collisionForceField = new CollisionForceField(10.0, collisionLayers).setStrength(1.0);
+
+		ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles);
+		double[] forces = particleSnapshot.newForceArray();
+		collisionForceField.accumulate(particleSnapshot, forces);
+
+		for (int ii = 0; ii < particles.size(); ii++)
+		{
+			double[] force = new double[particleSnapshot.getDimensions()];
+			collisionForceField.accumulate(particleSnapshot, ii, force);
+			assertEquals(forces[ii * 2], force[0], 0.000001);
+			assertEquals(forces[ii * 2 + 1], force[1], 0.000001);
+		}
+	}
+
+	@Test
+	public void testAccumulateWithReusedGrid() throws Exception
+	{
+		List<Particle> particles = new ArrayList<>();
+		for (int ii = 0; ii < 100; ii++)
+		{
+			particles.add(new Particle(2).setLocation(new Vector(ii * 37 % 101 - 50, ii * 53 % 97 - 48)));
+		}
+
+		CollisionForceField collisionForceField = new CollisionForceField(10.0, new CollisionLayers()).setStrength(1.0);
+		for (int size : new int[] { 100, 7, 60 })
+		{
+			ParticleSnapshot particleSnapshot = new ParticleSnapshot(particles.subList(0, size));
+			double[] forces = particleSnapshot.newForceArray();
+			collisionForceField.accumulate(particleSnapshot, forces);
+
+			for (int ii = 0; ii < size; ii++)
+			{
+				double[] force = new double[particleSnapshot.getDimensions()];
+				collisionForceField.accumulate(particleSnapshot, ii, force);
+				assertEquals(force[0], forces[ii * 2], 0.000001);
+				assertEquals(force[1], forces[ii * 2 + 1], 0.000001);
+			}
+		}
+	}
+
+}
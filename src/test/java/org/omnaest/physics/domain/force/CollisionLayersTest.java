@@ -0,0 +1,56 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+
+/**
+ * @see CollisionLayers
+ * @author omnaest
+ */
+public class CollisionLayersTest
+{
+
+	@Test
+	public void testCollide() throws Exception
+	{
+		Particle particle1 = new Particle(2);
+		Particle particle2 = new Particle(2).setCollisionLayers(1 << 1);
+		Particle particle3 = new Particle(2).setCollisionLayers(1 | 1 << 2);
+
+		CollisionLayers collisionLayers = new CollisionLayers().setInteraction(0, 1, false);
+		assertFalse(collisionLayers.collide(particle1, particle2));
+		assertFalse(collisionLayers.collide(particle2, particle1));
+		assertTrue(collisionLayers.collide(particle1, particle3));
+		assertTrue(collisionLayers.collide(particle2, particle3));
+
+		collisionLayers.setEnabled(2, false);
+		assertFalse(collisionLayers.collide(particle2, particle3));
+		assertEquals(0, collisionLayers.getMask(1 << 2));
+
+		collisionLayers.setEnabled(2, true);
+		assertTrue(collisionLayers.collide(particle2, particle3));
+	}
+
+}
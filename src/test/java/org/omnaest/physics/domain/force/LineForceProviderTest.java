@@ -18,10 +18,12 @@
 */
 package org.omnaest.physics.domain.force;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Map;
 
 import org.junit.Test;
 import org.omnaest.physics.domain.Particle;
@@ -54,4 +56,31 @@ public class LineForceProviderTest
 							.distanceTo(new Vector(0, 0, 0)) < 5.0);
 	}
 
+	@Test
+	public void testCalculateForces() throws Exception
+	{
+		Particle particle1 = new Particle(3).setLocation(new Vector(-100, 0, 0));
+		Particle particle2 = new Particle(3).setLocation(new Vector(100, 10, 0));
+		Particle particle3 = new Particle(3).setLocation(new Vector(0, 100, 0));
+		Particle particle4 = new Particle(3).setLocation(new Vector(50, -50, 0));
+		Collection<Particle> particles = Arrays.asList(particle1, particle2, particle3, particle4);
+		LineForceProvider lineForceProvider = new LineForceProvider(particles);
+
+		Map<Particle, Vector> forces = lineForceProvider.calculateForces();
+		assertEquals(4, forces.size());
+		for (Particle particle : particles)
+		{
+			assertTrue(forces	.get(particle)
+								.distanceTo(lineForceProvider.getForce(particle)) < 0.0001);
+		}
+
+		lineForceProvider.beforeTick();
+		particle3.move(new Vector(0, -50, 0));
+		assertTrue(lineForceProvider.getForce(particle3)
+									.distanceTo(forces.get(particle3)) < 0.0001);
+		lineForceProvider.afterTick();
+		assertTrue(lineForceProvider.getForce(particle3)
+									.distanceTo(forces.get(particle3)) > 1.0);
+	}
+
 }
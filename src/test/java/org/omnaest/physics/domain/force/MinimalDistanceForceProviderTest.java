@@ -20,7 +20,11 @@ package org.omnaest.physics.domain.force;
 
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
+import org.omnaest.physics.PhysicsSimulation;
 import org.omnaest.physics.domain.Particle;
 import org.omnaest.vector.Vector;
 
@@ -53,4 +57,25 @@ public class MinimalDistanceForceProviderTest
 
 	}
 
+	@Test
+	public void testDynamicDistanceWithNeighborList() throws Exception
+	{
+		Particle particle1 = new Particle(2).setLocation(new Vector(0, 0));
+		Particle particle2 = new Particle(2).setLocation(new Vector(0, 30));
+		AtomicReference<Double> distance = new AtomicReference<>(10.0);
+
+		PhysicsSimulation simulation = new PhysicsSimulation()	.setNeighborListSkin(1.0)
+																.addParticles(Arrays.asList(particle1, particle2))
+																.addForceProvider(new MinimalDistanceForceProvider(particle1, particle2, distance::get));
+		simulation.tick();
+		assertTrue(particle2.getLocation()
+							.getY() < 30.001);
+
+		//the enlarged distance has to be within the neighbor list cutoff of the very next tick
+		distance.set(50.0);
+		simulation.tick();
+		assertTrue(particle2.getLocation()
+							.getY() > 30.001);
+	}
+
 }
@@ -0,0 +1,58 @@
+/*
+
+	Copyright 2017 Danny Kunz
+
+	Licensed under the Apache License, Version 2.0 (the "License");
+	you may not use this file except in compliance with the License.
+	You may obtain a copy of the License at
+
+		http://www.apache.org/licenses/LICENSE-2.0
+
+	Unless required by applicable law or agreed to in writing, software
+	distributed under the License is distributed on an "AS IS" BASIS,
+	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+	See the License for the specific language governing permissions and
+	limitations under the License.
+
+
+*/
+package org.omnaest.physics.domain.force;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.omnaest.physics.domain.Particle;
+import org.omnaest.vector.Vector;
+
+/**
+ * @see PointForceProvider
+ * @author omnaest
+ */
+public class PointForceProviderTest
+{
+
+	@Test
+	public void testDynamicStrength() throws Exception
+	{
+		Particle particle = new Particle(2).setLocation(new Vector(10, 0));
+		AtomicInteger strength = new AtomicInteger(1);
+		PointForceProvider forceProvider = new PointForceProvider(particle, 0, 0).setStrength(() -> (double) strength.get());
+
+		assertEquals(100.0, forceProvider	.getForce(particle)
+											.absolute(),
+						0.001);
+
+		strength.set(2);
+		assertEquals(100.0, forceProvider	.getForce(particle)
+											.absolute(),
+						0.001);
+
+		forceProvider.beforeTick();
+		assertEquals(200.0, forceProvider	.getForce(particle)
+											.absolute(),
+						0.001);
+	}
+
+}